@@ -0,0 +1,34 @@
+package vesting.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import vesting.calculator.CumulativeVestingCalculator;
+import vesting.model.VestingSummary;
+import vesting.validation.CancellationValidator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CalculatorBenchmark {
+
+    private final CancellationValidator validator = new CancellationValidator();
+    private final CumulativeVestingCalculator calculator = new CumulativeVestingCalculator(validator);
+
+    @Benchmark
+    public void validate(Dataset data) {
+        validator.validate(data.eventsToTarget);
+    }
+
+    // Includes validation, as the application runs it.
+    @Benchmark
+    public List<VestingSummary> calculate(Dataset data) {
+        return calculator.calculate(data.events, Dataset.TARGET, data.precisionHandler);
+    }
+}
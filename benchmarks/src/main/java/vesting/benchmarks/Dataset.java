@@ -0,0 +1,98 @@
+package vesting.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import vesting.calculator.CumulativeVestingCalculator;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// A synthetic event file shared by all benchmarks. Rows are spread over five years
+// in date order across `keys` employee-award pairs chosen uniformly; a `cancelRatio`
+// share of rows cancel part of what the key has vested so far, so every dataset is
+// valid. Generation is seeded, so each parameter combination is the same data on
+// every run and every machine.
+@State(Scope.Benchmark)
+public class Dataset {
+
+    static final LocalDate START = LocalDate.of(2020, 1, 1);
+    static final LocalDate TARGET = LocalDate.of(2023, 1, 1);
+    static final int PRECISION = 2;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"100", "100000"})
+    public int keys;
+
+    @Param({"0.0", "0.2"})
+    public double cancelRatio;
+
+    public PrecisionHandler precisionHandler;
+    public Path file;
+    public String[] lines;
+    public List<VestingEvent> events;
+    public List<VestingEvent> eventsToTarget;
+    public List<VestingSummary> summaries;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        precisionHandler = new PrecisionHandler(PRECISION);
+        lines = generateLines(rows, keys, cancelRatio, 42);
+
+        file = Files.createTempFile("vesting-bench-", ".csv");
+        Files.write(file, List.of(lines));
+
+        events = new CsvEventParser(new CsvLineParser()).parse(file.toString(), precisionHandler);
+        eventsToTarget = events.stream().filter(e -> !e.date().isAfter(TARGET)).toList();
+        summaries = new CumulativeVestingCalculator(new CancellationValidator())
+                .calculate(events, TARGET, precisionHandler);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    static String[] generateLines(int rows, int keys, double cancelRatio, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] available = new long[keys];
+        long days = 5 * 365;
+        List<String> lines = new ArrayList<>(rows);
+
+        for (int i = 0; i < rows; i++) {
+            int key = random.nextInt(keys);
+            String employeeId = "E" + key / 4;
+            String awardId = "A" + key;
+            String name = "Employee " + key / 4;
+            LocalDate date = START.plusDays(i * days / rows);
+
+            // Quantities are in hundredths.
+            boolean cancel = available[key] > 0 && random.nextDouble() < cancelRatio;
+            long quantity = cancel
+                    ? 1 + random.nextLong(available[key])
+                    : 1 + random.nextLong(1_000_000);
+            available[key] += cancel ? -quantity : quantity;
+
+            lines.add(String.join(",", cancel ? "CANCEL" : "VEST", employeeId, name, awardId,
+                    date.toString(), BigDecimal.valueOf(quantity, 2).toPlainString()));
+        }
+        return lines.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,38 @@
+package vesting.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import vesting.formatter.CsvOutputFormatter;
+import vesting.model.VestingSummary;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FormatterBenchmark {
+
+    // Discards bytes, so only formatting and encoding are measured.
+    private final CsvOutputFormatter formatter = new CsvOutputFormatter(
+            new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8));
+
+    @Benchmark
+    public void precisionFormat(Dataset data, Blackhole blackhole) {
+        for (VestingSummary summary : data.summaries) {
+            blackhole.consume(data.precisionHandler.format(summary.totalSharesVested()));
+        }
+    }
+
+    @Benchmark
+    public void csvOutput(Dataset data) {
+        formatter.format(data.summaries, data.precisionHandler);
+    }
+}
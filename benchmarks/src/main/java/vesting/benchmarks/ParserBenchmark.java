@@ -0,0 +1,40 @@
+package vesting.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import vesting.model.VestingEvent;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    private final CsvLineParser lineParser = new CsvLineParser();
+    private final CsvEventParser eventParser = new CsvEventParser(lineParser);
+
+    // Whole dataset per invocation, so scores compare across row counts as time per file.
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void parseLine(Dataset data, Blackhole blackhole) {
+        String[] lines = data.lines;
+        for (int i = 0; i < lines.length; i++) {
+            blackhole.consume(lineParser.parseLine(lines[i], i + 1, data.precisionHandler));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<VestingEvent> parseFile(Dataset data) {
+        return eventParser.parse(data.file.toString(), data.precisionHandler);
+    }
+}
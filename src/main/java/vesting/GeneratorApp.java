@@ -0,0 +1,37 @@
+package vesting;
+
+import vesting.cli.GeneratorArgs;
+import vesting.generator.EventFileGenerator;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+// Entry point for writing synthetic event files for load and soak testing.
+public final class GeneratorApp {
+
+    private GeneratorApp() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            GeneratorArgs generatorArgs = GeneratorArgs.parse(args);
+
+            long start = System.nanoTime();
+            EventFileGenerator.Result result = new EventFileGenerator(generatorArgs.config(), generatorArgs.threads())
+                    .generate(Path.of(generatorArgs.output()));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("Wrote %d rows (%d bytes) to %s in %.2f s%n",
+                    result.rows(), result.bytes(), generatorArgs.output(), seconds);
+
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (UncheckedIOException e) {
+            System.err.println("File error: " + e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Unexpected error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,25 +1,58 @@
 package vesting;
 
 import vesting.calculator.CumulativeVestingCalculator;
+import vesting.calculator.FusedVestingCalculator;
+import vesting.calculator.IncrementalVestingCalculator;
+import vesting.calculator.MultiDateVestingCalculator;
+import vesting.calculator.MultiFileVestingCalculator;
+import vesting.calculator.PipelinedVestingCalculator;
+import vesting.calculator.SpillingVestingCalculator;
+import vesting.calculator.StreamingVestingCalculator;
 import vesting.calculator.VestingCalculator;
+import vesting.cli.CalculationEngine;
 import vesting.cli.CommandLineArgs;
-import vesting.formatter.CsvOutputFormatter;
+import vesting.cli.ParserMode;
+import vesting.cli.ThreadKind;
+import vesting.eventlog.EventLog;
+import vesting.eventlog.EventLogAwareParser;
+import vesting.eventlog.EventLogConverter;
+import vesting.formatter.ChannelOutputFormatter;
 import vesting.formatter.OutputFormatter;
-import vesting.model.VestingEvent;
+import vesting.index.AsOfIndex;
+import vesting.index.AsOfIndexBuilder;
 import vesting.model.VestingSummary;
+import vesting.parser.ByteCsvEventParser;
 import vesting.parser.CsvEventParser;
 import vesting.parser.CsvLineParser;
 import vesting.parser.EventParser;
+import vesting.parser.InputFiles;
+import vesting.parser.LenientEventParser;
+import vesting.parser.MappedCsvEventParser;
+import vesting.parser.RejectReport;
 import vesting.precision.PrecisionHandler;
-import vesting.validation.CancellationValidator;
-import vesting.validation.EventValidator;
+import vesting.stats.InstrumentedCalculator;
+import vesting.stats.InstrumentedEventParser;
+import vesting.stats.InstrumentedOutputFormatter;
+import vesting.stats.InstrumentedPipeline;
+import vesting.stats.InstrumentedValidator;
+import vesting.stats.RunStats;
+import vesting.validation.ParallelCancellationValidator;
 
+import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadFactory;
 
 public final class VestingApp {
 
+    // Rejected lines listed in full by --lenient; all are counted.
+    private static final int MAX_LISTED_REJECTS = 100;
+
     private final EventParser parser;
     private final VestingCalculator calculator;
     private final OutputFormatter formatter;
@@ -33,35 +66,263 @@ public final class VestingApp {
     public void run(String filename, LocalDate targetDate, int precision) {
         PrecisionHandler precisionHandler = new PrecisionHandler(precision);
 
-        List<VestingEvent> events = parser.parse(filename, precisionHandler);
-        List<VestingSummary> summaries = calculator.calculate(events, targetDate, precisionHandler);
+        List<VestingSummary> summaries = calculator.calculate(parser, filename, targetDate, precisionHandler);
         formatter.format(summaries, precisionHandler);
     }
 
+    public void run(String filename, List<LocalDate> targetDates, int precision) {
+        if (targetDates.size() == 1) {
+            run(filename, targetDates.get(0), precision);
+            return;
+        }
+        PrecisionHandler precisionHandler = new PrecisionHandler(precision);
+
+        new MultiDateVestingCalculator().calculate(parser, filename, targetDates, precisionHandler,
+                (asOf, summaries) -> formatter.formatBlock(asOf, summaries, precisionHandler));
+    }
+
+    // Input sharded over several files, parsed concurrently and merged.
+    public void run(List<Path> files, List<LocalDate> targetDates, int precision) {
+        PrecisionHandler precisionHandler = new PrecisionHandler(precision);
+
+        new MultiFileVestingCalculator().calculate(parser, files, targetDates, precisionHandler,
+                (asOf, summaries) -> emit(targetDates, asOf, summaries, precisionHandler));
+    }
+
+    // Keeps per-key state within memoryBudget bytes by spilling it to temp files.
+    // Summaries arrive in chunks, so only a date's first chunk starts a block.
+    public void runBounded(List<Path> files, List<LocalDate> targetDates, int precision, long memoryBudget) {
+        PrecisionHandler precisionHandler = new PrecisionHandler(precision);
+
+        LocalDate[] block = {null};
+        new SpillingVestingCalculator(memoryBudget).calculate(parser, files, targetDates, precisionHandler,
+                (asOf, summaries) -> {
+                    if (targetDates.size() == 1 || asOf.equals(block[0])) {
+                        formatter.format(summaries, precisionHandler);
+                    } else {
+                        block[0] = asOf;
+                        formatter.formatBlock(asOf, summaries, precisionHandler);
+                    }
+                });
+    }
+
+    // Answers each date from a prebuilt index instead of parsing the event file.
+    public void run(AsOfIndex index, List<LocalDate> targetDates, int precision) {
+        if (index.precision() != precision) {
+            throw new IllegalArgumentException("Index was built with precision " + index.precision()
+                    + " but precision " + precision + " was requested");
+        }
+        PrecisionHandler precisionHandler = new PrecisionHandler(precision);
+
+        for (LocalDate asOf : targetDates) {
+            emit(targetDates, asOf, index.summarize(asOf), precisionHandler);
+        }
+    }
+
+    // Processes only what was appended to the file since the run that wrote the checkpoint.
+    public void runIncremental(String filename, List<LocalDate> targetDates, int precision, Path checkpoint) {
+        PrecisionHandler precisionHandler = new PrecisionHandler(precision);
+
+        new IncrementalVestingCalculator(new ByteCsvEventParser(new CsvLineParser())).calculate(
+                filename, targetDates, precisionHandler, checkpoint,
+                (asOf, summaries) -> emit(targetDates, asOf, summaries, precisionHandler));
+    }
+
+    // A single date prints plain rows; several dates print one headed block each.
+    private void emit(List<LocalDate> targetDates, LocalDate asOf, List<VestingSummary> summaries,
+                      PrecisionHandler precisionHandler) {
+        if (targetDates.size() == 1) {
+            formatter.format(summaries, precisionHandler);
+        } else {
+            formatter.formatBlock(asOf, summaries, precisionHandler);
+        }
+    }
+
+    private static EventParser createParser(ParserMode mode) {
+        return switch (mode) {
+            case CSV -> new CsvEventParser(new CsvLineParser());
+            case MAPPED -> new MappedCsvEventParser(new CsvLineParser());
+            case BYTES -> new ByteCsvEventParser(new CsvLineParser());
+        };
+    }
+
+    private static VestingCalculator createCalculator(CalculationEngine engine, ThreadKind pipelineThreads,
+                                                      RunStats stats) {
+        return switch (engine) {
+            case STANDARD -> new CumulativeVestingCalculator(stats != null
+                    ? new InstrumentedValidator(new ParallelCancellationValidator(), stats)
+                    : new ParallelCancellationValidator());
+            case STREAMING -> new StreamingVestingCalculator();
+            case FUSED -> new FusedVestingCalculator();
+            case PIPELINED -> new PipelinedVestingCalculator(new CsvLineParser(), createThreadFactory(pipelineThreads),
+                    stats != null ? new InstrumentedPipeline(stats) : PipelinedVestingCalculator.ParseListener.NONE);
+        };
+    }
+
+    private static ThreadFactory createThreadFactory(ThreadKind kind) {
+        return switch (kind) {
+            case PLATFORM -> runnable -> {
+                Thread thread = new Thread(runnable, "vesting-pipeline");
+                thread.setDaemon(true);
+                return thread;
+            };
+            case VIRTUAL -> virtualThreadFactory();
+        };
+    }
+
+    // Thread.ofVirtual() is looked up reflectively because the program is built for Java 17.
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Virtual threads require Java 21 or later", e);
+        }
+    }
+
+    private static void run(CommandLineArgs cliArgs, List<Path> inputs, VestingApp app) {
+        Path input = Path.of(cliArgs.filename());
+        if (cliArgs.boundsMemory()) {
+            if (cliArgs.checkpoint() != null) {
+                throw new IllegalArgumentException("--memory-budget cannot be combined with --checkpoint");
+            }
+            for (Path file : inputs) {
+                if (EventLog.isEventLog(file) || AsOfIndex.isIndex(file)) {
+                    throw new IllegalArgumentException("--memory-budget requires CSV input: " + file);
+                }
+            }
+            app.runBounded(inputs, cliArgs.targetDates(), cliArgs.precision(), cliArgs.memoryBudget());
+        } else if (inputs.size() > 1) {
+            if (cliArgs.checkpoint() != null) {
+                throw new IllegalArgumentException("--checkpoint requires a single CSV file");
+            }
+            app.run(inputs, cliArgs.targetDates(), cliArgs.precision());
+        } else if (cliArgs.checkpoint() != null) {
+            if (EventLog.isEventLog(input)) {
+                throw new IllegalArgumentException("--checkpoint requires a CSV file, not an event log");
+            }
+            app.runIncremental(cliArgs.filename(), cliArgs.targetDates(), cliArgs.precision(),
+                    Path.of(cliArgs.checkpoint()));
+        } else if (AsOfIndex.isIndex(input)) {
+            app.run(AsOfIndex.load(input), cliArgs.targetDates(), cliArgs.precision());
+        } else {
+            app.run(cliArgs.filename(), cliArgs.targetDates(), cliArgs.precision());
+        }
+    }
+
+    private static FileChannel openOutput(String filename) {
+        try {
+            return FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open output file: " + filename, e);
+        }
+    }
+
+    private static void execute(CommandLineArgs cliArgs, RunStats stats, RejectReport rejects) throws IOException {
+        // An event log is recognised by its header, whatever --parser says. A memory
+        // budget rules out interning, whose tables grow with the number of keys.
+        EventParser parser = cliArgs.boundsMemory()
+                ? new CsvEventParser(new CsvLineParser(), false)
+                : new EventLogAwareParser(createParser(cliArgs.parser()));
+        if (rejects != null) {
+            // The mapped parser and the pipelined engine still fail on the first bad line.
+            if (cliArgs.parser() == ParserMode.MAPPED || cliArgs.engine() == CalculationEngine.PIPELINED) {
+                throw new IllegalArgumentException("--lenient requires --parser=csv or bytes and an engine other"
+                        + " than pipelined");
+            }
+            if (cliArgs.checkpoint() != null) {
+                throw new IllegalArgumentException("--lenient cannot be combined with --checkpoint");
+            }
+            parser = new LenientEventParser(parser, rejects);
+        }
+        if (stats != null) {
+            List<LocalDate> dates = cliArgs.targetDates();
+            parser = new InstrumentedEventParser(parser, stats, dates.isEmpty() ? null : Collections.max(dates));
+        }
+        // A directory, glob or list of files: only calculations read more than one.
+        List<Path> inputs = InputFiles.resolve(cliArgs.filename());
+        if (inputs.size() > 1 && (cliArgs.converts() || cliArgs.buildsIndex())) {
+            throw new IllegalArgumentException("--convert and --build-index take a single input file");
+        }
+        if (rejects != null) {
+            rejects.order(inputs);
+        }
+        if (inputs.size() == 1) {
+            cliArgs = cliArgs.withFilename(inputs.get(0).toString());
+        }
+        if (cliArgs.converts()) {
+            new EventLogConverter(parser).convert(cliArgs.filename(), Path.of(cliArgs.convertOutput()));
+            return;
+        }
+        if (cliArgs.buildsIndex()) {
+            new AsOfIndexBuilder(parser).build(cliArgs.filename(),
+                    new PrecisionHandler(cliArgs.precision()), Path.of(cliArgs.indexOutput()));
+            return;
+        }
+        VestingCalculator calculator = createCalculator(cliArgs.engine(), cliArgs.pipelineThreads(), stats);
+        if (stats != null) {
+            calculator = new InstrumentedCalculator(calculator, stats);
+        }
+        if (cliArgs.output() == null) {
+            run(cliArgs, inputs, new VestingApp(parser, calculator,
+                    instrument(ChannelOutputFormatter.toStandardOutput(), stats)));
+        } else {
+            try (FileChannel output = openOutput(cliArgs.output())) {
+                run(cliArgs, inputs, new VestingApp(parser, calculator,
+                        instrument(new ChannelOutputFormatter(output, ChannelOutputFormatter.standardOutputCharset()), stats)));
+            }
+        }
+    }
+
+    private static OutputFormatter instrument(OutputFormatter formatter, RunStats stats) {
+        return stats != null ? new InstrumentedOutputFormatter(formatter, stats) : formatter;
+    }
+
     public static void main(String[] args) {
+        int status = launch(args);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    // Runs the command line and returns the exit status.
+    static int launch(String[] args) {
         try {
             CommandLineArgs cliArgs = CommandLineArgs.parse(args);
+            // Instrumentation is only wired in when something will read it.
+            RunStats stats = cliArgs.reportsStats() || RunStats.recording()
+                    ? new RunStats(cliArgs.filename())
+                    : null;
+            RejectReport rejects = cliArgs.isLenient() ? new RejectReport(MAX_LISTED_REJECTS) : null;
 
-            EventParser parser = new CsvEventParser(new CsvLineParser());
-            EventValidator validator = new CancellationValidator();
-            VestingCalculator calculator = new CumulativeVestingCalculator(validator);
-            OutputFormatter formatter = new CsvOutputFormatter();
+            try {
+                execute(cliArgs, stats, rejects);
+            } finally {
+                // Also when the run fails: a skipped line is often why a later one
+                // fails validation.
+                if (rejects != null) {
+                    rejects.report(cliArgs.lenient());
+                }
+            }
 
-            VestingApp app = new VestingApp(parser, calculator, formatter);
-            app.run(cliArgs.filename(), cliArgs.targetDate(), cliArgs.precision());
+            if (stats != null) {
+                stats.finish();
+                if (cliArgs.reportsStats()) {
+                    stats.report(cliArgs.stats());
+                }
+            }
+            return 0;
 
         } catch (IllegalArgumentException e) {
             System.err.println("Error: " + e.getMessage());
-            System.exit(1);
         } catch (IllegalStateException e) {
             System.err.println("Validation error: " + e.getMessage());
-            System.exit(1);
         } catch (UncheckedIOException e) {
             System.err.println("File error: " + e.getMessage());
-            System.exit(1);
         } catch (Exception e) {
             System.err.println("Unexpected error: " + e.getMessage());
-            System.exit(1);
         }
+        return 1;
     }
 }
@@ -0,0 +1,18 @@
+package vesting.calculator;
+
+import vesting.model.EmployeeAwardKey;
+
+import java.math.BigDecimal;
+
+// One key's net vested total after each day that has events, in date order. When a
+// cancellation is invalid, the days stop before it and invalidEpochDay/message
+// describe it; every as-of date on or after that day fails with the message.
+public record AwardHistory(
+        EmployeeAwardKey key,
+        String employeeName,
+        long[] epochDays,
+        BigDecimal[] totals,
+        long invalidEpochDay,
+        String invalidCancellation
+) {
+}
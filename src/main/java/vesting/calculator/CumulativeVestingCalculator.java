@@ -1,27 +1,46 @@
 package vesting.calculator;
 
-import vesting.model.CancelEvent;
 import vesting.model.EmployeeAwardKey;
-import vesting.model.VestEvent;
+import vesting.model.KeyIndex;
 import vesting.model.VestingEvent;
 import vesting.model.VestingSummary;
+import vesting.parser.EventParser;
+import vesting.parser.PushdownSink;
 import vesting.precision.PrecisionHandler;
 import vesting.validation.EventValidator;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public final class CumulativeVestingCalculator implements VestingCalculator {
 
+    // Below this many events a single worker is faster than splitting the work.
+    private static final int MIN_PARALLEL_EVENTS = 1 << 16;
+
     private final EventValidator validator;
+    // Null for the common pool, which is only looked up once the work is split, so
+    // a short run never initializes it.
+    private final ForkJoinPool pool;
+    private final int minParallelEvents;
 
     public CumulativeVestingCalculator(EventValidator validator) {
+        this(validator, null, MIN_PARALLEL_EVENTS);
+    }
+
+    public CumulativeVestingCalculator(EventValidator validator, ForkJoinPool pool) {
+        this(validator, pool, MIN_PARALLEL_EVENTS);
+    }
+
+    CumulativeVestingCalculator(EventValidator validator, ForkJoinPool pool, int minParallelEvents) {
         this.validator = validator;
+        this.pool = pool;
+        this.minParallelEvents = minParallelEvents;
     }
 
     @Override
@@ -30,58 +49,130 @@ public final class CumulativeVestingCalculator implements VestingCalculator {
             LocalDate targetDate,
             PrecisionHandler precisionHandler) {
 
-        // Register ALL employee-award combinations including future events.
-        // TreeMap gives natural ordering by EmployeeAwardKey (Employee ID, then Award ID).
-        TreeMap<EmployeeAwardKey, String> employeeNames = events.stream()
-                .collect(Collectors.toMap(
-                        VestingEvent::key,
-                        VestingEvent::employeeName,
-                        (existing, replacement) -> replacement,
-                        TreeMap::new
-                ));
+        // Register ALL employee-award combinations including future events, each under
+        // a dense id. The last name seen for a key wins.
+        KeyIndex index = KeyIndex.of(events);
+        String[] employeeNames = new String[index.size()];
+        for (int i = 0; i < events.size(); i++) {
+            employeeNames[index.id(i)] = events.get(i).employeeName();
+        }
 
         // Filter to events on or before the target date.
+        long targetEpochDay = targetDate.toEpochDay();
         List<VestingEvent> applicableEvents = events.stream()
-                .filter(e -> !e.date().isAfter(targetDate))
+                .filter(e -> e.epochDay() <= targetEpochDay)
                 .toList();
 
+        return summarize(events, index, employeeNames, applicableEvents, targetEpochDay, precisionHandler);
+    }
+
+    // The parser registers rows after the target date without decoding them, so only
+    // applicable events are materialized.
+    @Override
+    public List<VestingSummary> calculate(
+            EventParser parser,
+            String filename,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+
+        List<VestingEvent> applicableEvents = new ArrayList<>();
+        Map<EmployeeAwardKey, String> names = new HashMap<>();
+        parser.parse(filename, precisionHandler, targetDate, new PushdownSink() {
+            @Override
+            public void accept(VestingEvent event) {
+                applicableEvents.add(event);
+                names.put(event.key(), event.employeeName());
+            }
+
+            @Override
+            public void register(EmployeeAwardKey key, String employeeName) {
+                names.put(key, employeeName);
+            }
+        });
+
+        KeyIndex index = KeyIndex.of(applicableEvents, names.keySet());
+        String[] employeeNames = new String[index.size()];
+        for (int id = 0; id < index.size(); id++) {
+            employeeNames[id] = names.get(index.key(id));
+        }
+        return summarize(applicableEvents, index, employeeNames, applicableEvents, targetDate.toEpochDay(),
+                precisionHandler);
+    }
+
+    // Index and names cover every key; events are those the index was built over.
+    private List<VestingSummary> summarize(
+            List<VestingEvent> events,
+            KeyIndex index,
+            String[] employeeNames,
+            List<VestingEvent> applicableEvents,
+            long targetEpochDay,
+            PrecisionHandler precisionHandler) {
+
         // Validate cancellations against vested totals.
         validator.validate(applicableEvents);
 
-        // Accumulate totals per employee-award key using parallel streams.
-        // Each key's events are reduced independently, enabling safe parallelism.
-        ConcurrentMap<EmployeeAwardKey, BigDecimal> accumulated = applicableEvents.parallelStream()
-                .collect(Collectors.groupingByConcurrent(
-                        VestingEvent::key,
-                        Collectors.reducing(BigDecimal.ZERO, e -> signedQuantity(e), BigDecimal::add)
-                ));
-
-        // Merge into a sorted map, initializing all keys to zero first.
-        TreeMap<EmployeeAwardKey, BigDecimal> totals = new TreeMap<>();
-        employeeNames.keySet().forEach(key -> totals.put(key, BigDecimal.ZERO));
-        accumulated.forEach((key, value) -> totals.merge(key, value, BigDecimal::add));
-
-        // Build output summaries with truncated values.
-        return totals.entrySet().stream()
-                .map(entry -> {
-                    EmployeeAwardKey key = entry.getKey();
-                    BigDecimal total = precisionHandler.truncate(entry.getValue());
-                    return new VestingSummary(
-                            key.employeeId(),
-                            employeeNames.get(key),
-                            key.awardId(),
-                            total
-                    );
-                })
-                .toList();
+        // Accumulate totals per id; every key starts at zero.
+        BigDecimal[] totals = sumByKey(events, index, targetEpochDay, precisionHandler.getPrecision());
+
+        // Build output summaries with truncated values, ordered by Employee ID then Award ID.
+        List<VestingSummary> summaries = new ArrayList<>(index.size());
+        for (int id : index.idsInKeyOrder()) {
+            EmployeeAwardKey key = index.key(id);
+            summaries.add(new VestingSummary(
+                    key.employeeId(),
+                    employeeNames[id],
+                    key.awardId(),
+                    precisionHandler.truncate(totals[id])
+            ));
+        }
+        return summaries;
+    }
+
+    // Each worker sums an equal slice of the events into its own table, so a hot
+    // key is split across workers and causes no contention. The tables are then
+    // merged once, each worker taking a range of ids.
+    private BigDecimal[] sumByKey(List<VestingEvent> events, KeyIndex index, long targetEpochDay, int scale) {
+        BigDecimal[] totals = new BigDecimal[index.size()];
+        PartialTotals[] partials = sumSlices(events, index, targetEpochDay, scale);
+        if (partials.length < 2) {
+            PartialTotals.merge(partials, 0, totals.length, totals);
+            return totals;
+        }
+
+        List<ForkJoinTask<?>> merges = new ArrayList<>(partials.length);
+        for (int w = 0; w < partials.length; w++) {
+            int from = slice(totals.length, partials.length, w);
+            int to = slice(totals.length, partials.length, w + 1);
+            merges.add(pool().submit(() -> PartialTotals.merge(partials, from, to, totals)));
+        }
+        merges.forEach(ForkJoinTask::join);
+        return totals;
     }
 
-    private static BigDecimal signedQuantity(VestingEvent event) {
-        if (event instanceof VestEvent) {
-            return event.quantity();
-        } else if (event instanceof CancelEvent) {
-            return event.quantity().negate();
+    // One table per worker, worker w summing events [slice(w), slice(w + 1)).
+    PartialTotals[] sumSlices(List<VestingEvent> events, KeyIndex index, long targetEpochDay, int scale) {
+        int workers = events.size() / Math.max(1, minParallelEvents);
+        if (workers >= 2) {
+            workers = Math.min(pool().getParallelism(), workers);
+        }
+        if (workers < 2) {
+            return new PartialTotals[]{PartialTotals.of(events, index, 0, events.size(), targetEpochDay, scale)};
+        }
+
+        List<ForkJoinTask<PartialTotals>> sums = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            int from = slice(events.size(), workers, w);
+            int to = slice(events.size(), workers, w + 1);
+            sums.add(pool().submit(() -> PartialTotals.of(events, index, from, to, targetEpochDay, scale)));
         }
-        throw new IllegalStateException("Unknown event type: " + event.getClass());
+        return sums.stream().map(ForkJoinTask::join).toArray(PartialTotals[]::new);
+    }
+
+    private ForkJoinPool pool() {
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    private static int slice(int length, int slices, int i) {
+        return (int) ((long) length * i / slices);
     }
 }
@@ -0,0 +1,327 @@
+package vesting.calculator;
+
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.precision.FixedPoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Per-key vested and cancelled sums bucketed by epoch day and kept in date order in
+// parallel primitive arrays. Input that is already date-ordered appends in O(1);
+// out-of-order days are inserted by binary search. Validation and the net total
+// then come from one walk over the days.
+//
+// Sums are longs scaled by 10^scale. If a quantity is not exact at that scale or a
+// sum overflows, the ledger switches to BigDecimal sums for this key only.
+final class DailyLedger {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int scale;
+    private int size;
+    private long[] days = new long[INITIAL_CAPACITY];
+    private long[] vested = new long[INITIAL_CAPACITY];
+    private long[] cancelled = new long[INITIAL_CAPACITY];
+    // Largest input scale per day, so messages print what a BigDecimal sum would.
+    private byte[] vestedScale = new byte[INITIAL_CAPACITY];
+    private byte[] cancelledScale = new byte[INITIAL_CAPACITY];
+    private BigDecimal[] exactVested;
+    private BigDecimal[] exactCancelled;
+
+    DailyLedger(int scale) {
+        this.scale = scale;
+    }
+
+    void add(long epochDay, EventType type, long scaledQuantity, int inputScale) {
+        int index = indexOf(epochDay);
+        if (exactVested == null) {
+            long[] sums = type == EventType.VEST ? vested : cancelled;
+            long sum = FixedPoint.add(sums[index], scaledQuantity);
+            if (sum != FixedPoint.NOT_REPRESENTABLE) {
+                sums[index] = sum;
+                byte[] scales = type == EventType.VEST ? vestedScale : cancelledScale;
+                scales[index] = (byte) Math.max(scales[index], inputScale);
+                return;
+            }
+            switchToExact();
+        }
+        addExact(index, type, FixedPoint.toBigDecimal(scaledQuantity, scale).setScale(inputScale));
+    }
+
+    void add(long epochDay, EventType type, BigDecimal quantity) {
+        long scaled = exactVested == null ? FixedPoint.toScaled(quantity, scale) : FixedPoint.NOT_REPRESENTABLE;
+        if (scaled != FixedPoint.NOT_REPRESENTABLE) {
+            add(epochDay, type, scaled, Math.max(0, quantity.scale()));
+            return;
+        }
+        int index = indexOf(epochDay);
+        switchToExact();
+        addExact(index, type, quantity);
+    }
+
+    // Adds another ledger of the same scale day by day, as if its events had been
+    // added here.
+    void addAll(DailyLedger other) {
+        for (int i = 0; i < other.size; i++) {
+            if (other.exactVested == null) {
+                add(other.days[i], EventType.VEST, other.vested[i], other.vestedScale[i]);
+                add(other.days[i], EventType.CANCEL, other.cancelled[i], other.cancelledScale[i]);
+            } else {
+                add(other.days[i], EventType.VEST, other.exactVested[i]);
+                add(other.days[i], EventType.CANCEL, other.exactCancelled[i]);
+            }
+        }
+    }
+
+    // Walks all days in order applying the same cumulative check as
+    // CancellationValidator and returns the net vested total.
+    BigDecimal validatedTotal(EmployeeAwardKey key) {
+        return new Cursor(key).advanceTo(Long.MAX_VALUE);
+    }
+
+    Cursor cursor(EmployeeAwardKey key) {
+        return new Cursor(key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long day(int index) {
+        return days[index];
+    }
+
+    // Approximate heap bytes held by this ledger: the object, its arrays at their
+    // current capacity and, after the switch to exact sums, one BigDecimal per sum.
+    long footprint() {
+        long bytes = 64 + 5 * 16 + (long) days.length * (3 * 8 + 2);
+        if (exactVested != null) {
+            bytes += 2 * (16 + (long) days.length * (8 + 40));
+        }
+        return bytes;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeBoolean(exactVested != null);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(days[i]);
+            if (exactVested == null) {
+                out.writeLong(vested[i]);
+                out.writeLong(cancelled[i]);
+                out.writeByte(vestedScale[i]);
+                out.writeByte(cancelledScale[i]);
+            } else {
+                StringCodec.write(out, exactVested[i].toString());
+                StringCodec.write(out, exactCancelled[i].toString());
+            }
+        }
+    }
+
+    static DailyLedger readFrom(DataInput in, int scale) throws IOException {
+        DailyLedger ledger = new DailyLedger(scale);
+        int size = in.readInt();
+        boolean exact = in.readBoolean();
+        int capacity = Math.max(INITIAL_CAPACITY, size);
+        ledger.days = new long[capacity];
+        ledger.vested = new long[capacity];
+        ledger.cancelled = new long[capacity];
+        ledger.vestedScale = new byte[capacity];
+        ledger.cancelledScale = new byte[capacity];
+        if (exact) {
+            ledger.switchToExact();
+        }
+        for (int i = 0; i < size; i++) {
+            ledger.days[i] = in.readLong();
+            if (exact) {
+                ledger.exactVested[i] = new BigDecimal(StringCodec.read(in));
+                ledger.exactCancelled[i] = new BigDecimal(StringCodec.read(in));
+            } else {
+                ledger.vested[i] = in.readLong();
+                ledger.cancelled[i] = in.readLong();
+                ledger.vestedScale[i] = in.readByte();
+                ledger.cancelledScale[i] = in.readByte();
+            }
+        }
+        ledger.size = size;
+        return ledger;
+    }
+
+    private BigDecimal exactVested(int index) {
+        return exactVested != null
+                ? exactVested[index]
+                : FixedPoint.toBigDecimal(vested[index], scale).setScale(vestedScale[index]);
+    }
+
+    private BigDecimal exactCancelled(int index) {
+        return exactCancelled != null
+                ? exactCancelled[index]
+                : FixedPoint.toBigDecimal(cancelled[index], scale).setScale(cancelledScale[index]);
+    }
+
+    // Running prefix sums over the ledger. Advancing to increasing dates gives the
+    // as-of total for each date with one walk over the days overall. The ledger
+    // must not be modified while a cursor is in use.
+    final class Cursor {
+
+        private final EmployeeAwardKey key;
+        private int position;
+        private long cumulativeVested;
+        private long cumulativeCancelled;
+        private int cumulativeVestedScale;
+        private int cumulativeCancelledScale;
+        // Set once a prefix sum is not representable as a long.
+        private BigDecimal exactCumulativeVested;
+        private BigDecimal exactCumulativeCancelled;
+
+        private Cursor(EmployeeAwardKey key) {
+            this.key = key;
+        }
+
+        // Consumes all days on or before epochDay, throwing at the first day whose
+        // cumulative cancellations exceed cumulative vests, and returns the net total.
+        BigDecimal advanceTo(long epochDay) {
+            for (; position < size && days[position] <= epochDay; position++) {
+                if (exactCumulativeVested == null && exactVested == null && advanceFixed(position)) {
+                    continue;
+                }
+                advanceExact(position);
+            }
+
+            if (exactCumulativeVested == null) {
+                return FixedPoint.toBigDecimal(cumulativeVested - cumulativeCancelled, scale);
+            }
+            return exactCumulativeVested.subtract(exactCumulativeCancelled);
+        }
+
+        private boolean advanceFixed(int index) {
+            long nextVested = FixedPoint.add(cumulativeVested, vested[index]);
+            long nextCancelled = FixedPoint.add(cumulativeCancelled, cancelled[index]);
+            if (nextVested == FixedPoint.NOT_REPRESENTABLE || nextCancelled == FixedPoint.NOT_REPRESENTABLE) {
+                return false;
+            }
+            cumulativeVested = nextVested;
+            cumulativeCancelled = nextCancelled;
+            cumulativeVestedScale = Math.max(cumulativeVestedScale, vestedScale[index]);
+            cumulativeCancelledScale = Math.max(cumulativeCancelledScale, cancelledScale[index]);
+
+            if (cumulativeCancelled > cumulativeVested) {
+                throw invalidCancellation(key, days[index],
+                        FixedPoint.toBigDecimal(cumulativeCancelled, scale).setScale(cumulativeCancelledScale),
+                        FixedPoint.toBigDecimal(cumulativeVested, scale).setScale(cumulativeVestedScale));
+            }
+            return true;
+        }
+
+        private void advanceExact(int index) {
+            if (exactCumulativeVested == null) {
+                exactCumulativeVested = FixedPoint.toBigDecimal(cumulativeVested, scale)
+                        .setScale(cumulativeVestedScale);
+                exactCumulativeCancelled = FixedPoint.toBigDecimal(cumulativeCancelled, scale)
+                        .setScale(cumulativeCancelledScale);
+            }
+            exactCumulativeVested = exactCumulativeVested.add(exactVested(index));
+            exactCumulativeCancelled = exactCumulativeCancelled.add(exactCancelled(index));
+
+            if (exactCumulativeCancelled.compareTo(exactCumulativeVested) > 0) {
+                throw invalidCancellation(key, days[index], exactCumulativeCancelled, exactCumulativeVested);
+            }
+        }
+    }
+
+    static IllegalStateException invalidCancellation(
+            EmployeeAwardKey key, long epochDay, BigDecimal cumulativeCancelled, BigDecimal cumulativeVested) {
+        return new IllegalStateException(String.format(
+                "Invalid cancellation for %s/%s on %s: "
+                        + "cumulative cancelled (%s) exceeds cumulative vested (%s)",
+                key.employeeId(), key.awardId(), LocalDate.ofEpochDay(epochDay),
+                cumulativeCancelled.toPlainString(),
+                cumulativeVested.toPlainString()
+        ));
+    }
+
+    private int indexOf(long epochDay) {
+        if (size > 0 && days[size - 1] == epochDay) {
+            return size - 1;
+        }
+        if (size == 0 || days[size - 1] < epochDay) {
+            ensureCapacity();
+            days[size] = epochDay;
+            return size++;
+        }
+        int found = Arrays.binarySearch(days, 0, size, epochDay);
+        if (found >= 0) {
+            return found;
+        }
+        int insertAt = -found - 1;
+        ensureCapacity();
+        shiftRight(insertAt);
+        days[insertAt] = epochDay;
+        size++;
+        return insertAt;
+    }
+
+    private void shiftRight(int from) {
+        int count = size - from;
+        System.arraycopy(days, from, days, from + 1, count);
+        System.arraycopy(vested, from, vested, from + 1, count);
+        System.arraycopy(cancelled, from, cancelled, from + 1, count);
+        System.arraycopy(vestedScale, from, vestedScale, from + 1, count);
+        System.arraycopy(cancelledScale, from, cancelledScale, from + 1, count);
+        vested[from] = 0;
+        cancelled[from] = 0;
+        vestedScale[from] = 0;
+        cancelledScale[from] = 0;
+        if (exactVested != null) {
+            System.arraycopy(exactVested, from, exactVested, from + 1, count);
+            System.arraycopy(exactCancelled, from, exactCancelled, from + 1, count);
+            exactVested[from] = BigDecimal.ZERO;
+            exactCancelled[from] = BigDecimal.ZERO;
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size < days.length) {
+            return;
+        }
+        int capacity = days.length * 2;
+        days = Arrays.copyOf(days, capacity);
+        vested = Arrays.copyOf(vested, capacity);
+        cancelled = Arrays.copyOf(cancelled, capacity);
+        vestedScale = Arrays.copyOf(vestedScale, capacity);
+        cancelledScale = Arrays.copyOf(cancelledScale, capacity);
+        if (exactVested != null) {
+            exactVested = Arrays.copyOf(exactVested, capacity);
+            exactCancelled = Arrays.copyOf(exactCancelled, capacity);
+            Arrays.fill(exactVested, size, capacity, BigDecimal.ZERO);
+            Arrays.fill(exactCancelled, size, capacity, BigDecimal.ZERO);
+        }
+    }
+
+    private void switchToExact() {
+        if (exactVested != null) {
+            return;
+        }
+        exactVested = new BigDecimal[days.length];
+        exactCancelled = new BigDecimal[days.length];
+        Arrays.fill(exactVested, BigDecimal.ZERO);
+        Arrays.fill(exactCancelled, BigDecimal.ZERO);
+        for (int i = 0; i < size; i++) {
+            exactVested[i] = FixedPoint.toBigDecimal(vested[i], scale).setScale(vestedScale[i]);
+            exactCancelled[i] = FixedPoint.toBigDecimal(cancelled[i], scale).setScale(cancelledScale[i]);
+        }
+    }
+
+    private void addExact(int index, EventType type, BigDecimal quantity) {
+        if (type == EventType.VEST) {
+            exactVested[index] = exactVested[index].add(quantity);
+        } else {
+            exactCancelled[index] = exactCancelled[index].add(quantity);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package vesting.calculator;
+
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.precision.PrecisionHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Validates and accumulates in one traversal: each event lands in its key's
+// date-ordered DailyLedger, and a single walk per ledger both checks cumulative
+// cancellations and yields the total. This replaces the separate
+// CancellationValidator pass (group, sort, regroup by date) and the second
+// grouping done by CumulativeVestingCalculator.
+public final class FusedVestingCalculator implements VestingCalculator {
+
+    @Override
+    public List<VestingSummary> calculate(
+            List<VestingEvent> events,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+
+        VestingAccumulator accumulator = new VestingAccumulator(targetDate, precisionHandler);
+        for (VestingEvent event : events) {
+            accumulator.accept(event);
+        }
+        return accumulator.summarize();
+    }
+}
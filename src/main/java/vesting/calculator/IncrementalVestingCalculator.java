@@ -0,0 +1,137 @@
+package vesting.calculator;
+
+import vesting.model.VestingSummary;
+import vesting.parser.ByteCsvEventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+// Recalculates a file that only grows by appended lines. Each run saves a checkpoint
+// holding the per-key ledgers and the position after the last complete line; the
+// next run restores that state and parses only what was appended since. A trailing
+// line without a terminator is included in the results but not in the checkpoint,
+// since it may still be being written.
+//
+// The checkpoint also records CRC32s of the first and last 64 KiB of the processed
+// prefix. If the file is now shorter than that prefix or either checksum differs,
+// the file was truncated or rewritten and the state is rebuilt from the start.
+public final class IncrementalVestingCalculator {
+
+    private static final int MAGIC = 0x89564943;
+    private static final int VERSION = 2;
+    private static final int FINGERPRINT_BYTES = 64 * 1024;
+
+    private final ByteCsvEventParser parser;
+
+    public IncrementalVestingCalculator(ByteCsvEventParser parser) {
+        this.parser = parser;
+    }
+
+    public void calculate(
+            String filename,
+            List<LocalDate> targetDates,
+            PrecisionHandler precisionHandler,
+            Path checkpointFile,
+            BiConsumer<LocalDate, List<VestingSummary>> consumer) {
+
+        Path source = Path.of(filename);
+        Checkpoint checkpoint = readCheckpoint(checkpointFile, source, precisionHandler);
+        VestingAccumulator accumulator = checkpoint != null
+                ? checkpoint.accumulator()
+                : new VestingAccumulator(LocalDate.MAX, precisionHandler);
+        ByteCsvEventParser.Position from = checkpoint != null
+                ? checkpoint.position()
+                : ByteCsvEventParser.Position.START;
+
+        ByteCsvEventParser.Position complete = parser.parse(filename, from, false, precisionHandler, accumulator);
+        writeCheckpoint(checkpointFile, source, precisionHandler, complete, accumulator);
+        parser.parse(filename, complete, true, precisionHandler, accumulator);
+
+        accumulator.summarizeEach(MultiDateVestingCalculator.ascending(targetDates), consumer);
+    }
+
+    private record Checkpoint(ByteCsvEventParser.Position position, VestingAccumulator accumulator) {
+    }
+
+    // Returns null when there is no usable checkpoint for this file and precision.
+    private static Checkpoint readCheckpoint(Path checkpointFile, Path source, PrecisionHandler precisionHandler) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(checkpointFile), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION
+                    || in.readUnsignedByte() != precisionHandler.getPrecision()) {
+                return null;
+            }
+            ByteCsvEventParser.Position position = new ByteCsvEventParser.Position(in.readLong(), in.readInt());
+            long headCrc = in.readLong();
+            long tailCrc = in.readLong();
+            if (Files.size(source) < position.offset()
+                    || headCrc != crc(source, 0, position.offset())
+                    || tailCrc != crc(source, position.offset() - FINGERPRINT_BYTES, position.offset())) {
+                return null;
+            }
+            return new Checkpoint(position, VestingAccumulator.readFrom(in, precisionHandler));
+        } catch (IOException | RuntimeException e) {
+            // A missing or damaged checkpoint only costs a full rebuild.
+            return null;
+        }
+    }
+
+    private static void writeCheckpoint(Path checkpointFile, Path source, PrecisionHandler precisionHandler,
+                                        ByteCsvEventParser.Position position, VestingAccumulator accumulator) {
+        Path absolute = checkpointFile.toAbsolutePath();
+        try {
+            Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                    out.writeInt(MAGIC);
+                    out.writeShort(VERSION);
+                    out.writeByte(precisionHandler.getPrecision());
+                    out.writeLong(position.offset());
+                    out.writeInt(position.lineNumber());
+                    out.writeLong(crc(source, 0, position.offset()));
+                    out.writeLong(crc(source, position.offset() - FINGERPRINT_BYTES, position.offset()));
+                    accumulator.writeTo(out);
+                }
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint: " + checkpointFile, e);
+        }
+    }
+
+    // CRC32 of up to FINGERPRINT_BYTES of the file starting at from (clamped to 0),
+    // never reading at or past end.
+    private static long crc(Path file, long from, long end) throws IOException {
+        long start = Math.max(0, from);
+        int length = (int) Math.min(FINGERPRINT_BYTES, end - start);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(0, length));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.flip());
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,78 @@
+package vesting.calculator;
+
+import vesting.eventlog.EventLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+// Guesses the number of distinct employee-award keys in a CSV file from its first
+// few megabytes, to choose a key store before parsing. If the sample holds the
+// whole file the count is exact. Otherwise the sample's distinct count d over n
+// rows is treated as a draw from K equally likely keys, d = K(1 - e^(-n/K)), and K
+// is solved for, capped by the estimated number of rows in the file.
+final class KeyCountEstimator {
+
+    static final long UNKNOWN = -1;
+
+    private static final int SAMPLE_BYTES = 4 << 20;
+
+    private KeyCountEstimator() {
+    }
+
+    static long estimate(Path file) {
+        if (EventLog.isEventLog(file)) {
+            return UNKNOWN;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            long fileSize = Files.size(file);
+            byte[] sample = in.readNBytes(SAMPLE_BYTES);
+            boolean whole = sample.length >= fileSize;
+            int end = sample.length;
+            if (!whole) {
+                // Only complete lines.
+                while (end > 0 && sample[end - 1] != '\n' && sample[end - 1] != '\r') {
+                    end--;
+                }
+            }
+
+            Set<String> keys = new HashSet<>();
+            long rows = 0;
+            for (String line : new String(sample, 0, end, StandardCharsets.UTF_8).split("\r\n|\r|\n")) {
+                String[] fields = line.split(",", -1);
+                if (fields.length >= 4) {
+                    rows++;
+                    keys.add(fields[1].trim() + ',' + fields[3].trim());
+                }
+            }
+            if (whole || rows == 0 || end == 0) {
+                return keys.size();
+            }
+            return distinctKeys(keys.size(), rows, rows * fileSize / end);
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+    }
+
+    static long distinctKeys(long sampleDistinct, long sampleRows, long totalRows) {
+        if (sampleDistinct >= sampleRows) {
+            return totalRows;
+        }
+        // d / K = 1 - e^(-n/K) decreases as K grows, so bisect for K in [d, totalRows].
+        double low = sampleDistinct;
+        double high = Math.max(totalRows, sampleDistinct);
+        for (int i = 0; i < 100 && high - low > 1; i++) {
+            double k = (low + high) / 2;
+            if (k * (1 - Math.exp(-sampleRows / k)) < sampleDistinct) {
+                low = k;
+            } else {
+                high = k;
+            }
+        }
+        return Math.min(totalRows, Math.round(high));
+    }
+}
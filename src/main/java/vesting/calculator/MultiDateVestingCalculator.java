@@ -0,0 +1,44 @@
+package vesting.calculator;
+
+import vesting.model.VestingSummary;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+// Evaluates many target dates in one run. The file is parsed once into per-key
+// date-ordered ledgers (events after the last date only register their key), then
+// running prefix sums are advanced through the dates in ascending order, so the
+// cost is close to one parse plus one ordering of each key's days.
+//
+// Each date is validated exactly as a single-date run would validate it: blocks
+// for earlier dates are emitted before a cancellation that only becomes invalid
+// at a later date is reported.
+public final class MultiDateVestingCalculator {
+
+    public void calculate(
+            EventParser parser,
+            String filename,
+            List<LocalDate> targetDates,
+            PrecisionHandler precisionHandler,
+            BiConsumer<LocalDate, List<VestingSummary>> consumer) {
+
+        List<LocalDate> ascending = ascending(targetDates);
+        if (ascending.isEmpty()) {
+            return;
+        }
+        LocalDate lastDate = ascending.get(ascending.size() - 1);
+        VestingAccumulator accumulator = new VestingAccumulator(lastDate, precisionHandler);
+        parser.parse(filename, precisionHandler, lastDate, accumulator);
+        accumulator.summarizeEach(ascending, consumer);
+    }
+
+    // Distinct dates in ascending order. A TreeSet rather than a stream keeps the
+    // stream machinery out of a short run.
+    static List<LocalDate> ascending(List<LocalDate> targetDates) {
+        return List.copyOf(new TreeSet<>(targetDates));
+    }
+}
@@ -0,0 +1,214 @@
+package vesting.calculator;
+
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.EventParser;
+import vesting.parser.PushdownSink;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+// Input sharded over several files. The files are split into contiguous runs of
+// about equal size, one per reader thread, and each run is parsed on its own
+// reader into a private VestingAccumulator holding per-key, per-day sums. Keys
+// usually recur across shards, so a partial state per run rather than per file
+// keeps the number of copies of each key's state at the number of readers. The
+// partial states are then merged in file order, so the result is that of one file
+// holding all of them in that order. Cancellations are validated only after the
+// merge, against each key's combined history. Merging starts with the first run
+// while later ones are still being parsed.
+//
+// The readers are threads of their own rather than the common pool, whose size
+// follows the CPUs: reading many files is often bound by I/O, so by default there
+// are twice as many readers as CPUs, and at least four.
+public final class MultiFileVestingCalculator {
+
+    // Events a reader folds between checks of whether the run has failed.
+    private static final int STOP_CHECK_INTERVAL = 1 << 12;
+
+    private final int readers;
+
+    public MultiFileVestingCalculator() {
+        this(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    public MultiFileVestingCalculator(int readers) {
+        if (readers < 1) {
+            throw new IllegalArgumentException("Reader count must be positive, got: " + readers);
+        }
+        this.readers = readers;
+    }
+
+    public void calculate(
+            EventParser parser,
+            List<Path> files,
+            List<LocalDate> targetDates,
+            PrecisionHandler precisionHandler,
+            BiConsumer<LocalDate, List<VestingSummary>> consumer) {
+
+        List<LocalDate> ascending = MultiDateVestingCalculator.ascending(targetDates);
+        if (ascending.isEmpty() || files.isEmpty()) {
+            return;
+        }
+        LocalDate lastDate = ascending.get(ascending.size() - 1);
+
+        List<List<Path>> runs = runs(files, readers);
+        ExecutorService executor = Executors.newFixedThreadPool(runs.size(), runnable -> {
+            Thread thread = new Thread(runnable, "vesting-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<CompletableFuture<VestingAccumulator>> partials = new ArrayList<>();
+        VestingAccumulator merged = null;
+        try {
+            for (List<Path> run : runs) {
+                partials.add(CompletableFuture.supplyAsync(
+                        () -> parseRun(parser, run, lastDate, precisionHandler, stopped), executor));
+            }
+            for (CompletableFuture<VestingAccumulator> partial : partials) {
+                VestingAccumulator accumulator = join(partial);
+                if (merged == null) {
+                    merged = accumulator;
+                } else {
+                    merged.merge(accumulator);
+                }
+            }
+        } finally {
+            // After a failure the later files are not needed: their readers stop at the
+            // next check, and are waited for so no parse outlives the call.
+            stopped.set(true);
+            for (CompletableFuture<VestingAccumulator> partial : partials) {
+                partial.handle((accumulator, failure) -> null).join();
+            }
+            executor.shutdown();
+        }
+        merged.summarizeEach(ascending, consumer);
+    }
+
+    private static VestingAccumulator parseRun(EventParser parser, List<Path> run, LocalDate lastDate,
+                                               PrecisionHandler precisionHandler, AtomicBoolean stopped) {
+        VestingAccumulator accumulator = new VestingAccumulator(lastDate, precisionHandler);
+        StoppableSink sink = new StoppableSink(accumulator, stopped);
+        for (Path file : run) {
+            sink.check();
+            try {
+                parser.parse(file.toString(), precisionHandler, lastDate, sink);
+            } catch (IllegalArgumentException e) {
+                // Line numbers count from the start of each file.
+                throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+            }
+        }
+        return accumulator;
+    }
+
+    // Forwards to a reader's accumulator, giving up once the run has failed.
+    private static final class StoppableSink implements PushdownSink {
+
+        private final VestingAccumulator accumulator;
+        private final AtomicBoolean stopped;
+        private int untilCheck = STOP_CHECK_INTERVAL;
+
+        private StoppableSink(VestingAccumulator accumulator, AtomicBoolean stopped) {
+            this.accumulator = accumulator;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public void accept(VestingEvent event) {
+            countDown();
+            accumulator.accept(event);
+        }
+
+        @Override
+        public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           long unscaledQuantity, int scale) {
+            countDown();
+            accumulator.accept(type, key, employeeName, epochDay, unscaledQuantity, scale);
+        }
+
+        @Override
+        public void register(EmployeeAwardKey key, String employeeName) {
+            countDown();
+            accumulator.register(key, employeeName);
+        }
+
+        private void countDown() {
+            if (--untilCheck == 0) {
+                untilCheck = STOP_CHECK_INTERVAL;
+                check();
+            }
+        }
+
+        private void check() {
+            if (stopped.get()) {
+                throw new CancellationException("Stopped after an earlier file failed");
+            }
+        }
+    }
+
+    // Contiguous runs of files with about the same number of bytes each.
+    private static List<List<Path>> runs(List<Path> files, int count) {
+        long[] sizes = new long[files.size()];
+        long total = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = size(files.get(i));
+            total += sizes[i];
+        }
+        List<List<Path>> runs = new ArrayList<>();
+        long target = Math.max(1, total / Math.max(1, count));
+        int start = 0;
+        long runBytes = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            runBytes += sizes[i];
+            if (runBytes >= target && runs.size() < count - 1) {
+                runs.add(files.subList(start, i + 1));
+                start = i + 1;
+                runBytes = 0;
+            }
+        }
+        if (start < files.size()) {
+            runs.add(files.subList(start, files.size()));
+        }
+        return runs;
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            // The parser reports the file when it tries to read it.
+            return 0;
+        }
+    }
+
+    // Rethrows a task's failure as it was thrown, so that the earliest failing file
+    // is reported with its own message.
+    private static VestingAccumulator join(CompletableFuture<VestingAccumulator> partial) {
+        try {
+            return partial.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
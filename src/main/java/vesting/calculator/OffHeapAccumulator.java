@@ -0,0 +1,383 @@
+package vesting.calculator;
+
+import vesting.model.CancelEvent;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.PushdownSink;
+import vesting.precision.FixedPoint;
+import vesting.precision.PrecisionHandler;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Streaming accumulator for inputs with millions of distinct keys. VestingAccumulator
+// keeps a map entry, state object and DailyLedger arrays per key on the heap; here
+// the only per-key heap state is one slot in each of two reference arrays (the key
+// and name objects themselves are the parser's interned instances). Everything else
+// lives in direct buffers the collector never scans:
+//
+//   - an open-addressing hash table from key hash to dense key id, doubled when
+//     three quarters full, in the same chunks as the other columns;
+//   - the number of events per key id;
+//   - every event on or before the target date as (id and type, epoch day, quantity).
+//
+// summarize() groups the events by key in place, so the records are the only
+// per-event memory (24 bytes each, in direct memory), orders each key's events by
+// day and walks them with the same cumulative check as DailyLedger, so results
+// and error messages are the same. Sums are longs at the output scale; input
+// that would need BigDecimal arithmetic throws NotRepresentable so the caller can
+// redo the run with VestingAccumulator.
+final class OffHeapAccumulator implements PushdownSink {
+
+    // Signals input the fixed-point columns cannot represent exactly.
+    static final class NotRepresentable extends RuntimeException {
+
+        private NotRepresentable() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final int INITIAL_SLOTS = 1 << 16;
+    private static final int RECORD_LONGS = 3;
+    // Ids index heap arrays of keys and names.
+    private static final int MAX_KEYS = Integer.MAX_VALUE - 8;
+
+    private final long targetEpochDay;
+    private final PrecisionHandler precisionHandler;
+    private final int scale;
+
+    // Slot = hash << 32 | id + 1; 0 marks an empty slot. Chunked like the records,
+    // so the table is not limited to the 2 GiB of a single buffer.
+    private LongArena table = new LongArena();
+    private long mask = INITIAL_SLOTS - 1;
+    private int keyCount;
+    private EmployeeAwardKey[] keys = new EmployeeAwardKey[1024];
+    private String[] names = new String[1024];
+    private LongArena counts = new LongArena();
+    private LongArena records = new LongArena();
+    private long recordCount;
+
+    OffHeapAccumulator(LocalDate targetDate, PrecisionHandler precisionHandler) {
+        this.targetEpochDay = targetDate.toEpochDay();
+        this.precisionHandler = precisionHandler;
+        this.scale = precisionHandler.getPrecision();
+    }
+
+    @Override
+    public void accept(VestingEvent event) {
+        BigDecimal quantity = event.quantity();
+        EventType type = event instanceof CancelEvent ? EventType.CANCEL : EventType.VEST;
+        long scaled = quantity.scale() == scale ? FixedPoint.toScaled(quantity, scale) : FixedPoint.NOT_REPRESENTABLE;
+        add(type, event.key(), event.employeeName(), event.epochDay(), scaled);
+    }
+
+    @Override
+    public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                       long unscaledQuantity, int quantityScale) {
+        add(type, key, employeeName, epochDay,
+                quantityScale == scale ? unscaledQuantity : FixedPoint.NOT_REPRESENTABLE);
+    }
+
+    @Override
+    public void register(EmployeeAwardKey key, String employeeName) {
+        int id = idOf(key);
+        names[id] = employeeName;
+    }
+
+    private void add(EventType type, EmployeeAwardKey key, String employeeName, long epochDay, long quantity) {
+        // Every key is registered, even when all of its events are after the target date.
+        int id = idOf(key);
+        names[id] = employeeName;
+        if (epochDay > targetEpochDay) {
+            return;
+        }
+        if (quantity == FixedPoint.NOT_REPRESENTABLE || quantity < 0) {
+            throw new NotRepresentable();
+        }
+        counts.set(id, counts.get(id) + 1);
+        long at = recordCount++ * RECORD_LONGS;
+        records.set(at, (long) id << 1 | (type == EventType.CANCEL ? 1 : 0));
+        records.set(at + 1, epochDay);
+        records.set(at + 2, quantity);
+    }
+
+    private int idOf(EmployeeAwardKey key) {
+        int hash = mix(key.hashCode());
+        for (long slot = home(hash); ; slot = (slot + 1) & mask) {
+            long entry = table.get(slot);
+            if (entry == 0) {
+                break;
+            }
+            if ((int) (entry >>> 32) == hash) {
+                EmployeeAwardKey candidate = keys[(int) entry - 1];
+                if (candidate == key || candidate.equals(key)) {
+                    return (int) entry - 1;
+                }
+            }
+        }
+
+        if (keyCount == MAX_KEYS) {
+            throw new IllegalStateException("Too many distinct keys for the off-heap store: " + keyCount);
+        }
+        int id = keyCount++;
+        if (id == keys.length) {
+            keys = Arrays.copyOf(keys, (int) Math.min(id * 2L, MAX_KEYS));
+            names = Arrays.copyOf(names, keys.length);
+        }
+        keys[id] = key;
+        if ((long) keyCount * 4 > (mask + 1) * 3) {
+            resize();
+        }
+        insert(hash, id);
+        return id;
+    }
+
+    private void insert(int hash, int id) {
+        long slot = home(hash);
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(slot, (long) hash << 32 | (id + 1));
+    }
+
+    private long home(int hash) {
+        return (hash & 0xFFFFFFFFL) & mask;
+    }
+
+    private void resize() {
+        LongArena old = table;
+        long oldSlots = mask + 1;
+        table = new LongArena();
+        mask = oldSlots * 2 - 1;
+        for (long slot = 0; slot < oldSlots; slot++) {
+            long entry = old.get(slot);
+            if (entry != 0) {
+                insert((int) (entry >>> 32), (int) entry - 1);
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int keyCount() {
+        return keyCount;
+    }
+
+    List<VestingSummary> summarize() {
+        // Each key gets the range of records its count calls for, and the counts
+        // become the next unfilled record of each range.
+        LongArena starts = new LongArena();
+        LongArena next = counts;
+        long offset = 0;
+        for (int id = 0; id < keyCount; id++) {
+            long count = next.get(id);
+            starts.set(id, offset);
+            next.set(id, offset);
+            offset += count;
+        }
+        starts.set(keyCount, offset);
+        // Group the records by key in place. A record in the wrong range is carried to
+        // the next unfilled slot of its own key's range, picking up the record there,
+        // until one that belongs in the slot it started from turns up. Order within a
+        // key is lost, which the walk does not need: it orders the events by day and
+        // sums each day as a whole.
+        for (int id = 0; id < keyCount; id++) {
+            long end = starts.get(id + 1);
+            for (long r = next.get(id); r < end; r = next.get(id)) {
+                long at = r * RECORD_LONGS;
+                long head = records.get(at);
+                int owner = (int) (head >>> 1);
+                if (owner != id) {
+                    long day = records.get(at + 1);
+                    long quantity = records.get(at + 2);
+                    do {
+                        long to = next.get(owner);
+                        next.set(owner, to + 1);
+                        long toAt = to * RECORD_LONGS;
+                        long displacedHead = records.get(toAt);
+                        long displacedDay = records.get(toAt + 1);
+                        long displacedQuantity = records.get(toAt + 2);
+                        records.set(toAt, head);
+                        records.set(toAt + 1, day);
+                        records.set(toAt + 2, quantity);
+                        head = displacedHead;
+                        day = displacedDay;
+                        quantity = displacedQuantity;
+                        owner = (int) (head >>> 1);
+                    } while (owner != id);
+                    records.set(at, head);
+                    records.set(at + 1, day);
+                    records.set(at + 2, quantity);
+                }
+                next.set(id, r + 1);
+            }
+        }
+        LongArena grouped = records;
+        records = null;
+        counts = null;
+
+        List<VestingSummary> summaries = new ArrayList<>(keyCount);
+        Walk walk = new Walk();
+        for (int id : idsInKeyOrder()) {
+            EmployeeAwardKey key = keys[id];
+            long total = walk.validatedTotal(key, grouped, starts.get(id), starts.get(id + 1));
+            summaries.add(new VestingSummary(key.employeeId(), names[id], key.awardId(),
+                    precisionHandler.truncate(FixedPoint.toBigDecimal(total, scale))));
+        }
+        return summaries;
+    }
+
+    // One key's events, sorted by day into reusable heap arrays and checked day by
+    // day like DailyLedger.Cursor.
+    private final class Walk {
+
+        private long[] days = new long[16];
+        private long[] quantities = new long[16];
+        private boolean[] cancels = new boolean[16];
+        private int[] order = new int[16];
+        private int[] scratch = new int[16];
+
+        private long validatedTotal(EmployeeAwardKey key, LongArena grouped, long from, long to) {
+            int n = (int) (to - from);
+            if (days.length < n) {
+                int capacity = Math.max(n, days.length * 2);
+                days = new long[capacity];
+                quantities = new long[capacity];
+                cancels = new boolean[capacity];
+                order = new int[capacity];
+                scratch = new int[capacity];
+            }
+            boolean sorted = true;
+            for (int i = 0; i < n; i++) {
+                long at = (from + i) * RECORD_LONGS;
+                cancels[i] = (grouped.get(at) & 1) != 0;
+                days[i] = grouped.get(at + 1);
+                quantities[i] = grouped.get(at + 2);
+                order[i] = i;
+                sorted &= i == 0 || days[i - 1] <= days[i];
+            }
+            if (!sorted) {
+                sortByDay(n);
+            }
+
+            long vested = 0;
+            long cancelled = 0;
+            boolean anyVest = false;
+            boolean anyCancel = false;
+            for (int i = 0; i < n; ) {
+                long day = days[order[i]];
+                for (; i < n && days[order[i]] == day; i++) {
+                    int e = order[i];
+                    if (cancels[e]) {
+                        cancelled = FixedPoint.add(cancelled, quantities[e]);
+                        anyCancel = true;
+                    } else {
+                        vested = FixedPoint.add(vested, quantities[e]);
+                        anyVest = true;
+                    }
+                    if (vested == FixedPoint.NOT_REPRESENTABLE || cancelled == FixedPoint.NOT_REPRESENTABLE) {
+                        throw new NotRepresentable();
+                    }
+                }
+                if (cancelled > vested) {
+                    throw DailyLedger.invalidCancellation(key, day,
+                            FixedPoint.toBigDecimal(cancelled, scale).setScale(anyCancel ? scale : 0),
+                            FixedPoint.toBigDecimal(vested, scale).setScale(anyVest ? scale : 0));
+                }
+            }
+            return vested - cancelled;
+        }
+
+        // Merge sort of order[0, n) by day.
+        private void sortByDay(int n) {
+            for (int width = 1; width < n; width *= 2) {
+                for (int lo = 0; lo < n - width; lo += 2 * width) {
+                    int mid = lo + width;
+                    int hi = Math.min(lo + 2 * width, n);
+                    int a = lo;
+                    int b = mid;
+                    int k = lo;
+                    while (a < mid && b < hi) {
+                        scratch[k++] = days[order[b]] < days[order[a]] ? order[b++] : order[a++];
+                    }
+                    while (a < mid) {
+                        scratch[k++] = order[a++];
+                    }
+                    while (b < hi) {
+                        scratch[k++] = order[b++];
+                    }
+                    System.arraycopy(scratch, lo, order, lo, hi - lo);
+                }
+            }
+        }
+    }
+
+    // Ids ordered by key, sorted as primitives to avoid boxing millions of ids.
+    private int[] idsInKeyOrder() {
+        int[] ids = new int[keyCount];
+        Arrays.setAll(ids, id -> id);
+        int[] scratch = new int[keyCount];
+        for (int width = 1; width < keyCount; width *= 2) {
+            for (int lo = 0; lo < keyCount - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, keyCount);
+                int a = lo;
+                int b = mid;
+                int k = lo;
+                while (a < mid && b < hi) {
+                    scratch[k++] = keys[ids[b]].compareTo(keys[ids[a]]) < 0 ? ids[b++] : ids[a++];
+                }
+                while (a < mid) {
+                    scratch[k++] = ids[a++];
+                }
+                while (b < hi) {
+                    scratch[k++] = ids[b++];
+                }
+                System.arraycopy(scratch, lo, ids, lo, hi - lo);
+            }
+        }
+        return ids;
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes)).order(ByteOrder.nativeOrder());
+    }
+
+    // A growable array of longs in 8 MiB direct chunks, so it is not limited to the
+    // 2 GiB of a single buffer.
+    private static final class LongArena {
+
+        private static final int CHUNK_SHIFT = 20;
+        private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+        private ByteBuffer[] chunks = new ByteBuffer[4];
+
+        // Unset entries read as 0.
+        long get(long index) {
+            int c = (int) (index >>> CHUNK_SHIFT);
+            ByteBuffer chunk = c < chunks.length ? chunks[c] : null;
+            return chunk == null ? 0 : chunk.getLong(((int) index & CHUNK_MASK) << 3);
+        }
+
+        void set(long index, long value) {
+            int c = (int) (index >>> CHUNK_SHIFT);
+            if (c >= chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(c + 1, chunks.length * 2));
+            }
+            if (chunks[c] == null) {
+                chunks[c] = allocate(8L << CHUNK_SHIFT);
+            }
+            chunks[c].putLong(((int) index & CHUNK_MASK) << 3, value);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package vesting.calculator;
+
+import vesting.model.CancelEvent;
+import vesting.model.KeyIndex;
+import vesting.model.VestingEvent;
+import vesting.precision.FixedPoint;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+// Net totals per dense key id for one slice of an event list, owned by a single
+// worker. Sums are longs scaled by 10^scale; a key moves to an exact BigDecimal
+// only for quantities with more decimals than the scale or a sum that overflows.
+//
+// The table only holds the ids the slice has: an open-addressing table probed
+// from id & mask. Ids are handed out in first-seen order, so the ids of a slice
+// are mostly runs that land in distinct slots. It stops growing once it has a
+// slot for every id of the index, where no two ids share a slot.
+final class PartialTotals {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private final int scale;
+    private final int maxCapacity;
+    private int events;
+    private int size;
+    private int[] ids;
+    private long[] scaled;
+    // Allocated on the first key that needs it; exact[slot] is added to scaled[slot].
+    private BigDecimal[] exact;
+
+    private PartialTotals(int keyCount, int scale) {
+        this.scale = scale;
+        this.maxCapacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, keyCount - 1)) << 1);
+        allocate(Math.min(MIN_CAPACITY, maxCapacity));
+    }
+
+    // Sums events [from, to) dated on or before targetEpochDay, then orders the
+    // entries by id for merge.
+    static PartialTotals of(List<VestingEvent> events, KeyIndex index, int from, int to,
+                            long targetEpochDay, int scale) {
+        PartialTotals totals = new PartialTotals(index.size(), scale);
+        for (int i = from; i < to; i++) {
+            VestingEvent event = events.get(i);
+            if (event.epochDay() <= targetEpochDay) {
+                totals.add(index.id(i), event);
+            }
+        }
+        totals.events = to - from;
+        totals.sortById();
+        return totals;
+    }
+
+    // The number of events in the slice, and of distinct ids among those summed.
+    int events() {
+        return events;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void add(int id, VestingEvent event) {
+        int slot = slot(id);
+        boolean cancel = event instanceof CancelEvent;
+        long quantity = FixedPoint.toScaled(event.quantity(), scale);
+        if (quantity != FixedPoint.NOT_REPRESENTABLE) {
+            long sum = FixedPoint.add(scaled[slot], cancel ? -quantity : quantity);
+            if (sum != FixedPoint.NOT_REPRESENTABLE) {
+                scaled[slot] = sum;
+                return;
+            }
+        }
+        addExact(slot, cancel ? event.quantity().negate() : event.quantity());
+    }
+
+    private void addExact(int slot, BigDecimal value) {
+        if (exact == null) {
+            exact = new BigDecimal[scaled.length];
+        }
+        BigDecimal moved = FixedPoint.toBigDecimal(scaled[slot], scale).add(value);
+        exact[slot] = exact[slot] == null ? moved : exact[slot].add(moved);
+        scaled[slot] = 0;
+    }
+
+    private int slot(int id) {
+        int mask = ids.length - 1;
+        int slot = id & mask;
+        while (ids[slot] != id) {
+            if (ids[slot] == EMPTY) {
+                if (2 * (size + 1) > ids.length && ids.length < maxCapacity) {
+                    grow();
+                    return slot(id);
+                }
+                ids[slot] = id;
+                size++;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        long[] oldScaled = scaled;
+        BigDecimal[] oldExact = exact;
+        allocate(oldIds.length * 2);
+        int mask = ids.length - 1;
+        for (int old = 0; old < oldIds.length; old++) {
+            if (oldIds[old] != EMPTY) {
+                int slot = oldIds[old] & mask;
+                while (ids[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = oldIds[old];
+                scaled[slot] = oldScaled[old];
+                if (oldExact != null) {
+                    exact[slot] = oldExact[old];
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        Arrays.fill(ids, EMPTY);
+        scaled = new long[capacity];
+        exact = exact != null ? new BigDecimal[capacity] : null;
+    }
+
+    // Packs the entries into the first size slots in id order; the table is only
+    // read from then on.
+    private void sortById() {
+        long[] order = new long[size];
+        int n = 0;
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] != EMPTY) {
+                order[n++] = (long) ids[slot] << 32 | slot;
+            }
+        }
+        Arrays.sort(order);
+        int[] sortedIds = new int[size];
+        long[] sortedScaled = new long[size];
+        BigDecimal[] sortedExact = exact != null ? new BigDecimal[size] : null;
+        for (int i = 0; i < size; i++) {
+            int slot = (int) order[i];
+            sortedIds[i] = ids[slot];
+            sortedScaled[i] = scaled[slot];
+            if (sortedExact != null) {
+                sortedExact[i] = exact[slot];
+            }
+        }
+        ids = sortedIds;
+        scaled = sortedScaled;
+        exact = sortedExact;
+    }
+
+    // Combines the partials of every worker for ids [from, to) into the totals of
+    // those ids. Partitions of the id range are independent, so they can be merged
+    // concurrently.
+    static void merge(PartialTotals[] partials, int from, int to, BigDecimal[] into) {
+        int scale = partials[0].scale;
+        long[] sums = new long[to - from];
+        BigDecimal[] exactSums = null;
+        for (PartialTotals partial : partials) {
+            int i = Arrays.binarySearch(partial.ids, from);
+            for (i = i >= 0 ? i : -i - 1; i < partial.ids.length && partial.ids[i] < to; i++) {
+                int k = partial.ids[i] - from;
+                long next = FixedPoint.add(sums[k], partial.scaled[i]);
+                BigDecimal moved = null;
+                if (next == FixedPoint.NOT_REPRESENTABLE) {
+                    moved = FixedPoint.toBigDecimal(sums[k], scale)
+                            .add(FixedPoint.toBigDecimal(partial.scaled[i], scale));
+                    next = 0;
+                }
+                if (partial.exact != null && partial.exact[i] != null) {
+                    moved = moved == null ? partial.exact[i] : moved.add(partial.exact[i]);
+                }
+                sums[k] = next;
+                if (moved != null) {
+                    if (exactSums == null) {
+                        exactSums = new BigDecimal[sums.length];
+                    }
+                    exactSums[k] = exactSums[k] == null ? moved : exactSums[k].add(moved);
+                }
+            }
+        }
+        for (int k = 0; k < sums.length; k++) {
+            BigDecimal total = FixedPoint.toBigDecimal(sums[k], scale);
+            into[from + k] = exactSums == null || exactSums[k] == null ? total : exactSums[k].add(total);
+        }
+    }
+}
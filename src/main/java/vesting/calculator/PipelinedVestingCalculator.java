@@ -0,0 +1,550 @@
+package vesting.calculator;
+
+import vesting.eventlog.EventLog;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.ByteLineParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.parser.PushdownSink;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs reading, parsing and aggregation as concurrent stages linked by bounded
+// queues, so disk reads, line parsing and folding into per-key state overlap:
+//
+//   reader --blocks--> N parsers --one batch per partition--> P aggregators
+//
+// The reader cuts the file into line-aligned blocks and counts their lines. A
+// parser turns a block into one batch of events for each partition (keys are
+// assigned to partitions by hash). Each aggregator folds its batches into its own
+// VestingAccumulator in block order, so every key sees its events in file order
+// and the last name in the file wins. Only a fixed number of blocks may be between
+// being read and being fully aggregated, which bounds memory whatever the file size.
+//
+// Results and error messages are those of the streaming engine. When several
+// lines are invalid, the first one in the file is reported.
+public final class PipelinedVestingCalculator implements VestingCalculator {
+
+    // Told when the stages start and finish reading a CSV file, since they do not
+    // go through an EventParser. Rows are the lines parsed, those after the target
+    // date included; bytes are those read.
+    public interface ParseListener {
+
+        ParseListener NONE = new ParseListener() {
+        };
+
+        default void started(String filename) {
+        }
+
+        default void finished(String filename, long rows, long rowsAfterTargetDate, long bytes) {
+        }
+    }
+
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private final CsvLineParser lineParser;
+    private final ThreadFactory threadFactory;
+    private final int parsers;
+    private final int partitions;
+    private final int blockSize;
+    private final ParseListener listener;
+    private final FusedVestingCalculator listCalculator = new FusedVestingCalculator();
+
+    public PipelinedVestingCalculator(CsvLineParser lineParser, ThreadFactory threadFactory) {
+        this(lineParser, threadFactory, ParseListener.NONE);
+    }
+
+    public PipelinedVestingCalculator(CsvLineParser lineParser, ThreadFactory threadFactory,
+                                      ParseListener listener) {
+        this(lineParser, threadFactory, Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 4), BLOCK_SIZE, listener);
+    }
+
+    PipelinedVestingCalculator(CsvLineParser lineParser, ThreadFactory threadFactory,
+                               int parsers, int partitions, int blockSize) {
+        this(lineParser, threadFactory, parsers, partitions, blockSize, ParseListener.NONE);
+    }
+
+    PipelinedVestingCalculator(CsvLineParser lineParser, ThreadFactory threadFactory,
+                               int parsers, int partitions, int blockSize, ParseListener listener) {
+        if (parsers < 1 || partitions < 1 || blockSize < 1) {
+            throw new IllegalArgumentException("Parsers, partitions and block size must be positive");
+        }
+        this.lineParser = lineParser;
+        this.threadFactory = threadFactory;
+        this.parsers = parsers;
+        this.partitions = partitions;
+        this.blockSize = blockSize;
+        this.listener = listener;
+    }
+
+    @Override
+    public List<VestingSummary> calculate(
+            List<VestingEvent> events,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+        return listCalculator.calculate(events, targetDate, precisionHandler);
+    }
+
+    // The stages read CSV themselves; an event log has no text to parse and is
+    // folded through the given parser on the calling thread.
+    @Override
+    public List<VestingSummary> calculate(
+            EventParser parser,
+            String filename,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+
+        if (EventLog.isEventLog(Path.of(filename))) {
+            VestingAccumulator accumulator = new VestingAccumulator(targetDate, precisionHandler);
+            parser.parse(filename, precisionHandler, targetDate, accumulator);
+            return accumulator.summarize();
+        }
+        Pipeline pipeline = new Pipeline(filename, targetDate, precisionHandler);
+        VestingAccumulator accumulator;
+        listener.started(filename);
+        try {
+            accumulator = pipeline.run();
+        } finally {
+            listener.finished(filename, pipeline.rows.get(), pipeline.rowsAfterTargetDate.get(),
+                    pipeline.bytesRead);
+        }
+        return accumulator.summarize();
+    }
+
+    private static final class Block {
+
+        private static final Block END = new Block(-1, null, 0, 0, 0);
+
+        private final long sequence;
+        private final byte[] bytes;
+        private final int length;
+        // Number of lines in the file before this block.
+        private final int linesBefore;
+        // Partitions that have not yet aggregated this block's batch.
+        private final AtomicInteger pending;
+
+        private Block(long sequence, byte[] bytes, int length, int linesBefore, int partitions) {
+            this.sequence = sequence;
+            this.bytes = bytes;
+            this.length = length;
+            this.linesBefore = linesBefore;
+            this.pending = new AtomicInteger(partitions);
+        }
+    }
+
+    // The events of one block for one partition, in file order. Lines the byte
+    // parser hands to CsvLineParser arrive as events, rows after the target date as
+    // a key and name only (no type), and all others as primitives.
+    private static final class Batch implements PushdownSink {
+
+        private static final Batch END = new Batch(Block.END);
+
+        private final Block block;
+        private int size;
+        private EventType[] types = new EventType[256];
+        private EmployeeAwardKey[] keys = new EmployeeAwardKey[256];
+        private String[] names = new String[256];
+        private long[] epochDays = new long[256];
+        private long[] quantities = new long[256];
+        private int[] scales = new int[256];
+        private VestingEvent[] events = new VestingEvent[256];
+
+        private Batch(Block block) {
+            this.block = block;
+        }
+
+        @Override
+        public void accept(VestingEvent event) {
+            grow();
+            events[size++] = event;
+        }
+
+        @Override
+        public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           long unscaledQuantity, int scale) {
+            grow();
+            types[size] = type;
+            keys[size] = key;
+            names[size] = employeeName;
+            epochDays[size] = epochDay;
+            quantities[size] = unscaledQuantity;
+            scales[size] = scale;
+            size++;
+        }
+
+        @Override
+        public void register(EmployeeAwardKey key, String employeeName) {
+            grow();
+            keys[size] = key;
+            names[size] = employeeName;
+            size++;
+        }
+
+        private void grow() {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+                names = Arrays.copyOf(names, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+                events = Arrays.copyOf(events, capacity);
+            }
+        }
+
+        private void applyTo(PushdownSink sink) {
+            for (int i = 0; i < size; i++) {
+                if (events[i] != null) {
+                    sink.accept(events[i]);
+                } else if (types[i] == null) {
+                    sink.register(keys[i], names[i]);
+                } else {
+                    sink.accept(types[i], keys[i], names[i], epochDays[i], quantities[i], scales[i]);
+                }
+            }
+        }
+    }
+
+    private final class Pipeline {
+
+        private final String filename;
+        private final long targetEpochDay;
+        private final PrecisionHandler precisionHandler;
+        // Blocks read but not yet aggregated by every partition.
+        private final Semaphore inFlight;
+        private final BlockingQueue<Block> blocks;
+        private final List<BlockingQueue<Batch>> batches = new ArrayList<>();
+        private final BlockingQueue<byte[]> freeBuffers;
+        private final VestingAccumulator[] accumulators;
+        private final AtomicInteger runningParsers = new AtomicInteger(parsers);
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong rowsAfterTargetDate = new AtomicLong();
+        // Written by the reader, read once it has been joined.
+        private long bytesRead;
+
+        private volatile Throwable failure;
+        private long failedBlock = Long.MAX_VALUE;
+
+        private Pipeline(String filename, LocalDate targetDate, PrecisionHandler precisionHandler) {
+            this.filename = filename;
+            this.targetEpochDay = targetDate.toEpochDay();
+            this.precisionHandler = precisionHandler;
+            int window = 2 * parsers + 2;
+            this.inFlight = new Semaphore(window);
+            // Sized so that the end markers never have to wait for space.
+            this.blocks = new ArrayBlockingQueue<>(window + parsers);
+            this.freeBuffers = new ArrayBlockingQueue<>(window);
+            this.accumulators = new VestingAccumulator[partitions];
+            for (int p = 0; p < partitions; p++) {
+                batches.add(new ArrayBlockingQueue<>(window + 1));
+                accumulators[p] = new VestingAccumulator(targetDate, precisionHandler);
+            }
+        }
+
+        private VestingAccumulator run() {
+            threads.add(threadFactory.newThread(() -> stage(this::read)));
+            for (int i = 0; i < parsers; i++) {
+                threads.add(threadFactory.newThread(() -> stage(this::parse)));
+            }
+            for (int p = 0; p < partitions; p++) {
+                int partition = p;
+                threads.add(threadFactory.newThread(() -> stage(() -> aggregate(partition))));
+            }
+            threads.forEach(Thread::start);
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                threads.forEach(Thread::interrupt);
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException("Interrupted while reading file: " + filename,
+                        new InterruptedIOException());
+            }
+
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure instanceof Error e) {
+                throw e;
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Interrupted while reading file: " + filename,
+                        new InterruptedIOException());
+            }
+            for (int p = 1; p < partitions; p++) {
+                accumulators[0].absorb(accumulators[p]);
+            }
+            return accumulators[0];
+        }
+
+        // A stage that fails unexpectedly stops the others, which could otherwise
+        // wait forever for its output.
+        private void stage(Runnable body) {
+            try {
+                body.run();
+            } catch (Throwable t) {
+                fail(Long.MAX_VALUE, t);
+                threads.forEach(Thread::interrupt);
+            }
+        }
+
+        // Keeps the failure of the earliest block, which is the one a sequential
+        // parse would have reported.
+        private synchronized void fail(long sequence, Throwable t) {
+            if (failure == null || sequence < failedBlock) {
+                failedBlock = sequence;
+                failure = t;
+            }
+        }
+
+        private synchronized boolean failedBefore(long sequence) {
+            return failure != null && failedBlock < sequence;
+        }
+
+        private void read() {
+            long sequence = 0;
+            int lines = 0;
+            byte[] carry = new byte[0];
+            int carryLength = 0;
+            try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+                boolean eof = false;
+                // Blocks after a failed one are never needed.
+                while (!eof && failure == null) {
+                    inFlight.acquire();
+                    byte[] buffer = freeBuffers.poll();
+                    if (buffer == null || buffer.length <= carryLength) {
+                        buffer = new byte[Math.max(blockSize, carryLength * 2)];
+                    }
+                    System.arraycopy(carry, 0, buffer, 0, carryLength);
+                    int length = carryLength;
+                    int cut;
+                    while (true) {
+                        while (length < buffer.length) {
+                            int read = channel.read(ByteBuffer.wrap(buffer, length, buffer.length - length));
+                            if (read < 0) {
+                                eof = true;
+                                break;
+                            }
+                            length += read;
+                            bytesRead += read;
+                        }
+                        cut = eof ? length : lastLineEnd(buffer, length);
+                        if (cut > 0 || eof) {
+                            break;
+                        }
+                        // A line longer than the buffer.
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+
+                    carryLength = length - cut;
+                    if (carry.length < carryLength) {
+                        carry = new byte[Math.max(carryLength, blockSize)];
+                    }
+                    System.arraycopy(buffer, cut, carry, 0, carryLength);
+                    if (cut == 0) {
+                        inFlight.release();
+                        break;
+                    }
+                    blocks.put(new Block(sequence++, buffer, cut, lines, partitions));
+                    lines += countLines(buffer, cut);
+                }
+            } catch (IOException e) {
+                fail(sequence, new UncheckedIOException("Failed to read file: " + filename, e));
+            } catch (InterruptedException e) {
+                fail(Long.MAX_VALUE, e);
+            } finally {
+                for (int i = 0; i < parsers; i++) {
+                    blocks.add(Block.END);
+                }
+            }
+        }
+
+        private void parse() {
+            ByteLineParser parser = new ByteLineParser(lineParser);
+            try {
+                while (true) {
+                    Block block = blocks.take();
+                    if (block == Block.END) {
+                        break;
+                    }
+                    Batch[] output = new Batch[partitions];
+                    for (int p = 0; p < partitions; p++) {
+                        output[p] = new Batch(block);
+                    }
+                    if (!failedBefore(block.sequence)) {
+                        try {
+                            parseBlock(parser, block, output);
+                        } catch (CharacterCodingException e) {
+                            fail(block.sequence, new UncheckedIOException("Failed to read file: " + filename, e));
+                        } catch (RuntimeException e) {
+                            fail(block.sequence, e);
+                        }
+                    }
+                    freeBuffers.offer(block.bytes);
+                    for (int p = 0; p < partitions; p++) {
+                        batches.get(p).put(output[p]);
+                    }
+                }
+            } catch (InterruptedException e) {
+                fail(Long.MAX_VALUE, e);
+            } finally {
+                if (runningParsers.decrementAndGet() == 0) {
+                    batches.forEach(queue -> queue.add(Batch.END));
+                }
+            }
+        }
+
+        // Same line terminators and trimming as ByteCsvEventParser.
+        private void parseBlock(ByteLineParser parser, Block block, Batch[] output)
+                throws CharacterCodingException {
+            // Rows, and rows after the target date, of this block.
+            long[] counts = new long[2];
+            PushdownSink router = new PushdownSink() {
+                @Override
+                public void accept(VestingEvent event) {
+                    count(event.epochDay());
+                    output[partition(event.key())].accept(event);
+                }
+
+                @Override
+                public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                                   long unscaledQuantity, int scale) {
+                    count(epochDay);
+                    output[partition(key)].accept(type, key, employeeName, epochDay, unscaledQuantity, scale);
+                }
+
+                @Override
+                public void register(EmployeeAwardKey key, String employeeName) {
+                    counts[0]++;
+                    counts[1]++;
+                    output[partition(key)].register(key, employeeName);
+                }
+
+                private void count(long epochDay) {
+                    counts[0]++;
+                    if (epochDay > targetEpochDay) {
+                        counts[1]++;
+                    }
+                }
+            };
+
+            byte[] bytes = block.bytes;
+            int limit = block.length;
+            int lineNumber = block.linesBefore;
+            int pos = 0;
+            while (pos < limit) {
+                int start = pos;
+                while (pos < limit && bytes[pos] != '\n' && bytes[pos] != '\r') {
+                    pos++;
+                }
+                int end = pos;
+                if (pos < limit) {
+                    if (bytes[pos] == '\r' && pos + 1 < limit && bytes[pos + 1] == '\n') {
+                        pos++;
+                    }
+                    pos++;
+                }
+                lineNumber++;
+                while (start < end && (bytes[start] & 0xFF) <= ' ') {
+                    start++;
+                }
+                while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+                    end--;
+                }
+                if (start < end) {
+                    parser.parseLine(bytes, start, end, lineNumber, precisionHandler, targetEpochDay, router);
+                }
+            }
+            rows.addAndGet(counts[0]);
+            rowsAfterTargetDate.addAndGet(counts[1]);
+        }
+
+        private int partition(EmployeeAwardKey key) {
+            return Math.floorMod(key.hashCode(), partitions);
+        }
+
+        private void aggregate(int partition) {
+            BlockingQueue<Batch> queue = batches.get(partition);
+            VestingAccumulator accumulator = accumulators[partition];
+            PriorityQueue<Batch> waiting = new PriorityQueue<>(Comparator.comparingLong(b -> b.block.sequence));
+            long next = 0;
+            try {
+                while (true) {
+                    Batch batch = queue.take();
+                    if (batch == Batch.END) {
+                        break;
+                    }
+                    // Parsers finish blocks out of order; fold them in file order.
+                    waiting.add(batch);
+                    while (!waiting.isEmpty() && waiting.peek().block.sequence == next) {
+                        Batch ready = waiting.poll();
+                        next++;
+                        if (failure == null) {
+                            ready.applyTo(accumulator);
+                        }
+                        if (ready.block.pending.decrementAndGet() == 0) {
+                            inFlight.release();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                fail(Long.MAX_VALUE, e);
+            }
+        }
+    }
+
+    // Offset just after the last complete line: after the last '\n', or failing that
+    // after the last '\r' that cannot be the first half of a "\r\n". 0 if there is none.
+    private static int lastLineEnd(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        for (int i = length - 2; i >= 0; i--) {
+            if (bytes[i] == '\r') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    // Lines in a block that ends just after a line terminator.
+    private static int countLines(byte[] bytes, int length) {
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            if (b == '\n' || (b == '\r' && (i + 1 == length || bytes[i + 1] != '\n'))) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,352 @@
+package vesting.calculator;
+
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.EventParser;
+import vesting.parser.PushdownSink;
+import vesting.precision.PrecisionHandler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+// Bounded-memory engine. Input files are folded in order into a VestingAccumulator
+// as in the streaming engine. Whenever its estimated footprint reaches the budget,
+// its per-key state (name and per-day sums, which is all validation needs) is
+// written to a temp file in key order and dropped. At the end the sorted runs are
+// merged k ways: the states of a key from all runs are combined in run order, so
+// the result is that of one accumulator over all the input, and each key is then
+// validated and summarized on its own. Runs beyond the fan-in that fits the budget
+// are first merged into larger runs.
+//
+// Summaries are written to a temp file per date and handed to the consumer in
+// chunks, several calls per date, in key order. As with VestingAccumulator, an
+// invalid cancellation fails the first date it affects: the blocks for earlier
+// dates are still delivered, and the error reported is that of the first key in
+// key order failing on that date.
+public final class SpillingVestingCalculator {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int CHUNK_SIZE = 4096;
+    private static final int MIN_CHECK_INTERVAL = 4096;
+
+    private final long memoryBudget;
+    private final Path spillDirectory;
+
+    public SpillingVestingCalculator(long memoryBudget) {
+        this(memoryBudget, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    public SpillingVestingCalculator(long memoryBudget, Path spillDirectory) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive, got: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public void calculate(
+            EventParser parser,
+            List<Path> files,
+            List<LocalDate> targetDates,
+            PrecisionHandler precisionHandler,
+            BiConsumer<LocalDate, List<VestingSummary>> consumer) {
+
+        List<LocalDate> ascending = MultiDateVestingCalculator.ascending(targetDates);
+        if (ascending.isEmpty() || files.isEmpty()) {
+            return;
+        }
+        LocalDate lastDate = ascending.get(ascending.size() - 1);
+
+        List<Path> temporary = new ArrayList<>();
+        try {
+            SpillingSink sink = new SpillingSink(new VestingAccumulator(lastDate, precisionHandler), temporary);
+            for (Path file : files) {
+                try {
+                    parser.parse(file.toString(), precisionHandler, lastDate, sink);
+                } catch (IllegalArgumentException e) {
+                    throw files.size() > 1 ? new IllegalArgumentException(file + ": " + e.getMessage(), e) : e;
+                }
+            }
+            if (sink.runs.isEmpty()) {
+                // Everything fitted: no different from the streaming engine.
+                sink.accumulator.summarizeEach(ascending, consumer);
+                return;
+            }
+            sink.spill();
+            List<Path> runs = reduce(sink.runs, precisionHandler.getPrecision(), temporary);
+            summarize(runs, ascending, precisionHandler, consumer, temporary);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill to " + spillDirectory, e);
+        } finally {
+            for (Path path : temporary) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // Left for the temp directory's own cleanup.
+                }
+            }
+        }
+    }
+
+    // Merges consecutive groups of runs, a fan-in at a time, until one merge can read
+    // all that remain. Groups stay in input order, so later names still win.
+    private List<Path> reduce(List<Path> runs, int scale, List<Path> temporary) throws IOException {
+        int fanIn = (int) Math.max(2, Math.min(1024, memoryBudget / (4L * BUFFER_BYTES)));
+        List<Path> remaining = runs;
+        while (remaining.size() > fanIn) {
+            List<Path> next = new ArrayList<>();
+            for (int from = 0; from < remaining.size(); from += fanIn) {
+                List<Path> group = remaining.subList(from, Math.min(from + fanIn, remaining.size()));
+                if (group.size() == 1) {
+                    next.add(group.get(0));
+                    continue;
+                }
+                Path merged = createTempFile(temporary);
+                try (DataOutputStream out = output(merged)) {
+                    merge(group, scale, (key, name, ledger) -> writeState(out, key, name, ledger));
+                    out.writeBoolean(false);
+                }
+                for (Path run : group) {
+                    Files.delete(run);
+                }
+                next.add(merged);
+            }
+            remaining = next;
+        }
+        return remaining;
+    }
+
+    private void summarize(List<Path> runs, List<LocalDate> ascending, PrecisionHandler precisionHandler,
+                           BiConsumer<LocalDate, List<VestingSummary>> consumer, List<Path> temporary)
+            throws IOException {
+        long[] asOfDays = ascending.stream().mapToLong(LocalDate::toEpochDay).toArray();
+        Path[] results = new Path[asOfDays.length];
+        DataOutputStream[] outputs = new DataOutputStream[asOfDays.length];
+        long[] counts = new long[asOfDays.length];
+        // Dates from the first failing one on are not written.
+        int[] failedAt = {asOfDays.length};
+        IllegalStateException[] failure = {null};
+        try {
+            for (int d = 0; d < asOfDays.length; d++) {
+                results[d] = createTempFile(temporary);
+                outputs[d] = output(results[d]);
+            }
+            merge(runs, precisionHandler.getPrecision(), (key, name, ledger) -> {
+                DailyLedger.Cursor cursor = ledger == null ? null : ledger.cursor(key);
+                for (int d = 0; d < failedAt[0]; d++) {
+                    BigDecimal total;
+                    try {
+                        total = cursor == null ? BigDecimal.ZERO : cursor.advanceTo(asOfDays[d]);
+                    } catch (IllegalStateException e) {
+                        failedAt[0] = d;
+                        failure[0] = e;
+                        return;
+                    }
+                    DataOutputStream out = outputs[d];
+                    StringCodec.write(out, key.employeeId());
+                    StringCodec.write(out, name);
+                    StringCodec.write(out, key.awardId());
+                    StringCodec.write(out, precisionHandler.truncate(total).toString());
+                    counts[d]++;
+                }
+            });
+        } finally {
+            for (DataOutputStream out : outputs) {
+                if (out != null) {
+                    out.close();
+                }
+            }
+        }
+
+        for (int d = 0; d < failedAt[0]; d++) {
+            try (DataInputStream in = input(results[d])) {
+                // Every date gets at least one call, even with no keys.
+                List<VestingSummary> chunk = new ArrayList<>();
+                for (long i = 0; i < counts[d]; i++) {
+                    chunk.add(new VestingSummary(StringCodec.read(in), StringCodec.read(in),
+                            StringCodec.read(in), new BigDecimal(StringCodec.read(in))));
+                    if (chunk.size() == CHUNK_SIZE && i + 1 < counts[d]) {
+                        consumer.accept(ascending.get(d), chunk);
+                        chunk = new ArrayList<>();
+                    }
+                }
+                consumer.accept(ascending.get(d), chunk);
+            }
+            Files.delete(results[d]);
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    // Visits every key of the sorted runs once, in key order, with its states from
+    // all runs combined in run order: per-day sums add up and the last name wins.
+    private void merge(List<Path> runs, int scale, VestingAccumulator.StateVisitor visitor) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(
+                Comparator.<RunReader, EmployeeAwardKey>comparing(reader -> reader.key)
+                        .thenComparingInt(reader -> reader.index));
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(i, input(runs.get(i)), scale);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader head = queue.poll();
+                EmployeeAwardKey key = head.key;
+                String name = head.employeeName;
+                DailyLedger ledger = head.ledger;
+                if (head.advance()) {
+                    queue.add(head);
+                }
+                while (!queue.isEmpty() && queue.peek().key.equals(key)) {
+                    RunReader next = queue.poll();
+                    name = next.employeeName;
+                    if (ledger == null) {
+                        ledger = next.ledger;
+                    } else if (next.ledger != null) {
+                        ledger.addAll(next.ledger);
+                    }
+                    if (next.advance()) {
+                        queue.add(next);
+                    }
+                }
+                visitor.visit(key, name, ledger);
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    private Path createTempFile(List<Path> temporary) throws IOException {
+        Path path = Files.createTempFile(spillDirectory, "vesting-spill-", ".tmp");
+        temporary.add(path);
+        return path;
+    }
+
+    private static DataOutputStream output(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_BYTES));
+    }
+
+    private static DataInputStream input(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_BYTES));
+    }
+
+    // Run format: per key, true, employee id, award id, name, whether a ledger
+    // follows and the ledger; then false.
+    private static void writeState(DataOutputStream out, EmployeeAwardKey key, String employeeName,
+                                   DailyLedger ledger) throws IOException {
+        out.writeBoolean(true);
+        StringCodec.write(out, key.employeeId());
+        StringCodec.write(out, key.awardId());
+        StringCodec.write(out, employeeName);
+        out.writeBoolean(ledger != null);
+        if (ledger != null) {
+            ledger.writeTo(out);
+        }
+    }
+
+    private static final class RunReader {
+
+        private final int index;
+        private final DataInputStream in;
+        private final int scale;
+        private EmployeeAwardKey key;
+        private String employeeName;
+        private DailyLedger ledger;
+
+        private RunReader(int index, DataInputStream in, int scale) {
+            this.index = index;
+            this.in = in;
+            this.scale = scale;
+        }
+
+        private boolean advance() throws IOException {
+            if (!in.readBoolean()) {
+                return false;
+            }
+            key = new EmployeeAwardKey(StringCodec.read(in), StringCodec.read(in));
+            employeeName = StringCodec.read(in);
+            ledger = in.readBoolean() ? DailyLedger.readFrom(in, scale) : null;
+            return true;
+        }
+    }
+
+    // Folds events into the accumulator and spills it whenever its footprint reaches
+    // the budget. The footprint walks every key, so it is checked after a number of
+    // events that grows with the key count.
+    private final class SpillingSink implements PushdownSink {
+
+        private final VestingAccumulator accumulator;
+        private final List<Path> temporary;
+        private final List<Path> runs = new ArrayList<>();
+        private long untilCheck = MIN_CHECK_INTERVAL;
+
+        private SpillingSink(VestingAccumulator accumulator, List<Path> temporary) {
+            this.accumulator = accumulator;
+            this.temporary = temporary;
+        }
+
+        @Override
+        public void accept(VestingEvent event) {
+            accumulator.accept(event);
+            counted();
+        }
+
+        @Override
+        public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           long unscaledQuantity, int scale) {
+            accumulator.accept(type, key, employeeName, epochDay, unscaledQuantity, scale);
+            counted();
+        }
+
+        @Override
+        public void register(EmployeeAwardKey key, String employeeName) {
+            accumulator.register(key, employeeName);
+            counted();
+        }
+
+        private void counted() {
+            if (--untilCheck > 0) {
+                return;
+            }
+            if (accumulator.footprint() >= memoryBudget) {
+                try {
+                    spill();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to spill to " + spillDirectory, e);
+                }
+            }
+            untilCheck = Math.max(MIN_CHECK_INTERVAL, accumulator.keyCount() / 8);
+        }
+
+        private void spill() throws IOException {
+            Path run = createTempFile(temporary);
+            try (DataOutputStream out = output(run)) {
+                accumulator.drain((key, name, ledger) -> writeState(out, key, name, ledger));
+                out.writeBoolean(false);
+            }
+            runs.add(run);
+        }
+    }
+}
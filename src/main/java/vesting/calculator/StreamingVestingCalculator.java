@@ -0,0 +1,61 @@
+package vesting.calculator;
+
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+// Single-pass engine: parsed lines are folded straight into per-key running state
+// and validated per key at the end, so the event list is never materialized. Rows
+// after the target date are only registered by the parser. Files
+// estimated to hold very many distinct keys use the off-heap store instead of the
+// heap-based VestingAccumulator.
+public final class StreamingVestingCalculator implements VestingCalculator {
+
+    private static final long OFF_HEAP_KEY_THRESHOLD = 2_000_000;
+
+    private final FusedVestingCalculator listCalculator = new FusedVestingCalculator();
+    private final long offHeapKeyThreshold;
+
+    public StreamingVestingCalculator() {
+        this(OFF_HEAP_KEY_THRESHOLD);
+    }
+
+    public StreamingVestingCalculator(long offHeapKeyThreshold) {
+        this.offHeapKeyThreshold = offHeapKeyThreshold;
+    }
+
+    @Override
+    public List<VestingSummary> calculate(
+            List<VestingEvent> events,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+        return listCalculator.calculate(events, targetDate, precisionHandler);
+    }
+
+    @Override
+    public List<VestingSummary> calculate(
+            EventParser parser,
+            String filename,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+
+        if (KeyCountEstimator.estimate(Path.of(filename)) >= offHeapKeyThreshold) {
+            OffHeapAccumulator offHeap = new OffHeapAccumulator(targetDate, precisionHandler);
+            try {
+                parser.parse(filename, precisionHandler, targetDate, offHeap);
+                return offHeap.summarize();
+            } catch (OffHeapAccumulator.NotRepresentable e) {
+                // Quantities or sums beyond a long need the exact ledger; start again with it.
+            }
+        }
+
+        VestingAccumulator accumulator = new VestingAccumulator(targetDate, precisionHandler);
+        parser.parse(filename, precisionHandler, targetDate, accumulator);
+        return accumulator.summarize();
+    }
+}
@@ -0,0 +1,31 @@
+package vesting.calculator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Strings in spill runs and checkpoints: an int length followed by the UTF-8
+// bytes. Unlike writeUTF there is no 65535-byte limit, so any field the parsers
+// accept can be written.
+final class StringCodec {
+
+    private StringCodec() {
+    }
+
+    static void write(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String read(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
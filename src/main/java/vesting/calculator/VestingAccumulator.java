@@ -0,0 +1,269 @@
+package vesting.calculator;
+
+import vesting.model.CancelEvent;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.PushdownSink;
+import vesting.precision.PrecisionHandler;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Folds events one at a time into per employee-award running state, so memory
+// grows with the number of distinct keys (and their vesting dates) rather than
+// with the number of events. Validation and accumulation share the same per-key
+// DailyLedger, so both are done in a single traversal of the input.
+public final class VestingAccumulator implements PushdownSink {
+
+    // Map node and table slot, key record, three String headers and arrays, AwardState.
+    private static final long KEY_OVERHEAD = 40 + 16 + 3 * 40 + 24;
+
+    private final long targetEpochDay;
+    private final PrecisionHandler precisionHandler;
+    private final Map<EmployeeAwardKey, AwardState> states = new HashMap<>();
+
+    public VestingAccumulator(LocalDate targetDate, PrecisionHandler precisionHandler) {
+        this.targetEpochDay = targetDate.toEpochDay();
+        this.precisionHandler = precisionHandler;
+    }
+
+    @Override
+    public void accept(VestingEvent event) {
+        AwardState state = stateOf(event.key(), event.employeeName());
+        long epochDay = event.epochDay();
+        if (epochDay > targetEpochDay) {
+            return;
+        }
+        EventType type = event instanceof CancelEvent ? EventType.CANCEL : EventType.VEST;
+        state.ledger().add(epochDay, type, event.quantity());
+    }
+
+    @Override
+    public void accept(
+            EventType type,
+            EmployeeAwardKey key,
+            String employeeName,
+            long epochDay,
+            long unscaledQuantity,
+            int scale) {
+        AwardState state = stateOf(key, employeeName);
+        if (epochDay > targetEpochDay) {
+            return;
+        }
+        state.ledger().add(epochDay, type, unscaledQuantity, scale);
+    }
+
+    @Override
+    public void register(EmployeeAwardKey key, String employeeName) {
+        stateOf(key, employeeName);
+    }
+
+    // Every key is registered, even when all of its events are after the target date.
+    private AwardState stateOf(EmployeeAwardKey key, String employeeName) {
+        AwardState state = states.get(key);
+        if (state == null) {
+            state = new AwardState(precisionHandler.getPrecision());
+            states.put(key, state);
+        }
+        state.employeeName = employeeName;
+        return state;
+    }
+
+    // Takes over the keys of an accumulator built over a disjoint set of keys with
+    // the same target date and precision.
+    void absorb(VestingAccumulator other) {
+        states.putAll(other.states);
+    }
+
+    // Folds in an accumulator built over input that comes after this one's, with the
+    // same target date and precision. Per-day sums add up, so validation afterwards
+    // sees the combined history of each key; the later input's names win.
+    void merge(VestingAccumulator later) {
+        for (Map.Entry<EmployeeAwardKey, AwardState> entry : later.states.entrySet()) {
+            AwardState state = entry.getValue();
+            AwardState existing = states.putIfAbsent(entry.getKey(), state);
+            if (existing == null) {
+                continue;
+            }
+            existing.employeeName = state.employeeName;
+            if (state.ledger == null) {
+                continue;
+            }
+            if (existing.ledger == null) {
+                existing.ledger = state.ledger;
+            } else {
+                existing.ledger.addAll(state.ledger);
+            }
+        }
+    }
+
+    // Approximate heap bytes held by the per-key state: the map entry, key, name and
+    // state objects plus each ledger. Strings count two bytes per character, which
+    // overstates Latin-1 text. Walks every key, so callers should not ask per event.
+    long footprint() {
+        long bytes = 0;
+        for (Map.Entry<EmployeeAwardKey, AwardState> entry : states.entrySet()) {
+            EmployeeAwardKey key = entry.getKey();
+            AwardState state = entry.getValue();
+            bytes += KEY_OVERHEAD + 2L * (key.employeeId().length() + key.awardId().length()
+                    + state.employeeName.length());
+            if (state.ledger != null) {
+                bytes += state.ledger.footprint();
+            }
+        }
+        return bytes;
+    }
+
+    // Hands every key's state to the visitor in key order and then drops it, so the
+    // accumulator can go on with the rest of the input in the memory it held.
+    void drain(StateVisitor visitor) throws IOException {
+        EmployeeAwardKey[] keys = states.keySet().toArray(new EmployeeAwardKey[0]);
+        Arrays.sort(keys);
+        for (EmployeeAwardKey key : keys) {
+            AwardState state = states.get(key);
+            visitor.visit(key, state.employeeName, state.ledger);
+        }
+        states.clear();
+    }
+
+    // One key's state; the ledger is null when none of its events is on or before the
+    // target date.
+    interface StateVisitor {
+        void visit(EmployeeAwardKey key, String employeeName, DailyLedger ledger) throws IOException;
+    }
+
+    public int keyCount() {
+        return states.size();
+    }
+
+    public List<VestingSummary> summarize() {
+        List<VestingSummary> result = new ArrayList<>();
+        summarizeEach(List.of(LocalDate.ofEpochDay(targetEpochDay)), (asOf, summaries) -> result.addAll(summaries));
+        return result;
+    }
+
+    // Emits the summaries as of each date, in ascending date order, walking every
+    // key's ledger once overall. Dates must not be after the target date this
+    // accumulator was created with, since later events were not retained.
+    public void summarizeEach(List<LocalDate> asOfDates, BiConsumer<LocalDate, List<VestingSummary>> consumer) {
+        TreeMap<EmployeeAwardKey, AwardState> sorted = new TreeMap<>(states);
+        List<EmployeeAwardKey> keys = new ArrayList<>(sorted.keySet());
+        List<AwardState> keyStates = new ArrayList<>(sorted.values());
+        DailyLedger.Cursor[] cursors = new DailyLedger.Cursor[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            DailyLedger ledger = keyStates.get(i).ledger;
+            cursors[i] = ledger == null ? null : ledger.cursor(keys.get(i));
+        }
+
+        long previousDay = Long.MIN_VALUE;
+        for (LocalDate asOf : asOfDates) {
+            long asOfDay = asOf.toEpochDay();
+            if (asOfDay < previousDay || asOfDay > targetEpochDay) {
+                throw new IllegalArgumentException("As-of dates must be ascending and on or before "
+                        + LocalDate.ofEpochDay(targetEpochDay) + ", got: " + asOf);
+            }
+            previousDay = asOfDay;
+
+            List<VestingSummary> summaries = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                EmployeeAwardKey key = keys.get(i);
+                BigDecimal total = cursors[i] == null ? BigDecimal.ZERO : cursors[i].advanceTo(asOfDay);
+                summaries.add(new VestingSummary(key.employeeId(), keyStates.get(i).employeeName, key.awardId(),
+                        precisionHandler.truncate(total)));
+            }
+            consumer.accept(asOf, summaries);
+        }
+    }
+
+    // Visits every key in sorted order with its net total after each of its days, up
+    // to its first invalid cancellation if it has one. Totals are not truncated.
+    public void forEachHistory(Consumer<AwardHistory> visitor) {
+        for (Map.Entry<EmployeeAwardKey, AwardState> entry : new TreeMap<>(states).entrySet()) {
+            EmployeeAwardKey key = entry.getKey();
+            AwardState state = entry.getValue();
+            DailyLedger ledger = state.ledger;
+            int size = ledger == null ? 0 : ledger.size();
+            long[] days = new long[size];
+            BigDecimal[] totals = new BigDecimal[size];
+            int valid = 0;
+            String invalidCancellation = null;
+            if (ledger != null) {
+                DailyLedger.Cursor cursor = ledger.cursor(key);
+                try {
+                    for (; valid < size; valid++) {
+                        days[valid] = ledger.day(valid);
+                        totals[valid] = cursor.advanceTo(days[valid]);
+                    }
+                } catch (IllegalStateException e) {
+                    invalidCancellation = e.getMessage();
+                }
+            }
+            visitor.accept(new AwardHistory(key, state.employeeName,
+                    Arrays.copyOf(days, valid), Arrays.copyOf(totals, valid),
+                    invalidCancellation == null ? Long.MAX_VALUE : days[valid], invalidCancellation));
+        }
+    }
+
+    // Saves the full per-key state so a later run can continue folding events into
+    // it. Only meaningful for an accumulator that retains every date (LocalDate.MAX).
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(targetEpochDay);
+        out.writeInt(states.size());
+        for (Map.Entry<EmployeeAwardKey, AwardState> entry : states.entrySet()) {
+            StringCodec.write(out, entry.getKey().employeeId());
+            StringCodec.write(out, entry.getKey().awardId());
+            StringCodec.write(out, entry.getValue().employeeName);
+            DailyLedger ledger = entry.getValue().ledger;
+            out.writeBoolean(ledger != null);
+            if (ledger != null) {
+                ledger.writeTo(out);
+            }
+        }
+    }
+
+    static VestingAccumulator readFrom(DataInput in, PrecisionHandler precisionHandler) throws IOException {
+        VestingAccumulator accumulator =
+                new VestingAccumulator(LocalDate.ofEpochDay(in.readLong()), precisionHandler);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            EmployeeAwardKey key = new EmployeeAwardKey(StringCodec.read(in), StringCodec.read(in));
+            AwardState state = accumulator.stateOf(key, StringCodec.read(in));
+            if (in.readBoolean()) {
+                state.ledger = DailyLedger.readFrom(in, state.scale);
+            }
+        }
+        return accumulator;
+    }
+
+    private static final class AwardState {
+
+        private final int scale;
+        private String employeeName;
+        // Created on the first event on or before the target date.
+        private DailyLedger ledger;
+
+        private AwardState(int scale) {
+            this.scale = scale;
+        }
+
+        private DailyLedger ledger() {
+            if (ledger == null) {
+                ledger = new DailyLedger(scale);
+            }
+            return ledger;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package vesting.calculator;
 
 import vesting.model.VestingEvent;
 import vesting.model.VestingSummary;
+import vesting.parser.EventParser;
 import vesting.precision.PrecisionHandler;
 
 import java.time.LocalDate;
@@ -14,4 +15,14 @@ public interface VestingCalculator {
             LocalDate targetDate,
             PrecisionHandler precisionHandler
     );
+
+    // Engines that can fold events as they are parsed override this to avoid
+    // materializing the full event list.
+    default List<VestingSummary> calculate(
+            EventParser parser,
+            String filename,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+        return calculate(parser.parse(filename, precisionHandler), targetDate, precisionHandler);
+    }
 }
@@ -0,0 +1,18 @@
+package vesting.cli;
+
+import java.util.Locale;
+
+public enum CalculationEngine {
+    STANDARD,
+    STREAMING,
+    FUSED,
+    PIPELINED;
+
+    public static CalculationEngine fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown engine: '" + value + "'");
+        }
+    }
+}
@@ -1,39 +1,197 @@
 package vesting.cli;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
-public record CommandLineArgs(String filename, LocalDate targetDate, int precision) {
+public record CommandLineArgs(
+        String filename,
+        List<LocalDate> targetDates,
+        int precision,
+        CalculationEngine engine,
+        ParserMode parser,
+        ThreadKind pipelineThreads,
+        String indexOutput,
+        String convertOutput,
+        String checkpoint,
+        String output,
+        String stats,
+        long memoryBudget,
+        String lenient
+) {
+
+    private static final String USAGE =
+            "Usage: vesting_program [--engine=standard|streaming|fused|pipelined] [--parser=csv|mapped|bytes]"
+                    + " [--pipeline-threads=platform|virtual]"
+                    + " [--checkpoint=<file>] [--output=<file>] [--stats[=<file>]]"
+                    + " [--memory-budget=N[KB|MB|GB]] [--lenient[=<file>]] <filename> <target_date[,date...|from..to[/period]]> [precision]\n"
+                    + "       vesting_program [--parser=csv|mapped|bytes] --build-index=<index_file> <filename> [precision]\n"
+                    + "       vesting_program [--parser=csv|mapped|bytes] --convert=<event_log> <filename>";
 
     public CommandLineArgs {
         Objects.requireNonNull(filename, "Filename must not be null");
-        Objects.requireNonNull(targetDate, "Target date must not be null");
+        Objects.requireNonNull(targetDates, "Target dates must not be null");
+        if (targetDates.isEmpty() && indexOutput == null && convertOutput == null) {
+            throw new IllegalArgumentException("At least one target date is required");
+        }
+        targetDates = List.copyOf(targetDates);
+        Objects.requireNonNull(engine, "Engine must not be null");
+        Objects.requireNonNull(parser, "Parser must not be null");
+        Objects.requireNonNull(pipelineThreads, "Pipeline thread kind must not be null");
         if (precision < 0 || precision > 6) {
             throw new IllegalArgumentException(
                     "Precision must be between 0 and 6 (inclusive), got: " + precision);
         }
     }
 
+    public CommandLineArgs(String filename, LocalDate targetDate, int precision) {
+        this(filename, List.of(targetDate), precision, CalculationEngine.STANDARD, ParserMode.CSV, ThreadKind.PLATFORM,
+                null, null, null, null, null, 0, null);
+    }
+
+    // A budget of zero leaves memory unbounded.
+    public boolean boundsMemory() {
+        return memoryBudget > 0;
+    }
+
+    public boolean isLenient() {
+        return lenient != null;
+    }
+
+    public boolean reportsStats() {
+        return stats != null;
+    }
+
+    // The only target date of a single-date run, or the first of several.
+    public LocalDate targetDate() {
+        return targetDates.isEmpty() ? null : targetDates.get(0);
+    }
+
+    // The same arguments for another input, e.g. the one file in a directory.
+    public CommandLineArgs withFilename(String filename) {
+        return new CommandLineArgs(filename, targetDates, precision, engine, parser, pipelineThreads,
+                indexOutput, convertOutput, checkpoint, output, stats, memoryBudget, lenient);
+    }
+
+    public boolean buildsIndex() {
+        return indexOutput != null;
+    }
+
+    public boolean converts() {
+        return convertOutput != null;
+    }
+
     public static CommandLineArgs parse(String[] args) {
-        if (args.length < 2 || args.length > 3) {
-            throw new IllegalArgumentException(
-                    "Usage: vesting_program <filename> <target_date> [precision]");
+        List<String> positional = new ArrayList<>();
+        CalculationEngine engine = CalculationEngine.STANDARD;
+        ParserMode parser = null;
+        ThreadKind pipelineThreads = ThreadKind.PLATFORM;
+        String indexOutput = null;
+        String convertOutput = null;
+        String checkpoint = null;
+        String output = null;
+        String stats = null;
+        long memoryBudget = 0;
+        String lenient = null;
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? null : arg.substring(eq + 1);
+            switch (name) {
+                case "--engine" -> engine = CalculationEngine.fromString(requireValue(name, value));
+                case "--parser" -> parser = ParserMode.fromString(requireValue(name, value));
+                case "--pipeline-threads" -> pipelineThreads = ThreadKind.fromString(requireValue(name, value));
+                case "--build-index" -> indexOutput = requireValue(name, value);
+                case "--convert" -> convertOutput = requireValue(name, value);
+                case "--checkpoint" -> checkpoint = requireValue(name, value);
+                case "--output" -> output = requireValue(name, value);
+                // Without a file the report goes to standard error.
+                case "--stats" -> stats = value == null ? "-" : requireValue(name, value);
+                case "--memory-budget" -> memoryBudget = parseSize(name, value);
+                // Rejected lines are summarized on standard error unless a file is given.
+                case "--lenient" -> lenient = value == null ? "-" : requireValue(name, value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name + "\n" + USAGE);
+            }
+        }
+
+        // Incremental runs always read with the byte-level parser.
+        if (checkpoint != null && parser != null && parser != ParserMode.BYTES) {
+            throw new IllegalArgumentException("--parser=" + parser.name().toLowerCase(Locale.ROOT)
+                    + " cannot be combined with --checkpoint, which always uses the bytes parser");
+        }
+        if (parser == null) {
+            parser = ParserMode.CSV;
+        }
+        if (indexOutput != null && convertOutput != null) {
+            throw new IllegalArgumentException("--build-index and --convert cannot be combined\n" + USAGE);
+        }
+        if (convertOutput != null) {
+            // Conversion keeps every decimal, so it takes neither a target date nor a precision.
+            if (positional.size() != 1) {
+                throw new IllegalArgumentException(USAGE);
+            }
+            return new CommandLineArgs(positional.get(0), List.of(), 0, engine, parser, pipelineThreads,
+                    null, convertOutput, null, null, stats, 0, lenient);
+        }
+
+        if (indexOutput != null) {
+            // Building an index needs no target date: <filename> [precision].
+            if (positional.isEmpty() || positional.size() > 2) {
+                throw new IllegalArgumentException(USAGE);
+            }
+            int precision = positional.size() == 2 ? parsePrecision(positional.get(1)) : 0;
+            return new CommandLineArgs(positional.get(0), List.of(), precision, engine, parser, pipelineThreads,
+                    indexOutput, null, null, null, stats, 0, lenient);
         }
 
-        String filename = args[0];
-        LocalDate targetDate = parseDate(args[1]);
-        int precision = args.length == 3 ? parsePrecision(args[2]) : 0;
+        if (positional.size() < 2 || positional.size() > 3) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        String filename = positional.get(0);
+        List<LocalDate> targetDates = TargetDates.parse(positional.get(1));
+        int precision = positional.size() == 3 ? parsePrecision(positional.get(2)) : 0;
 
-        return new CommandLineArgs(filename, targetDate, precision);
+        return new CommandLineArgs(filename, targetDates, precision, engine, parser, pipelineThreads,
+                null, null, checkpoint, output, stats, memoryBudget, lenient);
+    }
+
+    private static String requireValue(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Option " + name + " requires a value, e.g. " + name + "=<value>");
+        }
+        return value;
     }
 
-    private static LocalDate parseDate(String dateStr) {
+    // Binary units: 1KB = 1024 bytes.
+    private static long parseSize(String name, String value) {
+        String text = requireValue(name, value).trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (text.endsWith("KB")) {
+            multiplier = 1L << 10;
+        } else if (text.endsWith("MB")) {
+            multiplier = 1L << 20;
+        } else if (text.endsWith("GB")) {
+            multiplier = 1L << 30;
+        }
+        if (multiplier > 1) {
+            text = text.substring(0, text.length() - 2);
+        }
         try {
-            return LocalDate.parse(dateStr);
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException(
-                    "Invalid date format: '" + dateStr + "'. Expected YYYY-MM-DD.", e);
+            double amount = Double.parseDouble(text);
+            if (!(amount > 0) || amount * multiplier > Long.MAX_VALUE) {
+                throw new IllegalArgumentException("Value out of range for " + name + ": " + value);
+            }
+            return (long) (amount * multiplier);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": '" + value + "'", e);
         }
     }
 
@@ -0,0 +1,145 @@
+package vesting.cli;
+
+import vesting.generator.GeneratorConfig;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+public record GeneratorArgs(String output, GeneratorConfig config, int threads) {
+
+    private static final String USAGE =
+            "Usage: generate_events (--rows=N | --size=N[KB|MB|GB]) [--employees=N] [--awards-per-employee=N]"
+                    + " [--zipf=S] [--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--cancel-ratio=R] [--decimals=D]"
+                    + " [--invalid-ratio=R] [--allow-invalid-cancellations] [--seed=N] [--threads=N] <output_file>";
+
+    public GeneratorArgs {
+        Objects.requireNonNull(output, "Output must not be null");
+        Objects.requireNonNull(config, "Config must not be null");
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1, got: " + threads);
+        }
+    }
+
+    public static GeneratorArgs parse(String[] args) {
+        List<String> positional = new ArrayList<>();
+        long rows = 0;
+        long size = 0;
+        int employees = 10_000;
+        int awardsPerEmployee = 3;
+        double zipf = 1.0;
+        LocalDate from = LocalDate.of(2020, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        double cancelRatio = 0.1;
+        int decimals = 2;
+        double invalidRatio = 0;
+        boolean allowInvalidCancellations = false;
+        long seed = 42;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? null : arg.substring(eq + 1);
+            switch (name) {
+                case "--rows" -> rows = parseLong(name, value);
+                case "--size" -> size = parseSize(name, value);
+                case "--employees" -> employees = parseInt(name, value);
+                case "--awards-per-employee" -> awardsPerEmployee = parseInt(name, value);
+                case "--zipf" -> zipf = parseDouble(name, value);
+                case "--from" -> from = parseDate(name, value);
+                case "--to" -> to = parseDate(name, value);
+                case "--cancel-ratio" -> cancelRatio = parseDouble(name, value);
+                case "--decimals" -> decimals = parseInt(name, value);
+                case "--invalid-ratio" -> invalidRatio = parseDouble(name, value);
+                case "--allow-invalid-cancellations" -> allowInvalidCancellations = true;
+                case "--seed" -> seed = parseLong(name, value);
+                case "--threads" -> threads = parseInt(name, value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name + "\n" + USAGE);
+            }
+        }
+
+        if (positional.size() != 1) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        if ((rows > 0) == (size > 0)) {
+            throw new IllegalArgumentException("Exactly one of --rows and --size is required\n" + USAGE);
+        }
+
+        GeneratorConfig config = new GeneratorConfig(rows, size, employees, awardsPerEmployee, zipf, from, to,
+                cancelRatio, decimals, invalidRatio, allowInvalidCancellations, seed);
+        return new GeneratorArgs(positional.get(0), config, threads);
+    }
+
+    private static String requireValue(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Option " + name + " requires a value, e.g. " + name + "=<value>");
+        }
+        return value;
+    }
+
+    private static long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(requireValue(name, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": '" + value + "'", e);
+        }
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(requireValue(name, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": '" + value + "'", e);
+        }
+    }
+
+    private static double parseDouble(String name, String value) {
+        try {
+            return Double.parseDouble(requireValue(name, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": '" + value + "'", e);
+        }
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        try {
+            return LocalDate.parse(requireValue(name, value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(
+                    "Invalid date format for " + name + ": '" + value + "'. Expected YYYY-MM-DD.", e);
+        }
+    }
+
+    // Binary units: 1KB = 1024 bytes.
+    private static long parseSize(String name, String value) {
+        String text = requireValue(name, value).trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (text.endsWith("KB")) {
+            multiplier = 1L << 10;
+        } else if (text.endsWith("MB")) {
+            multiplier = 1L << 20;
+        } else if (text.endsWith("GB")) {
+            multiplier = 1L << 30;
+        }
+        if (multiplier > 1) {
+            text = text.substring(0, text.length() - 2);
+        }
+        try {
+            double amount = Double.parseDouble(text);
+            if (!(amount > 0) || amount * multiplier > Long.MAX_VALUE) {
+                throw new IllegalArgumentException("Value out of range for " + name + ": " + value);
+            }
+            return (long) (amount * multiplier);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": '" + value + "'", e);
+        }
+    }
+}
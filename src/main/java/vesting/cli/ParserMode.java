@@ -0,0 +1,17 @@
+package vesting.cli;
+
+import java.util.Locale;
+
+public enum ParserMode {
+    CSV,
+    MAPPED,
+    BYTES;
+
+    public static ParserMode fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown parser: '" + value + "'");
+        }
+    }
+}
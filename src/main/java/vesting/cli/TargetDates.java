@@ -0,0 +1,89 @@
+package vesting.cli;
+
+import vesting.parser.IsoDateParser;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.TreeSet;
+
+// Parses the target date argument: a single date, a comma-separated list, and/or
+// ranges written FROM..TO with an optional ISO-8601 step (FROM..TO/P1M, default
+// P1D). A month-based range that starts on a month-end stays on month-ends, so
+// 2020-01-31..2020-04-30/P1M yields Jan 31, Feb 29, Mar 31 and Apr 30.
+final class TargetDates {
+
+    private static final int MAX_DATES = 100_000;
+
+    private TargetDates() {
+    }
+
+    static List<LocalDate> parse(String spec) {
+        TreeSet<LocalDate> dates = new TreeSet<>();
+        for (String part : spec.split(",", -1)) {
+            String item = part.trim();
+            int rangeAt = item.indexOf("..");
+            if (rangeAt < 0) {
+                dates.add(parseDate(item));
+            } else {
+                addRange(dates, item, rangeAt);
+            }
+        }
+        return List.copyOf(dates);
+    }
+
+    private static void addRange(TreeSet<LocalDate> dates, String item, int rangeAt) {
+        String rest = item.substring(rangeAt + 2);
+        int stepAt = rest.indexOf('/');
+        LocalDate from = parseDate(item.substring(0, rangeAt));
+        LocalDate to = parseDate(stepAt < 0 ? rest : rest.substring(0, stepAt));
+        Period step = stepAt < 0 ? Period.ofDays(1) : parseStep(rest.substring(stepAt + 1));
+
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid date range '" + item + "': end is before start.");
+        }
+        if (!from.plus(step).isAfter(from)) {
+            throw new IllegalArgumentException("Invalid date range '" + item + "': step must be positive.");
+        }
+
+        boolean monthEnds = step.getDays() == 0 && from.getDayOfMonth() == from.lengthOfMonth();
+        for (int i = 0; ; i++) {
+            LocalDate date = from.plus(step.multipliedBy(i));
+            if (monthEnds) {
+                date = date.withDayOfMonth(date.lengthOfMonth());
+            }
+            if (date.isAfter(to)) {
+                break;
+            }
+            if (dates.add(date) && dates.size() > MAX_DATES) {
+                throw new IllegalArgumentException(
+                        "Too many target dates (more than " + MAX_DATES + ") in '" + item + "'.");
+            }
+        }
+    }
+
+    // Plain dates skip LocalDate.parse, whose formatter takes a noticeable share of a
+    // short run's startup.
+    private static LocalDate parseDate(String dateStr) {
+        long epochDay = IsoDateParser.parseEpochDay(dateStr.trim());
+        if (epochDay != IsoDateParser.NOT_PARSED) {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+        try {
+            return LocalDate.parse(dateStr.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(
+                    "Invalid date format: '" + dateStr + "'. Expected YYYY-MM-DD.", e);
+        }
+    }
+
+    private static Period parseStep(String stepStr) {
+        try {
+            return Period.parse(stepStr.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(
+                    "Invalid date range step: '" + stepStr + "'. Expected an ISO-8601 period such as P1M.", e);
+        }
+    }
+}
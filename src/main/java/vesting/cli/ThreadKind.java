@@ -0,0 +1,16 @@
+package vesting.cli;
+
+import java.util.Locale;
+
+public enum ThreadKind {
+    PLATFORM,
+    VIRTUAL;
+
+    public static ThreadKind fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown thread kind: '" + value + "'");
+        }
+    }
+}
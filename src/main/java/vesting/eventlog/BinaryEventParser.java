@@ -0,0 +1,213 @@
+package vesting.eventlog;
+
+import vesting.model.CancelEvent;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.KeyInterner;
+import vesting.model.VestEvent;
+import vesting.parser.EventParser;
+import vesting.parser.EventSink;
+import vesting.precision.PrecisionHandler;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads an event log (see EventLog) in large sequential blocks and delivers its
+// events in file order through the primitive EventSink form, truncating each
+// quantity from the stored scale to the requested precision. The events are the
+// same as parsing the original CSV at that precision.
+public final class BinaryEventParser implements EventParser {
+
+    private static final int BLOCK_SIZE = 1 << 20;
+    // Longest encoding of a flags byte, key id, date and quantity.
+    private static final int MAX_FIXED = 1 + 5 + 10 + 10;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, EventSink sink) {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            new Reader(channel, filename).read(precisionHandler, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file: " + filename, e);
+        }
+    }
+
+    private static final class Reader {
+
+        private final FileChannel channel;
+        private final String filename;
+        private byte[] block = new byte[BLOCK_SIZE];
+        private int position;
+        private int limit;
+        private boolean eof;
+
+        Reader(FileChannel channel, String filename) {
+            this.channel = channel;
+            this.filename = filename;
+        }
+
+        void read(PrecisionHandler precisionHandler, EventSink sink) throws IOException {
+            require(7);
+            int magic = (block[0] & 0xFF) << 24 | (block[1] & 0xFF) << 16 | (block[2] & 0xFF) << 8 | (block[3] & 0xFF);
+            if (magic != EventLog.MAGIC) {
+                throw new IllegalArgumentException("Not an event log file: " + filename);
+            }
+            int version = (block[4] & 0xFF) << 8 | (block[5] & 0xFF);
+            if (version != EventLog.VERSION) {
+                throw new IllegalArgumentException("Unsupported event log version " + version + " in " + filename);
+            }
+            int scale = block[6];
+            position = 7;
+            int precision = precisionHandler.getPrecision();
+            if (scale < precision || scale > EventLog.SCALE) {
+                throw new IllegalArgumentException("Unsupported event log scale " + scale + " in " + filename);
+            }
+            long divisor = POWERS_OF_TEN[scale - precision];
+
+            KeyInterner interner = new KeyInterner();
+            EmployeeAwardKey[] keys = new EmployeeAwardKey[1024];
+            String[] names = new String[1024];
+            int keyCount = 0;
+            long events = 0;
+
+            while (true) {
+                if (limit - position < MAX_FIXED) {
+                    fill();
+                }
+                if (position == limit) {
+                    throw truncated();
+                }
+                int flags = block[position++] & 0xFF;
+                if (flags == EventLog.END) {
+                    if (limit - position < 10) {
+                        fill();
+                    }
+                    if (readVarint() != events) {
+                        throw corrupt();
+                    }
+                    return;
+                }
+
+                int id;
+                if ((flags & EventLog.NEW_KEY) != 0) {
+                    id = keyCount++;
+                    if (id == keys.length) {
+                        keys = Arrays.copyOf(keys, id * 2);
+                        names = Arrays.copyOf(names, id * 2);
+                    }
+                    String employeeId = readString();
+                    keys[id] = interner.key(employeeId, readString());
+                } else {
+                    id = (int) readVarint();
+                    if (id < 0 || id >= keyCount) {
+                        throw corrupt();
+                    }
+                }
+                if ((flags & EventLog.NAME) != 0) {
+                    names[id] = interner.name(readString());
+                } else if (names[id] == null) {
+                    throw corrupt();
+                }
+                if (limit - position < MAX_FIXED) {
+                    fill();
+                }
+                long zigzag = readVarint();
+                long epochDay = (zigzag >>> 1) ^ -(zigzag & 1);
+                EventType type = (flags & EventLog.CANCEL) != 0 ? EventType.CANCEL : EventType.VEST;
+
+                if ((flags & EventLog.BIG_QUANTITY) == 0) {
+                    sink.accept(type, keys[id], names[id], epochDay, readVarint() / divisor, precision);
+                } else {
+                    BigDecimal quantity = precisionHandler.truncate(new BigDecimal(new BigInteger(readBytes()), scale));
+                    sink.accept(switch (type) {
+                        case VEST -> new VestEvent(keys[id], names[id], epochDay, quantity);
+                        case CANCEL -> new CancelEvent(keys[id], names[id], epochDay, quantity);
+                    });
+                }
+                events++;
+            }
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                if (position == limit) {
+                    throw truncated();
+                }
+                byte b = block[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw corrupt();
+        }
+
+        private String readString() throws IOException {
+            byte[] bytes = readBytes();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes() throws IOException {
+            if (limit - position < 5) {
+                fill();
+            }
+            long length = readVarint();
+            if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                throw corrupt();
+            }
+            require((int) length);
+            byte[] bytes = Arrays.copyOfRange(block, position, position + (int) length);
+            position += (int) length;
+            return bytes;
+        }
+
+        // Makes at least `needed` unread bytes available or fails at the end of the file.
+        private void require(int needed) throws IOException {
+            while (limit - position < needed && !eof) {
+                if (block.length < needed) {
+                    block = Arrays.copyOf(block, Math.max(needed, block.length * 2));
+                }
+                fill();
+            }
+            if (limit - position < needed) {
+                throw truncated();
+            }
+        }
+
+        // Moves the unread bytes to the front of the block and reads more after them.
+        private void fill() throws IOException {
+            if (eof) {
+                return;
+            }
+            System.arraycopy(block, position, block, 0, limit - position);
+            limit -= position;
+            position = 0;
+            while (limit < block.length) {
+                int read = channel.read(ByteBuffer.wrap(block, limit, block.length - limit));
+                if (read < 0) {
+                    eof = true;
+                    return;
+                }
+                limit += read;
+            }
+        }
+
+        private UncheckedIOException truncated() {
+            return new UncheckedIOException("Truncated event log: " + filename, new EOFException());
+        }
+
+        private UncheckedIOException corrupt() {
+            return new UncheckedIOException("Corrupt event log: " + filename, new IOException());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package vesting.eventlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Compact binary form of an event file, written once by EventLogConverter and read
+// by BinaryEventParser much faster than the CSV it came from. Events keep their
+// file order. Each employee-award key is written in full only at its first event
+// and referred to by a dense id afterwards; a name is written only when it differs
+// from the previous name of the same key. Quantities are stored at the maximum
+// precision as unscaled longs, so one log serves every precision.
+//
+// File layout (varints are unsigned LEB128, strings are varint length + UTF-8):
+//   magic (int, big-endian), version (short), scale (byte), then per event:
+//   flags byte, [employee id, award id] if NEW_KEY else key id,
+//   [name] if NAME, zigzag epoch day,
+//   unscaled quantity (varint, or varint length + BigInteger bytes if BIG_QUANTITY);
+//   then an END byte and the event count, which the reader checks.
+public final class EventLog {
+
+    // 0x89 'V' 'E' 'L': the leading byte is not valid UTF-8, so no CSV input matches.
+    static final int MAGIC = 0x8956454C;
+    static final int VERSION = 1;
+    static final int SCALE = 6;
+
+    static final int CANCEL = 0x01;
+    static final int NEW_KEY = 0x02;
+    static final int NAME = 0x04;
+    static final int BIG_QUANTITY = 0x08;
+    static final int END = 0x80;
+
+    private EventLog() {
+    }
+
+    public static boolean isEventLog(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(4);
+            return header.length == 4
+                    && ((header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16
+                    | (header[2] & 0xFF) << 8 | (header[3] & 0xFF)) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package vesting.eventlog;
+
+import vesting.parser.EventParser;
+import vesting.parser.EventSink;
+import vesting.parser.PushdownSink;
+import vesting.precision.PrecisionHandler;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// Reads each file with BinaryEventParser when its header marks it as an event log
+// and with the given CSV parser otherwise, so inputs of several files may mix both.
+public final class EventLogAwareParser implements EventParser {
+
+    private final EventParser csvParser;
+    private final BinaryEventParser logParser = new BinaryEventParser();
+
+    public EventLogAwareParser(EventParser csvParser) {
+        this.csvParser = csvParser;
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, EventSink sink) {
+        parserFor(filename).parse(filename, precisionHandler, sink);
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, LocalDate targetDate, PushdownSink sink) {
+        parserFor(filename).parse(filename, precisionHandler, targetDate, sink);
+    }
+
+    private EventParser parserFor(String filename) {
+        return EventLog.isEventLog(Path.of(filename)) ? logParser : csvParser;
+    }
+}
@@ -0,0 +1,217 @@
+package vesting.eventlog;
+
+import vesting.model.CancelEvent;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.parser.EventParser;
+import vesting.parser.EventSink;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Parses an event file at the maximum precision and writes it as an event log (see
+// EventLog for the layout). Invalid lines fail the conversion with the parser's
+// usual message. The log is written to a temporary sibling and moved into place.
+public final class EventLogConverter {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final EventParser parser;
+
+    public EventLogConverter(EventParser parser) {
+        this.parser = parser;
+    }
+
+    // Returns the number of events written.
+    public long convert(String filename, Path logFile) {
+        Path absolute = logFile.toAbsolutePath();
+        try {
+            Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                long events;
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    Writer writer = new Writer(channel, logFile);
+                    parser.parse(filename, new PrecisionHandler(EventLog.SCALE), writer);
+                    events = writer.finish();
+                }
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+                return events;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write event log: " + logFile, e);
+        }
+    }
+
+    private static final class Writer implements EventSink {
+
+        private final FileChannel channel;
+        private final Path logFile;
+        private final Map<EmployeeAwardKey, Integer> ids = new HashMap<>();
+        private String[] names = new String[1024];
+        private byte[] bytes = new byte[BUFFER_SIZE];
+        private int position;
+        private long events;
+
+        Writer(FileChannel channel, Path logFile) {
+            this.channel = channel;
+            this.logFile = logFile;
+            ensure(7);
+            putInt(EventLog.MAGIC);
+            bytes[position++] = (byte) (EventLog.VERSION >>> 8);
+            bytes[position++] = (byte) EventLog.VERSION;
+            bytes[position++] = (byte) EventLog.SCALE;
+        }
+
+        @Override
+        public void accept(VestingEvent event) {
+            EventType type = event instanceof CancelEvent ? EventType.CANCEL : EventType.VEST;
+            BigInteger unscaled = event.quantity().setScale(EventLog.SCALE).unscaledValue();
+            write(type, event.key(), event.employeeName(), event.epochDay(), unscaled);
+        }
+
+        @Override
+        public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           long unscaledQuantity, int scale) {
+            if (scale == EventLog.SCALE) {
+                write(type, key, employeeName, epochDay, unscaledQuantity);
+            } else {
+                BigInteger unscaled = BigDecimal.valueOf(unscaledQuantity, scale)
+                        .setScale(EventLog.SCALE).unscaledValue();
+                write(type, key, employeeName, epochDay, unscaled);
+            }
+        }
+
+        // Quantities that are negative or do not fit in a long are stored as BigInteger bytes.
+        private void write(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           BigInteger unscaled) {
+            if (unscaled.signum() >= 0 && unscaled.bitLength() < Long.SIZE) {
+                write(type, key, employeeName, epochDay, unscaled.longValue());
+                return;
+            }
+            byte[] magnitude = unscaled.toByteArray();
+            putHeader(type, key, employeeName, epochDay, EventLog.BIG_QUANTITY);
+            putBytes(magnitude);
+            events++;
+        }
+
+        private void write(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           long unscaled) {
+            if (unscaled < 0) {
+                write(type, key, employeeName, epochDay, BigInteger.valueOf(unscaled));
+                return;
+            }
+            putHeader(type, key, employeeName, epochDay, 0);
+            ensure(10);
+            putVarint(unscaled);
+            events++;
+        }
+
+        // Everything of an event but its quantity.
+        private void putHeader(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                               int flags) {
+            flags |= type == EventType.CANCEL ? EventLog.CANCEL : 0;
+            Integer known = ids.get(key);
+            int id;
+            if (known == null) {
+                id = ids.size();
+                ids.put(key, id);
+                if (id == names.length) {
+                    names = Arrays.copyOf(names, id * 2);
+                }
+                flags |= EventLog.NEW_KEY;
+            } else {
+                id = known;
+            }
+            if (!employeeName.equals(names[id])) {
+                names[id] = employeeName;
+                flags |= EventLog.NAME;
+            }
+
+            ensure(1 + 5);
+            bytes[position++] = (byte) flags;
+            if ((flags & EventLog.NEW_KEY) != 0) {
+                putBytes(key.employeeId().getBytes(StandardCharsets.UTF_8));
+                putBytes(key.awardId().getBytes(StandardCharsets.UTF_8));
+            } else {
+                putVarint(id);
+            }
+            if ((flags & EventLog.NAME) != 0) {
+                putBytes(employeeName.getBytes(StandardCharsets.UTF_8));
+            }
+            ensure(10);
+            putVarint((epochDay << 1) ^ (epochDay >> 63));
+        }
+
+        long finish() throws IOException {
+            ensureOrThrow(1 + 10);
+            bytes[position++] = (byte) EventLog.END;
+            putVarint(events);
+            drain();
+            return events;
+        }
+
+        private void putBytes(byte[] value) {
+            ensure(5 + value.length);
+            putVarint(value.length);
+            System.arraycopy(value, 0, bytes, position, value.length);
+            position += value.length;
+        }
+
+        private void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        private void putInt(int value) {
+            bytes[position++] = (byte) (value >>> 24);
+            bytes[position++] = (byte) (value >>> 16);
+            bytes[position++] = (byte) (value >>> 8);
+            bytes[position++] = (byte) value;
+        }
+
+        private void ensure(int needed) {
+            try {
+                ensureOrThrow(needed);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write event log: " + logFile, e);
+            }
+        }
+
+        private void ensureOrThrow(int needed) throws IOException {
+            if (bytes.length - position >= needed) {
+                return;
+            }
+            drain();
+            if (bytes.length < needed) {
+                bytes = new byte[needed];
+            }
+        }
+
+        private void drain() throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, position);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package vesting.formatter;
+
+import vesting.model.VestingSummary;
+import vesting.precision.PrecisionHandler;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+// Writes the same bytes as CsvOutputFormatter, but encodes each row straight into
+// one reusable buffer and hands it to the channel in large writes: no joined String
+// per row and no PrintStream locking or per-line flushing. ASCII text is copied one
+// char per byte; anything else goes through the charset encoder, which replaces
+// unmappable characters as PrintStream does. Each call ends by writing out the
+// buffer; the channel is left open for the caller to close.
+public final class ChannelOutputFormatter implements OutputFormatter {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Encodes to the same bytes as ASCII in every ASCII-compatible charset.
+    private static final String ASCII_PROBE = "# AZaz09,.-\r\n";
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final boolean asciiCompatible;
+    private final String lineSeparator;
+    private final ByteBuffer buffer;
+
+    public ChannelOutputFormatter(WritableByteChannel channel, Charset charset) {
+        this(channel, charset, BUFFER_SIZE);
+    }
+
+    ChannelOutputFormatter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = Arrays.equals(ASCII_PROBE.getBytes(charset),
+                ASCII_PROBE.getBytes(StandardCharsets.US_ASCII));
+        this.lineSeparator = System.lineSeparator();
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 64));
+    }
+
+    // Standard output, bypassing System.out, in the charset System.out encodes with.
+    public static ChannelOutputFormatter toStandardOutput() {
+        return new ChannelOutputFormatter(Channels.newChannel(new FileOutputStream(FileDescriptor.out)),
+                standardOutputCharset());
+    }
+
+    // The charset System.out encodes with. Output written to a file uses it too, so
+    // a run writes the same bytes wherever its output goes.
+    public static Charset standardOutputCharset() {
+        String encoding = System.getProperty("stdout.encoding", System.getProperty("sun.stdout.encoding"));
+        return encoding != null && Charset.isSupported(encoding)
+                ? Charset.forName(encoding)
+                : Charset.defaultCharset();
+    }
+
+    @Override
+    public void format(List<VestingSummary> summaries, PrecisionHandler precisionHandler) {
+        for (VestingSummary summary : summaries) {
+            put(summary.employeeId());
+            put(",");
+            put(summary.employeeName());
+            put(",");
+            put(summary.awardId());
+            put(",");
+            put(precisionHandler.format(summary.totalSharesVested()));
+            put(lineSeparator);
+        }
+        flush();
+    }
+
+    @Override
+    public void formatBlock(LocalDate asOf, List<VestingSummary> summaries, PrecisionHandler precisionHandler) {
+        put("# As of ");
+        put(asOf.toString());
+        put(lineSeparator);
+        format(summaries, precisionHandler);
+    }
+
+    private void put(String text) {
+        int length = text.length();
+        if (asciiCompatible && buffer.remaining() >= length) {
+            int start = buffer.position();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    buffer.position(start);
+                    encode(text);
+                    return;
+                }
+                buffer.put((byte) c);
+            }
+            return;
+        }
+        encode(text);
+    }
+
+    // The encoder is never reset, so stateful charsets (a UTF-16 byte order mark)
+    // behave as in one continuous PrintStream.
+    private void encode(String text) {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (encoder.encode(chars, buffer, false).isOverflow()) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write output", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void flush() {
+        if (buffer.position() > 0) {
+            drain();
+        }
+    }
+}
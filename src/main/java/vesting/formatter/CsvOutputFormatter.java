@@ -4,6 +4,7 @@ import vesting.model.VestingSummary;
 import vesting.precision.PrecisionHandler;
 
 import java.io.PrintStream;
+import java.time.LocalDate;
 import java.util.List;
 
 public final class CsvOutputFormatter implements OutputFormatter {
@@ -29,4 +30,10 @@ public final class CsvOutputFormatter implements OutputFormatter {
             ));
         }
     }
+
+    @Override
+    public void formatBlock(LocalDate asOf, List<VestingSummary> summaries, PrecisionHandler precisionHandler) {
+        output.println("# As of " + asOf);
+        format(summaries, precisionHandler);
+    }
 }
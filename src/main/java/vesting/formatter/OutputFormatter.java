@@ -3,9 +3,18 @@ package vesting.formatter;
 import vesting.model.VestingSummary;
 import vesting.precision.PrecisionHandler;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface OutputFormatter {
 
     void format(List<VestingSummary> summaries, PrecisionHandler precisionHandler);
+
+    // One block of a multi-date run: a header naming the as-of date, then the rows.
+    // The header goes to standard output, where the program writes by default;
+    // formatters that write anywhere else override this.
+    default void formatBlock(LocalDate asOf, List<VestingSummary> summaries, PrecisionHandler precisionHandler) {
+        System.out.println("# As of " + asOf);
+        format(summaries, precisionHandler);
+    }
 }
@@ -0,0 +1,317 @@
+package vesting.generator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Writes synthetic event files in the format CsvLineParser accepts. Rows are built
+// in fixed-size blocks on a thread pool and written in block order. Each block
+// draws from its own random stream derived from the seed and the block number, so
+// the file is identical for a given configuration whatever the thread count.
+//
+// Unless invalid cancellations are allowed, every CANCEL row directly follows the
+// VEST it is paired with: same key, a date on or after it, and a quantity no larger.
+// Each vest is paired at most once, so cumulative cancellations can never exceed
+// cumulative vests on any date, even though rows are not in date order.
+public final class EventFileGenerator {
+
+    static final int BLOCK_ROWS = 1 << 16;
+
+    private static final int MAX_VEST_UNITS = 100_000;
+    private static final int MAX_CANCEL_DELAY_DAYS = 365;
+    private static final int MAX_CACHED_DATES = 1 << 20;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private final GeneratorConfig config;
+    private final int threads;
+    private final ZipfSampler keys;
+    private final int keyCount;
+    private final long keyStride;
+    private final long dayCount;
+    private final byte[][] dates;
+    // Probability that a vest is followed by its paired cancellation.
+    private final double pairProbability;
+
+    public record Result(long rows, long bytes) {
+    }
+
+    public EventFileGenerator(GeneratorConfig config, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1, got: " + threads);
+        }
+        this.config = config;
+        this.threads = threads;
+        this.keyCount = config.employees() * config.awardsPerEmployee();
+        this.keys = new ZipfSampler(keyCount, config.zipfExponent());
+        this.keyStride = coprimeStride(keyCount);
+        this.dayCount = config.to().toEpochDay() - config.from().toEpochDay() + 1;
+        this.dates = dayCount <= MAX_CACHED_DATES ? new byte[(int) dayCount][] : null;
+        if (dates != null) {
+            for (int i = 0; i < dates.length; i++) {
+                dates[i] = ascii(config.from().plusDays(i).toString());
+            }
+        }
+        this.pairProbability = config.allowInvalidCancellations() || config.cancelRatio() == 0
+                ? 0
+                : Math.min(1, config.cancelRatio() / (1 - config.cancelRatio()));
+    }
+
+    public Result generate(Path output) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ArrayDeque<Future<Block>> inFlight = new ArrayDeque<>();
+            long nextBlock = 0;
+            long rows = 0;
+            long bytes = 0;
+            boolean done = false;
+
+            while (!done) {
+                while (inFlight.size() < threads * 2 && hasBlock(nextBlock)) {
+                    long index = nextBlock++;
+                    inFlight.add(executor.submit(() -> generateBlock(index, blockRows(index))));
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                Block block = inFlight.poll().get();
+                int rowCount = block.rowEnds.length;
+                if (config.sizeBytes() > 0) {
+                    // Stop at the first row that reaches the requested size.
+                    for (int r = 0; r < block.rowEnds.length; r++) {
+                        if (bytes + block.rowEnds[r] >= config.sizeBytes()) {
+                            rowCount = r + 1;
+                            done = true;
+                            break;
+                        }
+                    }
+                }
+                int length = rowCount == 0 ? 0 : block.rowEnds[rowCount - 1];
+                ByteBuffer buffer = ByteBuffer.wrap(block.bytes, 0, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                rows += rowCount;
+                bytes += length;
+            }
+            inFlight.forEach(future -> future.cancel(true));
+            return new Result(rows, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write file: " + output, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + output, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to generate " + output + ": " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean hasBlock(long index) {
+        return config.sizeBytes() > 0 || index * BLOCK_ROWS < config.rows();
+    }
+
+    private int blockRows(long index) {
+        return config.sizeBytes() > 0 ? BLOCK_ROWS : (int) Math.min(BLOCK_ROWS, config.rows() - index * BLOCK_ROWS);
+    }
+
+    private record Block(byte[] bytes, int[] rowEnds) {
+    }
+
+    Block generateBlock(long index, int rowCount) {
+        SplittableRandom random = new SplittableRandom(config.seed() ^ (index + 1) * 0x9E3779B97F4A7C15L);
+        ByteBuilder out = new ByteBuilder(rowCount * 64);
+        int[] rowEnds = new int[rowCount];
+        long maxVest = MAX_VEST_UNITS * POWERS_OF_TEN[config.decimals()];
+
+        int row = 0;
+        while (row < rowCount) {
+            int key = key(random);
+            long day = random.nextLong(dayCount);
+
+            if (config.invalidRatio() > 0 && random.nextDouble() < config.invalidRatio()) {
+                appendInvalidRow(out, random, key, day);
+            } else if (config.allowInvalidCancellations()) {
+                boolean cancel = random.nextDouble() < config.cancelRatio();
+                appendRow(out, cancel ? "CANCEL" : "VEST", key, day, random.nextLong(1, maxVest + 1));
+            } else {
+                long vested = random.nextLong(1, maxVest + 1);
+                appendRow(out, "VEST", key, day, vested);
+                if (row + 1 < rowCount && random.nextDouble() < pairProbability) {
+                    rowEnds[row++] = out.length();
+                    long delay = random.nextLong(Math.min(MAX_CANCEL_DELAY_DAYS, dayCount - 1 - day) + 1);
+                    appendRow(out, "CANCEL", key, day + delay, random.nextLong(1, vested + 1));
+                }
+            }
+            rowEnds[row++] = out.length();
+        }
+        return new Block(out.bytes(), rowEnds);
+    }
+
+    // Maps a Zipf rank to a key through a fixed permutation, so the hottest keys are
+    // spread over the id space instead of being E0, E1, ...
+    private int key(SplittableRandom random) {
+        return (int) ((keys.sample(random) - 1) * keyStride % keyCount);
+    }
+
+    private void appendRow(ByteBuilder out, String type, int key, long day, long unscaled) {
+        int employee = key / config.awardsPerEmployee();
+        int award = key % config.awardsPerEmployee();
+        out.append(type).append(',');
+        out.append('E').append(employee).append(',');
+        out.append("Employee ").append(employee).append(',');
+        out.append('A').append(employee).append('-').append(award).append(',');
+        appendDate(out, day);
+        out.append(',');
+        appendQuantity(out, unscaled);
+        out.append('\n');
+    }
+
+    // One of several kinds of row CsvLineParser rejects.
+    private void appendInvalidRow(ByteBuilder out, SplittableRandom random, int key, long day) {
+        int employee = key / config.awardsPerEmployee();
+        switch (random.nextInt(5)) {
+            case 0 -> out.append("VEST,E").append(employee).append(",Employee ").append(employee).append('\n');
+            case 1 -> out.append("VEST,E").append(employee).append(",Employee ").append(employee)
+                    .append(",A").append(employee).append("-0,2020-13-45,100\n");
+            case 2 -> {
+                out.append("VEST,E").append(employee).append(",Employee ").append(employee)
+                        .append(",A").append(employee).append("-0,");
+                appendDate(out, day);
+                out.append(",12x.5\n");
+            }
+            case 3 -> {
+                out.append("GRANT,E").append(employee).append(",Employee ").append(employee)
+                        .append(",A").append(employee).append("-0,");
+                appendDate(out, day);
+                out.append(",100\n");
+            }
+            default -> {
+                out.append("CANCEL,E").append(employee).append(",Employee ").append(employee)
+                        .append(",A").append(employee).append("-0,");
+                appendDate(out, day);
+                out.append(",-5\n");
+            }
+        }
+    }
+
+    private void appendDate(ByteBuilder out, long day) {
+        if (dates != null) {
+            out.append(dates[(int) day]);
+        } else {
+            out.append(LocalDate.ofEpochDay(config.from().toEpochDay() + day).toString());
+        }
+    }
+
+    private void appendQuantity(ByteBuilder out, long unscaled) {
+        int decimals = config.decimals();
+        long scale = POWERS_OF_TEN[decimals];
+        out.append(unscaled / scale);
+        if (decimals > 0) {
+            long fraction = unscaled % scale;
+            out.append('.');
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+    }
+
+    private static long coprimeStride(int n) {
+        long stride = Math.max(1, (long) (n * 0.6180339887498949));
+        while (gcd(stride, n) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Minimal growable ASCII buffer; avoids a String per row.
+    private static final class ByteBuilder {
+
+        private byte[] bytes;
+        private int length;
+
+        private ByteBuilder(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        int length() {
+            return length;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        ByteBuilder append(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        ByteBuilder append(String s) {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                bytes[length++] = (byte) s.charAt(i);
+            }
+            return this;
+        }
+
+        ByteBuilder append(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, bytes, length, b.length);
+            length += b.length;
+            return this;
+        }
+
+        ByteBuilder append(long value) {
+            ensure(20);
+            if (value == 0) {
+                bytes[length++] = '0';
+                return this;
+            }
+            int start = length;
+            for (long v = value; v > 0; v /= 10) {
+                bytes[length++] = (byte) ('0' + v % 10);
+            }
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte t = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = t;
+            }
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
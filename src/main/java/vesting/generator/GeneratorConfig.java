@@ -0,0 +1,54 @@
+package vesting.generator;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+// What to generate. Exactly one of rows and sizeBytes is positive; the other is 0.
+public record GeneratorConfig(
+        long rows,
+        long sizeBytes,
+        int employees,
+        int awardsPerEmployee,
+        double zipfExponent,
+        LocalDate from,
+        LocalDate to,
+        double cancelRatio,
+        int decimals,
+        double invalidRatio,
+        boolean allowInvalidCancellations,
+        long seed
+) {
+
+    public GeneratorConfig {
+        Objects.requireNonNull(from, "From date must not be null");
+        Objects.requireNonNull(to, "To date must not be null");
+        if ((rows > 0) == (sizeBytes > 0) || rows < 0 || sizeBytes < 0) {
+            throw new IllegalArgumentException("Exactly one of rows and size must be given");
+        }
+        if (employees < 1 || awardsPerEmployee < 1) {
+            throw new IllegalArgumentException("Employees and awards per employee must be at least 1");
+        }
+        if ((long) employees * awardsPerEmployee > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many employee-award keys: " + (long) employees * awardsPerEmployee);
+        }
+        if (zipfExponent < 0 || Double.isNaN(zipfExponent)) {
+            throw new IllegalArgumentException("Zipf exponent must be non-negative, got: " + zipfExponent);
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Date range end " + to + " is before its start " + from);
+        }
+        // Every valid cancellation is paired with its own earlier vest, so at most half the rows can cancel.
+        double maxCancelRatio = allowInvalidCancellations ? 1 : 0.5;
+        if (!(cancelRatio >= 0 && cancelRatio <= maxCancelRatio)) {
+            throw new IllegalArgumentException("Cancel ratio must be between 0 and " + maxCancelRatio
+                    + (allowInvalidCancellations ? "" : " unless invalid cancellations are allowed")
+                    + ", got: " + cancelRatio);
+        }
+        if (decimals < 0 || decimals > 6) {
+            throw new IllegalArgumentException("Decimals must be between 0 and 6 (inclusive), got: " + decimals);
+        }
+        if (!(invalidRatio >= 0 && invalidRatio <= 1)) {
+            throw new IllegalArgumentException("Invalid-row ratio must be between 0 and 1, got: " + invalidRatio);
+        }
+    }
+}
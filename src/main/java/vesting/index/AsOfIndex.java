@@ -0,0 +1,222 @@
+package vesting.index;
+
+import vesting.calculator.AwardHistory;
+import vesting.calculator.VestingAccumulator;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.VestingSummary;
+import vesting.precision.PrecisionHandler;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A prebuilt, immutable answer table for one event file at one precision. For each
+// key (in output order) it holds the net vested total, already truncated, after
+// every day that has events, plus the day and message of the key's first invalid
+// cancellation. An as-of query is then one binary search per key instead of a
+// parse and recalculation of the whole file.
+//
+// File layout (big-endian, strings in modified UTF-8):
+//   magic, version, precision, key count, then per key:
+//   employee id, award id, employee name, day count, long-totals flag,
+//   day count x (epoch day, unscaled total as long or length-prefixed BigInteger),
+//   invalid flag [, invalid epoch day, message]
+public final class AsOfIndex {
+
+    // 0x89 'V' 'I' 'X': the leading byte is not valid UTF-8, so no CSV input matches.
+    static final int MAGIC = 0x89564958;
+    static final int VERSION = 1;
+
+    private static final long NEVER_INVALID = Long.MAX_VALUE;
+
+    private final int precision;
+    private final EmployeeAwardKey[] keys;
+    private final String[] names;
+    // Key i's days are days[offsets[i]] .. days[offsets[i + 1] - 1].
+    private final int[] offsets;
+    private final long[] days;
+    private final long[] totals;
+    // Only allocated when some total does not fit in a long.
+    private final BigInteger[] exactTotals;
+    private final long[] invalidDays;
+    private final String[] invalidMessages;
+
+    private AsOfIndex(int precision, EmployeeAwardKey[] keys, String[] names, int[] offsets, long[] days,
+                      long[] totals, BigInteger[] exactTotals, long[] invalidDays, String[] invalidMessages) {
+        this.precision = precision;
+        this.keys = keys;
+        this.names = names;
+        this.offsets = offsets;
+        this.days = days;
+        this.totals = totals;
+        this.exactTotals = exactTotals;
+        this.invalidDays = invalidDays;
+        this.invalidMessages = invalidMessages;
+    }
+
+    public static boolean isIndex(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(4);
+            return header.length == 4
+                    && ((header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16
+                    | (header[2] & 0xFF) << 8 | (header[3] & 0xFF)) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static AsOfIndex load(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an as-of index file: " + file);
+            }
+            int version = in.readUnsignedShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported index version " + version + " in " + file);
+            }
+            return read(in);
+        } catch (EOFException e) {
+            throw new UncheckedIOException("Truncated index file: " + file, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read index: " + file, e);
+        }
+    }
+
+    private static AsOfIndex read(DataInputStream in) throws IOException {
+        int precision = in.readUnsignedByte();
+        int keyCount = in.readInt();
+        EmployeeAwardKey[] keys = new EmployeeAwardKey[keyCount];
+        String[] names = new String[keyCount];
+        int[] offsets = new int[keyCount + 1];
+        long[] invalidDays = new long[keyCount];
+        String[] invalidMessages = new String[keyCount];
+        long[] days = new long[Math.max(16, keyCount)];
+        long[] totals = new long[days.length];
+        BigInteger[] exactTotals = null;
+
+        int dayCount = 0;
+        for (int k = 0; k < keyCount; k++) {
+            keys[k] = new EmployeeAwardKey(in.readUTF(), in.readUTF());
+            names[k] = in.readUTF();
+            int count = in.readInt();
+            boolean fitsLong = in.readBoolean();
+            if (dayCount + count > days.length) {
+                int capacity = Math.max(days.length * 2, dayCount + count);
+                days = Arrays.copyOf(days, capacity);
+                totals = Arrays.copyOf(totals, capacity);
+                if (exactTotals != null) {
+                    exactTotals = Arrays.copyOf(exactTotals, capacity);
+                }
+            }
+            if (!fitsLong && exactTotals == null) {
+                exactTotals = new BigInteger[days.length];
+            }
+            for (int i = 0; i < count; i++, dayCount++) {
+                days[dayCount] = in.readLong();
+                if (fitsLong) {
+                    totals[dayCount] = in.readLong();
+                } else {
+                    byte[] bytes = new byte[in.readUnsignedShort()];
+                    in.readFully(bytes);
+                    exactTotals[dayCount] = new BigInteger(bytes);
+                }
+            }
+            offsets[k + 1] = dayCount;
+            if (in.readBoolean()) {
+                invalidDays[k] = in.readLong();
+                invalidMessages[k] = in.readUTF();
+            } else {
+                invalidDays[k] = NEVER_INVALID;
+            }
+        }
+        return new AsOfIndex(precision, keys, names, offsets, days, totals, exactTotals,
+                invalidDays, invalidMessages);
+    }
+
+    // The index of an accumulator that retains every date (LocalDate.MAX), built in
+    // memory rather than read back from a file.
+    public static AsOfIndex of(VestingAccumulator accumulator, PrecisionHandler precisionHandler) {
+        int keyCount = accumulator.keyCount();
+        EmployeeAwardKey[] keys = new EmployeeAwardKey[keyCount];
+        String[] names = new String[keyCount];
+        int[] offsets = new int[keyCount + 1];
+        long[] invalidDays = new long[keyCount];
+        String[] invalidMessages = new String[keyCount];
+        List<AwardHistory> histories = new ArrayList<>(keyCount);
+        accumulator.forEachHistory(histories::add);
+
+        int dayCount = 0;
+        for (AwardHistory history : histories) {
+            dayCount += history.epochDays().length;
+        }
+        long[] days = new long[dayCount];
+        long[] totals = new long[dayCount];
+        BigInteger[] exactTotals = null;
+
+        int day = 0;
+        for (int k = 0; k < keyCount; k++) {
+            AwardHistory history = histories.get(k);
+            keys[k] = history.key();
+            names[k] = history.employeeName();
+            for (int i = 0; i < history.epochDays().length; i++, day++) {
+                days[day] = history.epochDays()[i];
+                BigInteger unscaled = precisionHandler.truncate(history.totals()[i]).unscaledValue();
+                if (unscaled.bitLength() < Long.SIZE) {
+                    totals[day] = unscaled.longValue();
+                } else {
+                    if (exactTotals == null) {
+                        exactTotals = new BigInteger[dayCount];
+                    }
+                    exactTotals[day] = unscaled;
+                }
+            }
+            offsets[k + 1] = day;
+            invalidDays[k] = history.invalidCancellation() != null ? history.invalidEpochDay() : NEVER_INVALID;
+            invalidMessages[k] = history.invalidCancellation();
+        }
+        return new AsOfIndex(precisionHandler.getPrecision(), keys, names, offsets, days, totals, exactTotals,
+                invalidDays, invalidMessages);
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    // Same summaries, in the same order, as recalculating the source file for
+    // asOf at the index precision. Like the streaming engines, the first key in
+    // output order with an invalid cancellation on or before asOf is reported.
+    public List<VestingSummary> summarize(LocalDate asOf) {
+        long asOfDay = asOf.toEpochDay();
+        List<VestingSummary> summaries = new ArrayList<>(keys.length);
+        for (int k = 0; k < keys.length; k++) {
+            if (invalidDays[k] <= asOfDay) {
+                throw new IllegalStateException(invalidMessages[k]);
+            }
+            summaries.add(new VestingSummary(keys[k].employeeId(), names[k], keys[k].awardId(), totalAsOf(k, asOfDay)));
+        }
+        return summaries;
+    }
+
+    private BigDecimal totalAsOf(int key, long asOfDay) {
+        int found = Arrays.binarySearch(days, offsets[key], offsets[key + 1], asOfDay);
+        int index = found >= 0 ? found : -found - 2;
+        if (index < offsets[key]) {
+            return BigDecimal.valueOf(0, precision);
+        }
+        if (exactTotals != null && exactTotals[index] != null) {
+            return new BigDecimal(exactTotals[index], precision);
+        }
+        return BigDecimal.valueOf(totals[index], precision);
+    }
+}
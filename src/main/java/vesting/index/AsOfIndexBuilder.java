@@ -0,0 +1,106 @@
+package vesting.index;
+
+import vesting.calculator.AwardHistory;
+import vesting.calculator.VestingAccumulator;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+// Parses an event file once and writes its as-of index (see AsOfIndex for the
+// layout). The index is written to a temporary sibling and moved into place, so a
+// reader never sees a partially written file.
+public final class AsOfIndexBuilder {
+
+    private final EventParser parser;
+
+    public AsOfIndexBuilder(EventParser parser) {
+        this.parser = parser;
+    }
+
+    public void build(String filename, PrecisionHandler precisionHandler, Path indexFile) {
+        VestingAccumulator accumulator = new VestingAccumulator(LocalDate.MAX, precisionHandler);
+        parser.parse(filename, precisionHandler, accumulator);
+
+        Path absolute = indexFile.toAbsolutePath();
+        try {
+            Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                    write(out, accumulator, precisionHandler);
+                }
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write index: " + indexFile, e);
+        }
+    }
+
+    private static void write(DataOutputStream out, VestingAccumulator accumulator,
+                              PrecisionHandler precisionHandler) throws IOException {
+        out.writeInt(AsOfIndex.MAGIC);
+        out.writeShort(AsOfIndex.VERSION);
+        out.writeByte(precisionHandler.getPrecision());
+
+        out.writeInt(accumulator.keyCount());
+        try {
+            accumulator.forEachHistory(history -> {
+                try {
+                    writeKey(out, history, precisionHandler);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeKey(DataOutputStream out, AwardHistory history,
+                                 PrecisionHandler precisionHandler) throws IOException {
+        out.writeUTF(history.key().employeeId());
+        out.writeUTF(history.key().awardId());
+        out.writeUTF(history.employeeName());
+
+        long[] days = history.epochDays();
+        BigInteger[] unscaled = new BigInteger[days.length];
+        boolean fitsLong = true;
+        for (int i = 0; i < days.length; i++) {
+            BigDecimal total = precisionHandler.truncate(history.totals()[i]);
+            unscaled[i] = total.unscaledValue();
+            fitsLong &= unscaled[i].bitLength() < Long.SIZE;
+        }
+
+        out.writeInt(days.length);
+        out.writeBoolean(fitsLong);
+        for (int i = 0; i < days.length; i++) {
+            out.writeLong(days[i]);
+            if (fitsLong) {
+                out.writeLong(unscaled[i].longValue());
+            } else {
+                byte[] bytes = unscaled[i].toByteArray();
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        boolean invalid = history.invalidCancellation() != null;
+        out.writeBoolean(invalid);
+        if (invalid) {
+            out.writeLong(history.invalidEpochDay());
+            out.writeUTF(history.invalidCancellation());
+        }
+    }
+}
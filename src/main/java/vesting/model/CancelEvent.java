@@ -4,22 +4,45 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Objects;
 
+// Holds its EmployeeAwardKey rather than the two id Strings, so events parsed with
+// a KeyInterner share one key object per employee-award pair, and its date as an
+// epoch day, so filtering and ordering by date compare primitives.
 public record CancelEvent(
-        String employeeId,
+        EmployeeAwardKey key,
         String employeeName,
-        String awardId,
-        LocalDate date,
+        long epochDay,
         BigDecimal quantity
 ) implements VestingEvent {
 
     public CancelEvent {
-        Objects.requireNonNull(employeeId, "Employee ID must not be null");
+        Objects.requireNonNull(key, "Key must not be null");
         Objects.requireNonNull(employeeName, "Employee name must not be null");
-        Objects.requireNonNull(awardId, "Award ID must not be null");
-        Objects.requireNonNull(date, "Date must not be null");
         Objects.requireNonNull(quantity, "Quantity must not be null");
         if (quantity.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("CANCEL quantity must be non-negative, got: " + quantity);
         }
     }
+
+    public CancelEvent(EmployeeAwardKey key, String employeeName, LocalDate date, BigDecimal quantity) {
+        this(key, employeeName, Objects.requireNonNull(date, "Date must not be null").toEpochDay(), quantity);
+    }
+
+    public CancelEvent(String employeeId, String employeeName, String awardId, LocalDate date, BigDecimal quantity) {
+        this(new EmployeeAwardKey(employeeId, awardId), employeeName, date, quantity);
+    }
+
+    @Override
+    public LocalDate date() {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    @Override
+    public String employeeId() {
+        return key.employeeId();
+    }
+
+    @Override
+    public String awardId() {
+        return key.awardId();
+    }
 }
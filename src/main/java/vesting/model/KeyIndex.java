@@ -0,0 +1,97 @@
+package vesting.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dense int ids, in first-seen order, for the distinct keys of an event list, and
+// the id of every event. Grouping, name tracking and summing can then index plain
+// arrays instead of hashing a key per event per pass.
+public final class KeyIndex {
+
+    private final List<EmployeeAwardKey> keys;
+    private final int[] eventIds;
+
+    private KeyIndex(List<EmployeeAwardKey> keys, int[] eventIds) {
+        this.keys = keys;
+        this.eventIds = eventIds;
+    }
+
+    public static KeyIndex of(List<? extends VestingEvent> events) {
+        return of(events, List.of());
+    }
+
+    // Keys in otherKeys that no event has get ids after those of the events.
+    public static KeyIndex of(List<? extends VestingEvent> events, Collection<EmployeeAwardKey> otherKeys) {
+        Map<EmployeeAwardKey, Integer> ids = new HashMap<>();
+        List<EmployeeAwardKey> keys = new ArrayList<>();
+        int[] eventIds = new int[events.size()];
+        int i = 0;
+        for (VestingEvent event : events) {
+            EmployeeAwardKey key = event.key();
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = keys.size();
+                ids.put(key, id);
+                keys.add(key);
+            }
+            eventIds[i++] = id;
+        }
+        for (EmployeeAwardKey key : otherKeys) {
+            if (!ids.containsKey(key)) {
+                ids.put(key, keys.size());
+                keys.add(key);
+            }
+        }
+        return new KeyIndex(keys, eventIds);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public EmployeeAwardKey key(int id) {
+        return keys.get(id);
+    }
+
+    // Id of the event at this position of the indexed list.
+    public int id(int eventIndex) {
+        return eventIds[eventIndex];
+    }
+
+    // Ids ordered by key (employee ID, then award ID).
+    public int[] idsInKeyOrder() {
+        Integer[] order = new Integer[keys.size()];
+        Arrays.setAll(order, id -> id);
+        Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+        int[] ids = new int[order.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = order[i];
+        }
+        return ids;
+    }
+
+    // Event positions grouped by id, in list order within each id: the events of
+    // id k are at positions[offsets[k]] .. positions[offsets[k + 1] - 1].
+    public record Groups(int[] offsets, int[] positions) {
+    }
+
+    public Groups groups() {
+        int[] offsets = new int[keys.size() + 1];
+        for (int id : eventIds) {
+            offsets[id + 1]++;
+        }
+        for (int k = 0; k < keys.size(); k++) {
+            offsets[k + 1] += offsets[k];
+        }
+        int[] next = Arrays.copyOf(offsets, keys.size());
+        int[] positions = new int[eventIds.length];
+        for (int i = 0; i < eventIds.length; i++) {
+            positions[next[eventIds[i]]++] = i;
+        }
+        return new Groups(offsets, positions);
+    }
+}
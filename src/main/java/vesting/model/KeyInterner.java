@@ -0,0 +1,31 @@
+package vesting.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Canonical instances for the identifiers of one parse. Each employee-award pair
+// maps to a single EmployeeAwardKey and each distinct name to a single String, so
+// the events of a large file hold references to a few hundred thousand objects
+// rather than three fresh Strings per row. Safe for concurrent use by parser threads.
+public final class KeyInterner {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, EmployeeAwardKey>> keys =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<>();
+
+    public EmployeeAwardKey key(String employeeId, String awardId) {
+        ConcurrentHashMap<String, EmployeeAwardKey> awards = keys.get(employeeId);
+        if (awards == null) {
+            awards = keys.computeIfAbsent(employeeId, id -> new ConcurrentHashMap<>());
+        }
+        EmployeeAwardKey key = awards.get(awardId);
+        if (key == null) {
+            key = awards.computeIfAbsent(awardId, id -> new EmployeeAwardKey(employeeId, id));
+        }
+        return key;
+    }
+
+    public String name(String employeeName) {
+        String name = names.putIfAbsent(employeeName, employeeName);
+        return name != null ? name : employeeName;
+    }
+}
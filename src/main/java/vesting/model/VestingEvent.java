@@ -11,11 +11,11 @@ public sealed interface VestingEvent permits VestEvent, CancelEvent {
 
     String awardId();
 
+    long epochDay();
+
     LocalDate date();
 
     BigDecimal quantity();
 
-    default EmployeeAwardKey key() {
-        return new EmployeeAwardKey(employeeId(), awardId());
-    }
+    EmployeeAwardKey key();
 }
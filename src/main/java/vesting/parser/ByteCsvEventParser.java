@@ -0,0 +1,131 @@
+package vesting.parser;
+
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Reads the file in large blocks and hands each line to ByteLineParser as raw bytes,
+// so no per-line String is created on the fast path.
+public final class ByteCsvEventParser implements EventParser {
+
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private final CsvLineParser lineParser;
+
+    public ByteCsvEventParser(CsvLineParser lineParser) {
+        this.lineParser = lineParser;
+    }
+
+    // A point in the file just after a line terminator: the byte offset and the
+    // number of lines before it.
+    public record Position(long offset, int lineNumber) {
+
+        public static final Position START = new Position(0, 0);
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, EventSink sink) {
+        parse(filename, Position.START, true, precisionHandler, Long.MAX_VALUE, sink);
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, LocalDate targetDate, PushdownSink sink) {
+        parse(filename, Position.START, true, precisionHandler, targetDate.toEpochDay(), sink);
+    }
+
+    // Parses from a position returned by an earlier call to the end of the file.
+    // Unless includeUnterminated is set, a trailing line without a terminator (which
+    // may still be being written) is left unparsed. Returns the position after the
+    // last line parsed.
+    public Position parse(String filename, Position from, boolean includeUnterminated,
+                          PrecisionHandler precisionHandler, EventSink sink) {
+        return parse(filename, from, includeUnterminated, precisionHandler, Long.MAX_VALUE, sink);
+    }
+
+    private Position parse(String filename, Position from, boolean includeUnterminated,
+                           PrecisionHandler precisionHandler, long targetEpochDay, EventSink sink) {
+        ByteLineParser parser = new ByteLineParser(lineParser);
+
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            channel.position(from.offset());
+            byte[] block = new byte[BLOCK_SIZE];
+            // File offset of block[0].
+            long base = from.offset();
+            int start = 0;
+            int limit = 0;
+            int lineNumber = from.lineNumber();
+            boolean eof = false;
+
+            while (!eof) {
+                // Move the unfinished line to the front; grow only for lines longer than a block.
+                System.arraycopy(block, start, block, 0, limit - start);
+                base += start;
+                limit -= start;
+                start = 0;
+                if (limit == block.length) {
+                    block = Arrays.copyOf(block, block.length * 2);
+                }
+                int read = channel.read(ByteBuffer.wrap(block, limit, block.length - limit));
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    limit += read;
+                }
+
+                // Same line terminators as BufferedReader.readLine: "\n", "\r" or "\r\n".
+                int pos = start;
+                while (true) {
+                    int terminator = pos;
+                    while (terminator < limit && block[terminator] != '\n' && block[terminator] != '\r') {
+                        terminator++;
+                    }
+                    if (terminator == limit) {
+                        break;
+                    }
+                    int next = terminator + 1;
+                    if (block[terminator] == '\r') {
+                        if (next < limit) {
+                            next += block[next] == '\n' ? 1 : 0;
+                        } else if (!eof || !includeUnterminated) {
+                            // A "\r" at the end may be the first half of "\r\n".
+                            break;
+                        }
+                    }
+                    lineNumber++;
+                    parseLine(parser, block, pos, terminator, lineNumber, precisionHandler, targetEpochDay, sink);
+                    pos = next;
+                }
+                start = pos;
+            }
+
+            if (start < limit && includeUnterminated) {
+                parseLine(parser, block, start, limit, ++lineNumber, precisionHandler, targetEpochDay, sink);
+                start = limit;
+            }
+            return new Position(base + start, lineNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file: " + filename, e);
+        }
+    }
+
+    private static void parseLine(ByteLineParser parser, byte[] bytes, int start, int end, int lineNumber,
+                                  PrecisionHandler precisionHandler, long targetEpochDay, EventSink sink)
+            throws IOException {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        if (start < end) {
+            parser.parse(bytes, start, end, lineNumber, precisionHandler, targetEpochDay, sink);
+        }
+    }
+}
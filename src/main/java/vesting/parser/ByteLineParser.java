@@ -0,0 +1,205 @@
+package vesting.parser;
+
+import vesting.model.EventType;
+import vesting.precision.PrecisionHandler;
+
+import java.nio.charset.CharacterCodingException;
+
+// Byte-level counterpart of CsvLineParser. A line is scanned once in place: the
+// event type, ISO date and decimal quantity are decoded directly from the buffer and
+// the ids are resolved through a KeyDictionary, so a well-formed line whose key has
+// been seen before allocates nothing.
+//
+// Anything the fast path does not recognise (errors, but also valid oddities such
+// as exponents or signed years) is handed to CsvLineParser, so accepted input and
+// error messages are exactly those of the String-based parser.
+public final class ByteLineParser {
+
+    private static final int FIELD_COUNT = 6;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+
+    private final CsvLineParser fallback;
+    private final KeyDictionary dictionary = new KeyDictionary();
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+
+    public ByteLineParser(CsvLineParser fallback) {
+        this.fallback = fallback;
+    }
+
+    // Parses bytes [start, end) of an already trimmed, non-empty line.
+    public void parseLine(byte[] bytes, int start, int end, int lineNumber,
+                          PrecisionHandler precisionHandler, EventSink sink) throws CharacterCodingException {
+        parse(bytes, start, end, lineNumber, precisionHandler, Long.MAX_VALUE, sink);
+    }
+
+    // As above, but a line dated after targetEpochDay is only registered with the sink
+    // (see CsvLineParser): its quantity is checked without being decoded.
+    public void parseLine(byte[] bytes, int start, int end, int lineNumber, PrecisionHandler precisionHandler,
+                          long targetEpochDay, PushdownSink sink) throws CharacterCodingException {
+        parse(bytes, start, end, lineNumber, precisionHandler, targetEpochDay, sink);
+    }
+
+    // Either of the above: the sink is a PushdownSink unless targetEpochDay is Long.MAX_VALUE.
+    void parse(byte[] bytes, int start, int end, int lineNumber, PrecisionHandler precisionHandler,
+               long targetEpochDay, EventSink sink) throws CharacterCodingException {
+        if (!parseFast(bytes, start, end, precisionHandler, targetEpochDay, sink)) {
+            String line = KeyDictionary.decode(bytes, start, end);
+            fallback.parse(line, lineNumber, precisionHandler, null, targetEpochDay, sink);
+        }
+    }
+
+    private boolean parseFast(byte[] bytes, int start, int end, PrecisionHandler precisionHandler,
+                              long targetEpochDay, EventSink sink) throws CharacterCodingException {
+        if (!splitFields(bytes, start, end)) {
+            return false;
+        }
+
+        EventType type = eventType(bytes, fieldStart[0], fieldEnd[0]);
+        if (type == null) {
+            return false;
+        }
+        long epochDay = IsoDateParser.parseEpochDay(bytes, fieldStart[4], fieldEnd[4]);
+        if (epochDay == IsoDateParser.NOT_PARSED) {
+            return false;
+        }
+        if (epochDay > targetEpochDay) {
+            if (!isPlainDecimal(bytes, fieldStart[5], fieldEnd[5])) {
+                return false;
+            }
+            KeyDictionary.Entry entry = dictionary.lookup(bytes,
+                    fieldStart[1], fieldEnd[1], fieldStart[3], fieldEnd[3]);
+            ((PushdownSink) sink).register(entry.key(), entry.employeeName(bytes, fieldStart[2], fieldEnd[2]));
+            return true;
+        }
+        int scale = precisionHandler.getPrecision();
+        long quantity = unscaledQuantity(bytes, fieldStart[5], fieldEnd[5], scale);
+        if (quantity < 0) {
+            return false;
+        }
+
+        KeyDictionary.Entry entry = dictionary.lookup(bytes,
+                fieldStart[1], fieldEnd[1], fieldStart[3], fieldEnd[3]);
+        String employeeName = entry.employeeName(bytes, fieldStart[2], fieldEnd[2]);
+
+        sink.accept(type, entry.key(), employeeName, epochDay, quantity, scale);
+        return true;
+    }
+
+    // Records trimmed field bounds; false unless there are exactly six fields.
+    private boolean splitFields(byte[] bytes, int start, int end) {
+        int field = 0;
+        int fieldFrom = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || bytes[i] == ',') {
+                if (field == FIELD_COUNT) {
+                    return false;
+                }
+                int from = fieldFrom;
+                int to = i;
+                while (from < to && (bytes[from] & 0xFF) <= ' ') {
+                    from++;
+                }
+                while (to > from && (bytes[to - 1] & 0xFF) <= ' ') {
+                    to--;
+                }
+                fieldStart[field] = from;
+                fieldEnd[field] = to;
+                field++;
+                fieldFrom = i + 1;
+            }
+        }
+        return field == FIELD_COUNT;
+    }
+
+    private static EventType eventType(byte[] bytes, int start, int end) {
+        if (matchesIgnoreCase(bytes, start, end, "VEST")) {
+            return EventType.VEST;
+        }
+        if (matchesIgnoreCase(bytes, start, end, "CANCEL")) {
+            return EventType.CANCEL;
+        }
+        return null;
+    }
+
+    private static boolean matchesIgnoreCase(byte[] bytes, int start, int end, String upperAscii) {
+        if (end - start != upperAscii.length()) {
+            return false;
+        }
+        for (int i = 0; i < upperAscii.length(); i++) {
+            int b = bytes[start + i];
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != upperAscii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same shapes as unscaledQuantity accepts, of any length.
+    private static boolean isPlainDecimal(byte[] bytes, int start, int end) {
+        int i = start < end && bytes[start] == '+' ? start + 1 : start;
+        int digits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            if (bytes[i] == '.' && !point) {
+                point = true;
+            } else if (bytes[i] >= '0' && bytes[i] <= '9') {
+                digits++;
+            } else {
+                return false;
+            }
+        }
+        return digits > 0;
+    }
+
+    // Plain non-negative decimals ("123", "+1.50", ".5", "7.") truncated to the
+    // given scale, which for non-negative values is what RoundingMode.FLOOR does.
+    // Returns -1 for anything else, including values that would overflow a long.
+    private static long unscaledQuantity(byte[] bytes, int start, int end, int scale) {
+        int i = start;
+        if (i < end && bytes[i] == '+') {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < end && bytes[i] != '.'; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+            digits++;
+        }
+
+        int fractionDigits = 0;
+        if (i < end) {
+            i++;
+            for (; i < end; i++) {
+                int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                if (fractionDigits < scale) {
+                    if (value > (Long.MAX_VALUE - digit) / 10) {
+                        return -1;
+                    }
+                    value = value * 10 + digit;
+                    fractionDigits++;
+                }
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return -1;
+        }
+
+        long factor = POWERS_OF_TEN[scale - fractionDigits];
+        if (value > Long.MAX_VALUE / factor) {
+            return -1;
+        }
+        return value * factor;
+    }
+}
@@ -1,6 +1,6 @@
 package vesting.parser;
 
-import vesting.model.VestingEvent;
+import vesting.model.KeyInterner;
 import vesting.precision.PrecisionHandler;
 
 import java.io.BufferedReader;
@@ -8,37 +8,52 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDate;
 
 public final class CsvEventParser implements EventParser {
 
     private final CsvLineParser lineParser;
+    private final boolean interning;
 
     public CsvEventParser(CsvLineParser lineParser) {
+        this(lineParser, true);
+    }
+
+    // Without interning, nothing is retained per distinct key between lines, which
+    // keeps a parse's memory independent of the key count; each event then holds its
+    // own id and name Strings.
+    public CsvEventParser(CsvLineParser lineParser, boolean interning) {
         this.lineParser = lineParser;
+        this.interning = interning;
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, EventSink sink) {
+        parse(filename, precisionHandler, Long.MAX_VALUE, sink);
     }
 
     @Override
-    public List<VestingEvent> parse(String filename, PrecisionHandler precisionHandler) {
+    public void parse(String filename, PrecisionHandler precisionHandler, LocalDate targetDate, PushdownSink sink) {
+        parse(filename, precisionHandler, targetDate.toEpochDay(), sink);
+    }
+
+    private void parse(String filename, PrecisionHandler precisionHandler, long targetEpochDay, EventSink sink) {
         Path path = Path.of(filename);
-        List<VestingEvent> events = new ArrayList<>();
 
         try (BufferedReader reader = Files.newBufferedReader(path)) {
             String line;
             int lineNumber = 0;
+            KeyInterner interner = interning ? new KeyInterner() : null;
             while ((line = reader.readLine()) != null) {
                 lineNumber++;
                 String trimmed = line.trim();
                 if (trimmed.isEmpty()) {
                     continue;
                 }
-                events.add(lineParser.parseLine(trimmed, lineNumber, precisionHandler));
+                lineParser.parse(trimmed, lineNumber, precisionHandler, interner, targetEpochDay, sink);
             }
         } catch (IOException e) {
             throw new UncheckedIOException("Failed to read file: " + filename, e);
         }
-
-        return events;
     }
 }
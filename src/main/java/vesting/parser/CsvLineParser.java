@@ -1,66 +1,239 @@
 package vesting.parser;
 
 import vesting.model.CancelEvent;
+import vesting.model.EmployeeAwardKey;
 import vesting.model.EventType;
+import vesting.model.KeyInterner;
 import vesting.model.VestEvent;
 import vesting.model.VestingEvent;
 import vesting.precision.PrecisionHandler;
 
 import java.math.BigDecimal;
+import java.text.ParsePosition;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
 
 public final class CsvLineParser {
 
     private static final int EXPECTED_FIELD_COUNT = 6;
 
     public VestingEvent parseLine(String line, int lineNumber, PrecisionHandler precisionHandler) {
-        String[] fields = line.split(",", -1);
+        return parseLine(line, lineNumber, precisionHandler, null);
+    }
+
+    // With an interner, events share one key per employee-award pair and one String per name.
+    public VestingEvent parseLine(String line, int lineNumber, PrecisionHandler precisionHandler,
+                                  KeyInterner interner) {
+        ParsedEvent parsed = new ParsedEvent();
+        parse(line, lineNumber, precisionHandler, interner, Long.MAX_VALUE, parsed);
+        return parsed.event;
+    }
+
+    // Hands the line to the sink. A line dated after targetEpochDay whose quantity is a
+    // plain non-negative decimal is only registered: the quantity is never converted.
+    // Any other quantity goes through the full parse, so errors are the same.
+    //
+    // A malformed line goes to sink.reject with the reason, which fails the parse
+    // unless the sink is lenient. The checks themselves throw nothing, so a lenient
+    // parse of a file with many bad lines creates no exceptions.
+    public void parseLine(String line, int lineNumber, PrecisionHandler precisionHandler,
+                          KeyInterner interner, long targetEpochDay, PushdownSink sink) {
+        parse(line, lineNumber, precisionHandler, interner, targetEpochDay, sink);
+    }
 
+    // Also used for a parse without a target date (targetEpochDay Long.MAX_VALUE),
+    // where no row is only registered and any sink will do. With an earlier target
+    // day the sink must be a PushdownSink.
+    void parse(String line, int lineNumber, PrecisionHandler precisionHandler,
+               KeyInterner interner, long targetEpochDay, EventSink sink) {
+        String[] fields = line.split(",", -1);
         if (fields.length != EXPECTED_FIELD_COUNT) {
-            throw new IllegalArgumentException(
-                    "Line " + lineNumber + ": expected " + EXPECTED_FIELD_COUNT
-                            + " fields, got " + fields.length);
+            sink.reject(lineNumber, "expected " + EXPECTED_FIELD_COUNT + " fields, got " + fields.length, line);
+            return;
+        }
+        String typeValue = fields[0].trim();
+        EventType type = eventType(typeValue);
+        if (type == null) {
+            // The messages of EventType.fromString.
+            sink.reject(lineNumber, typeValue.isBlank()
+                    ? "Event type must not be null or blank"
+                    : "Unknown event type: " + typeValue, line);
+            return;
+        }
+        String dateValue = fields[4].trim();
+        long epochDay = parseDate(dateValue);
+        if (epochDay == IsoDateParser.NOT_PARSED) {
+            sink.reject(lineNumber, "invalid date format '" + dateValue + "'", line);
+            return;
+        }
+        String quantityValue = fields[5].trim();
+        if (epochDay > targetEpochDay && isPlainDecimal(quantityValue)) {
+            EmployeeAwardKey key = key(fields, interner);
+            ((PushdownSink) sink).register(key, name(fields, interner));
+            return;
+        }
+        BigDecimal quantity = parseQuantity(quantityValue);
+        if (quantity == null) {
+            sink.reject(lineNumber, "invalid quantity '" + quantityValue + "'", line);
+            return;
         }
 
-        EventType type = parseEventType(fields[0].trim(), lineNumber);
-        String employeeId = fields[1].trim();
-        String employeeName = fields[2].trim();
-        String awardId = fields[3].trim();
-        LocalDate date = parseDate(fields[4].trim(), lineNumber);
-        BigDecimal quantity = parseQuantity(fields[5].trim(), lineNumber, precisionHandler);
+        quantity = precisionHandler.truncate(quantity);
+        if (quantity.signum() < 0) {
+            // Checked here rather than left to the event constructor, so it is a line error too.
+            sink.reject(lineNumber, type + " quantity must be non-negative, got: " + quantity, line);
+            return;
+        }
+
+        VestingEvent event = event(type, fields, epochDay, quantity, interner);
+        if (epochDay > targetEpochDay) {
+            ((PushdownSink) sink).register(event.key(), event.employeeName());
+        } else {
+            sink.accept(event);
+        }
+    }
 
+    // Captures the one event of a line for the event-returning parseLine.
+    private static final class ParsedEvent implements EventSink {
+
+        private VestingEvent event;
+
+        @Override
+        public void accept(VestingEvent event) {
+            this.event = event;
+        }
+    }
+
+    private static VestingEvent event(EventType type, String[] fields, long epochDay, BigDecimal quantity,
+                                      KeyInterner interner) {
+        EmployeeAwardKey key = key(fields, interner);
+        String employeeName = name(fields, interner);
         return switch (type) {
-            case VEST -> new VestEvent(employeeId, employeeName, awardId, date, quantity);
-            case CANCEL -> new CancelEvent(employeeId, employeeName, awardId, date, quantity);
+            case VEST -> new VestEvent(key, employeeName, epochDay, quantity);
+            case CANCEL -> new CancelEvent(key, employeeName, epochDay, quantity);
         };
     }
 
-    private EventType parseEventType(String value, int lineNumber) {
-        try {
-            return EventType.fromString(value);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException(
-                    "Line " + lineNumber + ": " + e.getMessage(), e);
+    private static EmployeeAwardKey key(String[] fields, KeyInterner interner) {
+        String employeeId = fields[1].trim();
+        String awardId = fields[3].trim();
+        return interner != null ? interner.key(employeeId, awardId) : new EmployeeAwardKey(employeeId, awardId);
+    }
+
+    private static String name(String[] fields, KeyInterner interner) {
+        String employeeName = fields[2].trim();
+        return interner != null ? interner.name(employeeName) : employeeName;
+    }
+
+    // "123", "+1.50", ".5", "7.": accepted by BigDecimal and never negative.
+    private static boolean isPlainDecimal(String value) {
+        int i = value.startsWith("+") ? 1 : 0;
+        int digits = 0;
+        boolean point = false;
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (c >= '0' && c <= '9') {
+                digits++;
+            } else {
+                return false;
+            }
         }
+        return digits > 0;
     }
 
-    private LocalDate parseDate(String value, int lineNumber) {
-        try {
-            return LocalDate.parse(value);
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException(
-                    "Line " + lineNumber + ": invalid date format '" + value + "'", e);
+    // Case-insensitive, like EventType.fromString; null for anything else.
+    private static EventType eventType(String value) {
+        for (EventType type : EventType.values()) {
+            if (type.name().equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    // Plain yyyy-MM-dd dates take the fast path. Everything else is checked against
+    // the grammar of LocalDate.parse without resolving, which would throw, so the
+    // accepted forms are the same: signed and 5+ digit years, within LocalDate's range.
+    private static long parseDate(String value) {
+        long epochDay = IsoDateParser.parseEpochDay(value);
+        if (epochDay != IsoDateParser.NOT_PARSED) {
+            return epochDay;
+        }
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = DateTimeFormatter.ISO_LOCAL_DATE.parseUnresolved(value, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != value.length()) {
+            return IsoDateParser.NOT_PARSED;
         }
+        long year = parsed.getLong(ChronoField.YEAR);
+        long month = parsed.getLong(ChronoField.MONTH_OF_YEAR);
+        long day = parsed.getLong(ChronoField.DAY_OF_MONTH);
+        if (!ChronoField.YEAR.range().isValidValue(year) || month < 1 || month > 12
+                || day < 1 || day > Month.of((int) month).length(Year.isLeap(year))) {
+            return IsoDateParser.NOT_PARSED;
+        }
+        return LocalDate.of((int) year, (int) month, (int) day).toEpochDay();
     }
 
-    private BigDecimal parseQuantity(String value, int lineNumber, PrecisionHandler precisionHandler) {
+    // The BigDecimal(String) grammar is checked first, so that malformed text, the
+    // usual case in a dirty file, is rejected without a NumberFormatException. Only
+    // exponents beyond the int range get as far as the constructor's own checks.
+    private static BigDecimal parseQuantity(String value) {
+        if (!isDecimal(value)) {
+            return null;
+        }
         try {
-            BigDecimal raw = new BigDecimal(value);
-            return precisionHandler.truncate(raw);
+            return new BigDecimal(value);
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException(
-                    "Line " + lineNumber + ": invalid quantity '" + value + "'", e);
+            return null;
+        }
+    }
+
+    // Sign, digits with at most one point (at least one digit), optional exponent.
+    private static boolean isDecimal(String value) {
+        int i = 0;
+        int length = value.length();
+        if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        boolean point = false;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (Character.digit(c, 10) >= 0) {
+                digits++;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i == length) {
+            return true;
+        }
+        if (value.charAt(i) != 'e' && value.charAt(i) != 'E') {
+            return false;
+        }
+        i++;
+        if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            i++;
+        }
+        if (i == length) {
+            return false;
+        }
+        for (; i < length; i++) {
+            if (Character.digit(value.charAt(i), 10) < 0) {
+                return false;
+            }
         }
+        return true;
     }
 }
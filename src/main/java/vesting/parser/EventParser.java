@@ -1,11 +1,55 @@
 package vesting.parser;
 
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
 import vesting.model.VestingEvent;
 import vesting.precision.PrecisionHandler;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface EventParser {
 
-    List<VestingEvent> parse(String filename, PrecisionHandler precisionHandler);
+    // Streams each parsed event to the sink in file order without retaining it.
+    void parse(String filename, PrecisionHandler precisionHandler, EventSink sink);
+
+    default List<VestingEvent> parse(String filename, PrecisionHandler precisionHandler) {
+        List<VestingEvent> events = new ArrayList<>();
+        parse(filename, precisionHandler, events::add);
+        return events;
+    }
+
+    // Rows dated on or before targetDate are parsed as usual; later rows reach the
+    // sink only through register(key, name), with their quantity checked but not
+    // decoded. Malformed rows fail exactly as with a full parse. Parsers that cannot
+    // skip the work filter fully parsed events instead.
+    default void parse(String filename, PrecisionHandler precisionHandler, LocalDate targetDate, PushdownSink sink) {
+        long targetEpochDay = targetDate.toEpochDay();
+        parse(filename, precisionHandler, new EventSink() {
+            @Override
+            public void accept(VestingEvent event) {
+                if (event.epochDay() > targetEpochDay) {
+                    sink.register(event.key(), event.employeeName());
+                } else {
+                    sink.accept(event);
+                }
+            }
+
+            @Override
+            public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                               long unscaledQuantity, int scale) {
+                if (epochDay > targetEpochDay) {
+                    sink.register(key, employeeName);
+                } else {
+                    sink.accept(type, key, employeeName, epochDay, unscaledQuantity, scale);
+                }
+            }
+
+            @Override
+            public void reject(int lineNumber, String reason, String line) {
+                sink.reject(lineNumber, reason, line);
+            }
+        });
+    }
 }
@@ -0,0 +1,38 @@
+package vesting.parser;
+
+import vesting.model.CancelEvent;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestEvent;
+import vesting.model.VestingEvent;
+
+import java.math.BigDecimal;
+
+@FunctionalInterface
+public interface EventSink {
+
+    void accept(VestingEvent event);
+
+    // Primitive form used by the byte-level parser: the quantity is already
+    // truncated and expressed as an unscaled value at the given scale. Sinks that
+    // can fold primitives directly override this; the default materializes an event.
+    default void accept(
+            EventType type,
+            EmployeeAwardKey key,
+            String employeeName,
+            long epochDay,
+            long unscaledQuantity,
+            int scale) {
+        BigDecimal quantity = BigDecimal.valueOf(unscaledQuantity, scale);
+        accept(switch (type) {
+            case VEST -> new VestEvent(key, employeeName, epochDay, quantity);
+            case CANCEL -> new CancelEvent(key, employeeName, epochDay, quantity);
+        });
+    }
+
+    // A line that could not be parsed, with the reason. By default the parse fails
+    // with that reason; a lenient sink records the line and parsing goes on.
+    default void reject(int lineNumber, String reason, String line) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": " + reason);
+    }
+}
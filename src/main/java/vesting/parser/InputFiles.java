@@ -0,0 +1,123 @@
+package vesting.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Expands an input argument into the files it names, in the order their events are
+// taken to occur:
+//   - an existing file is itself;
+//   - a directory is its regular, non-hidden files (not subdirectories), sorted by name;
+//   - a glob such as "feed/2021-*.csv" or "feed/**/*.csv" is the files under its
+//     fixed leading directories that match, sorted by path;
+//   - a comma-separated list is each item expanded in turn.
+// Anything else is returned as given, so a missing file fails when it is read.
+public final class InputFiles {
+
+    private InputFiles() {
+    }
+
+    public static List<Path> resolve(String spec) {
+        Path path = Path.of(spec);
+        if (Files.isRegularFile(path)) {
+            return List.of(path);
+        }
+        if (Files.isDirectory(path)) {
+            return directory(path);
+        }
+        List<String> items = splitList(spec);
+        if (items.size() > 1) {
+            List<Path> files = new ArrayList<>();
+            for (String item : items) {
+                files.addAll(resolve(item));
+            }
+            return List.copyOf(files);
+        }
+        if (wildcardAt(spec) >= 0) {
+            return glob(spec);
+        }
+        return List.of(path);
+    }
+
+    private static List<Path> directory(Path directory) {
+        try (Stream<Path> entries = Files.list(directory)) {
+            List<Path> files = entries
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .toList();
+            if (files.isEmpty()) {
+                throw new IllegalArgumentException("No input files in directory: " + directory);
+            }
+            return files;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list directory: " + directory, e);
+        }
+    }
+
+    private static List<Path> glob(String spec) {
+        // Walk from the directories before the first segment with a wildcard.
+        int wildcard = wildcardAt(spec);
+        int separator = Math.max(spec.lastIndexOf('/', wildcard), spec.lastIndexOf('\\', wildcard));
+        Path base = Path.of(separator < 0 ? "." : spec.substring(0, separator + 1));
+        String pattern = spec.substring(separator + 1);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        // Without "**" a pattern only reaches as deep as it has segments.
+        int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("[/\\\\]").length;
+
+        List<Path> files = List.of();
+        if (Files.isDirectory(base)) {
+            try (Stream<Path> entries = Files.walk(base, depth)) {
+                files = entries
+                        .filter(Files::isRegularFile)
+                        .filter(file -> matcher.matches(base.relativize(file)))
+                        .map(file -> separator < 0 ? base.relativize(file) : file)
+                        .sorted()
+                        .toList();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to list files matching: " + spec, e);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No input files match: " + spec);
+        }
+        return files;
+    }
+
+    // Commas inside glob braces ("{a,b}") do not separate items.
+    private static List<String> splitList(String spec) {
+        List<String> items = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= spec.length(); i++) {
+            char c = i < spec.length() ? spec.charAt(i) : ',';
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == ',' && depth <= 0) {
+                String item = spec.substring(start, i).trim();
+                if (!item.isEmpty()) {
+                    items.add(item);
+                }
+                start = i + 1;
+            }
+        }
+        return items;
+    }
+
+    private static int wildcardAt(String spec) {
+        for (int i = 0; i < spec.length(); i++) {
+            if ("*?[{".indexOf(spec.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,87 @@
+package vesting.parser;
+
+// Parses plain "yyyy-MM-dd" dates straight to an epoch day, without going through
+// DateTimeFormatter. Anything outside that exact shape (signed or 5+ digit years,
+// malformed text, impossible dates) is reported as NOT_PARSED so callers can fall
+// back to LocalDate.parse, which stays the single authority on what is valid.
+public final class IsoDateParser {
+
+    public static final long NOT_PARSED = Long.MIN_VALUE;
+
+    private static final int DAYS_0000_TO_1970 = (146097 * 5) - (30 * 365 + 7);
+
+    private IsoDateParser() {
+    }
+
+    static long parseEpochDay(byte[] bytes, int start, int end) {
+        if (end - start != 10 || bytes[start + 4] != '-' || bytes[start + 7] != '-') {
+            return NOT_PARSED;
+        }
+        return epochDay(digits(bytes, start, 4), digits(bytes, start + 5, 2), digits(bytes, start + 8, 2));
+    }
+
+    public static long parseEpochDay(String value) {
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return NOT_PARSED;
+        }
+        return epochDay(digits(value, 0, 4), digits(value, 5, 2), digits(value, 8, 2));
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NOT_PARSED;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    private static int digits(byte[] bytes, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay for non-negative years.
+    private static long toEpochDay(int year, int month, int day) {
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,120 @@
+package vesting.parser;
+
+import vesting.model.EmployeeAwardKey;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Interns employee-award keys straight from raw line bytes. Lookups of a key that
+// has been seen before compare bytes in place and allocate nothing; a new String
+// and key object are created only for a pair (or an employee name) not seen yet.
+final class KeyDictionary {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+    private int size;
+
+    Entry lookup(byte[] bytes, int empStart, int empEnd, int awardStart, int awardEnd)
+            throws CharacterCodingException {
+        int hash = hash(bytes, empStart, empEnd, awardStart, awardEnd);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+
+        Entry entry;
+        while ((entry = table[slot]) != null) {
+            if (entry.hash == hash
+                    && Arrays.equals(entry.employeeIdBytes, 0, entry.employeeIdBytes.length, bytes, empStart, empEnd)
+                    && Arrays.equals(entry.awardIdBytes, 0, entry.awardIdBytes.length, bytes, awardStart, awardEnd)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        entry = new Entry(hash,
+                Arrays.copyOfRange(bytes, empStart, empEnd),
+                Arrays.copyOfRange(bytes, awardStart, awardEnd));
+        table[slot] = entry;
+        if (++size * 2 > table.length) {
+            resize();
+        }
+        return entry;
+    }
+
+    private void resize() {
+        Entry[] old = table;
+        table = new Entry[old.length * 2];
+        int mask = table.length - 1;
+        for (Entry entry : old) {
+            if (entry != null) {
+                int slot = entry.hash & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry;
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes, int empStart, int empEnd, int awardStart, int awardEnd) {
+        int h = 1;
+        for (int i = empStart; i < empEnd; i++) {
+            h = 31 * h + bytes[i];
+        }
+        h = 31 * h + ',';
+        for (int i = awardStart; i < awardEnd; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static String decode(byte[] bytes, int start, int end) throws CharacterCodingException {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0) {
+                return StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(ByteBuffer.wrap(bytes, start, end - start))
+                        .toString();
+            }
+        }
+        return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    static final class Entry {
+
+        private final int hash;
+        private final byte[] employeeIdBytes;
+        private final byte[] awardIdBytes;
+        private final EmployeeAwardKey key;
+        private byte[] employeeNameBytes;
+        private String employeeName;
+
+        private Entry(int hash, byte[] employeeIdBytes, byte[] awardIdBytes) throws CharacterCodingException {
+            this.hash = hash;
+            this.employeeIdBytes = employeeIdBytes;
+            this.awardIdBytes = awardIdBytes;
+            this.key = new EmployeeAwardKey(
+                    decode(employeeIdBytes, 0, employeeIdBytes.length),
+                    decode(awardIdBytes, 0, awardIdBytes.length));
+        }
+
+        EmployeeAwardKey key() {
+            return key;
+        }
+
+        // Names are usually identical on every row of a key, so the previous String
+        // is reused unless the bytes actually differ.
+        String employeeName(byte[] bytes, int start, int end) throws CharacterCodingException {
+            if (employeeNameBytes == null
+                    || !Arrays.equals(employeeNameBytes, 0, employeeNameBytes.length, bytes, start, end)) {
+                employeeNameBytes = Arrays.copyOfRange(bytes, start, end);
+                employeeName = decode(bytes, start, end);
+            }
+            return employeeName;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package vesting.parser;
+
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.precision.PrecisionHandler;
+
+import java.time.LocalDate;
+
+// Skips lines the wrapped parser rejects instead of failing, recording them in a
+// RejectReport. Only parsers that pass bad lines to EventSink.reject (csv and
+// bytes, and event logs, which have none) can be made lenient this way.
+public final class LenientEventParser implements EventParser {
+
+    private final EventParser parser;
+    private final RejectReport report;
+
+    public LenientEventParser(EventParser parser, RejectReport report) {
+        this.parser = parser;
+        this.report = report;
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, EventSink sink) {
+        RecordingSink recording = new RecordingSink(filename, sink);
+        try {
+            parser.parse(filename, precisionHandler, recording);
+        } finally {
+            report.accepted(recording.accepted);
+        }
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, LocalDate targetDate, PushdownSink sink) {
+        RecordingSink recording = new RecordingSink(filename, sink);
+        try {
+            parser.parse(filename, precisionHandler, targetDate, recording);
+        } finally {
+            report.accepted(recording.accepted);
+        }
+    }
+
+    // Wraps the sink of either kind of parse.
+    private final class RecordingSink implements PushdownSink {
+
+        private final String filename;
+        private final EventSink sink;
+        private long accepted;
+
+        private RecordingSink(String filename, EventSink sink) {
+            this.filename = filename;
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(VestingEvent event) {
+            accepted++;
+            sink.accept(event);
+        }
+
+        @Override
+        public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           long unscaledQuantity, int scale) {
+            accepted++;
+            sink.accept(type, key, employeeName, epochDay, unscaledQuantity, scale);
+        }
+
+        @Override
+        public void register(EmployeeAwardKey key, String employeeName) {
+            // Only a parse with a target date registers rows, and its sink is a PushdownSink.
+            accepted++;
+            ((PushdownSink) sink).register(key, employeeName);
+        }
+
+        @Override
+        public void reject(int lineNumber, String reason, String line) {
+            report.reject(filename, lineNumber, reason, line);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package vesting.parser;
+
+import vesting.model.VestingEvent;
+import vesting.model.KeyInterner;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+// Memory-maps the input and parses newline-aligned byte ranges concurrently on a
+// ForkJoin pool. Events are still handed to the sink in file order on the calling
+// thread, and line numbers in error messages are global, exactly as CsvEventParser
+// reports them.
+public final class MappedCsvEventParser implements EventParser {
+
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    private static final long MAX_CHUNK_SIZE = 64L << 20;
+
+    private final CsvLineParser lineParser;
+    private final ForkJoinPool pool;
+    private final long minChunkSize;
+
+    public MappedCsvEventParser(CsvLineParser lineParser, ForkJoinPool pool) {
+        this(lineParser, pool, MIN_CHUNK_SIZE);
+    }
+
+    MappedCsvEventParser(CsvLineParser lineParser, ForkJoinPool pool, long minChunkSize) {
+        this.lineParser = lineParser;
+        this.pool = pool;
+        this.minChunkSize = minChunkSize;
+    }
+
+    public MappedCsvEventParser(CsvLineParser lineParser) {
+        this(lineParser, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, EventSink sink) {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel, chunkSize(channel.size()));
+
+            // Keep a bounded window of chunks in flight so results can be drained in
+            // order without holding the whole file's events at once.
+            int window = Math.max(2, pool.getParallelism() * 2);
+            ArrayDeque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+            int nextChunk = 0;
+            int linesBefore = 0;
+            KeyInterner interner = new KeyInterner();
+
+            while (nextChunk < boundaries.length - 1 || !inFlight.isEmpty()) {
+                while (nextChunk < boundaries.length - 1 && inFlight.size() < window) {
+                    ChunkTask task = new ChunkTask(channel, boundaries[nextChunk], boundaries[nextChunk + 1],
+                            precisionHandler, interner);
+                    inFlight.add(pool.submit(task));
+                    nextChunk++;
+                }
+
+                ChunkResult result = inFlight.poll().join();
+                if (result.readFailure != null) {
+                    cancelAll(inFlight);
+                    throw result.readFailure;
+                }
+                if (result.parseFailure != null) {
+                    cancelAll(inFlight);
+                    // Re-parse the offending line with its global number so the error
+                    // message matches the sequential parser.
+                    lineParser.parseLine(result.failedLine, linesBefore + result.failedLineNumber,
+                            precisionHandler);
+                    throw result.parseFailure;
+                }
+                result.events.forEach(sink::accept);
+                linesBefore += result.lineCount;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file: " + filename, e);
+        }
+    }
+
+    private static void cancelAll(ArrayDeque<ForkJoinTask<ChunkResult>> tasks) {
+        tasks.forEach(task -> task.cancel(false));
+        tasks.clear();
+    }
+
+    private long chunkSize(long fileSize) {
+        long perWorker = fileSize / (pool.getParallelism() * 4L);
+        return Math.min(MAX_CHUNK_SIZE, Math.max(minChunkSize, perWorker));
+    }
+
+    // Chunk boundaries always sit just after a '\n', so a "\r\n" pair is never split
+    // and every chunk starts at the beginning of a line.
+    private static long[] chunkBoundaries(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long position = chunkSize;
+        while (position < size) {
+            long boundary = nextLineStart(channel, position, probe);
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            position = boundary + chunkSize;
+        }
+        boundaries.add(size);
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, ByteBuffer probe) throws IOException {
+        long position = from;
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static final class ChunkResult {
+
+        private List<VestingEvent> events = List.of();
+        private int lineCount;
+        private IOException readFailure;
+        private IllegalArgumentException parseFailure;
+        private String failedLine;
+        private int failedLineNumber;
+    }
+
+    private final class ChunkTask extends RecursiveTask<ChunkResult> {
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final PrecisionHandler precisionHandler;
+        private final KeyInterner interner;
+
+        private ChunkTask(FileChannel channel, long start, long end, PrecisionHandler precisionHandler,
+                          KeyInterner interner) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.precisionHandler = precisionHandler;
+            this.interner = interner;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            ChunkResult result = new ChunkResult();
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                parseLines(buffer, result);
+            } catch (IOException e) {
+                result.readFailure = e;
+            }
+            return result;
+        }
+
+        private void parseLines(ByteBuffer buffer, ChunkResult result) throws CharacterCodingException {
+            LineDecoder decoder = new LineDecoder();
+            List<VestingEvent> events = new ArrayList<>();
+            int limit = buffer.limit();
+            int lineNumber = 0;
+            int pos = 0;
+
+            // Same line terminators as BufferedReader.readLine: "\n", "\r" or "\r\n".
+            while (pos < limit) {
+                int lineStart = pos;
+                while (pos < limit && buffer.get(pos) != '\n' && buffer.get(pos) != '\r') {
+                    pos++;
+                }
+                int lineEnd = pos;
+                if (pos < limit) {
+                    if (buffer.get(pos) == '\r' && pos + 1 < limit && buffer.get(pos + 1) == '\n') {
+                        pos++;
+                    }
+                    pos++;
+                }
+                lineNumber++;
+
+                String line = decoder.decodeTrimmed(buffer, lineStart, lineEnd);
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    // The local number is only used if this line fails; the caller
+                    // re-parses it with the global number.
+                    events.add(lineParser.parseLine(line, lineNumber, precisionHandler, interner));
+                } catch (IllegalArgumentException e) {
+                    result.parseFailure = e;
+                    result.failedLine = line;
+                    result.failedLineNumber = lineNumber;
+                    return;
+                }
+            }
+            result.events = events;
+            result.lineCount = lineNumber;
+        }
+    }
+
+    private static final class LineDecoder {
+
+        private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private byte[] scratch = new byte[256];
+
+        // Trims bytes <= ' ' the way String.trim() does; in UTF-8 those are always
+        // single-byte ASCII characters, so trimming before decoding is equivalent.
+        private String decodeTrimmed(ByteBuffer buffer, int start, int end) throws CharacterCodingException {
+            while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(start, scratch, 0, length);
+
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                ascii = scratch[i] >= 0;
+            }
+            if (ascii) {
+                return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            CharBuffer chars = utf8.decode(ByteBuffer.wrap(scratch, 0, length));
+            return chars.toString();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package vesting.parser;
+
+import vesting.model.EmployeeAwardKey;
+
+// The sink of a parse given a target date (see EventParser). A row dated after
+// the target date is not turned into an event: only its key and name were
+// decoded, and they are registered so the key still gets its zero-share line.
+public interface PushdownSink extends EventSink {
+
+    void register(EmployeeAwardKey key, String employeeName);
+}
@@ -0,0 +1,132 @@
+package vesting.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+// Lines a lenient parse skipped. Every rejected line is counted, by file and by kind
+// of reason, but only the first `limit` are kept with their text, so a feed with
+// millions of junk rows costs a bounded amount of memory. Safe for concurrent use by
+// the parsers of several files. "First" is by input order and line number, not by
+// arrival: the kept lines are a max-heap in that order, so a concurrent run lists
+// the same lines as a sequential one.
+public final class RejectReport {
+
+    public record Reject(String file, int lineNumber, String reason, String line) {
+    }
+
+    private static final int MAX_LINE_LENGTH = 200;
+
+    private final int limit;
+    private final Map<String, Integer> fileOrder = new HashMap<>();
+    private final Comparator<Reject> order = Comparator
+            .comparingInt((Reject reject) -> fileOrder.getOrDefault(reject.file(), Integer.MAX_VALUE))
+            .thenComparing(Reject::file)
+            .thenComparingInt(Reject::lineNumber);
+    // The greatest kept line is at the head, ready to give way to a lower one.
+    private final PriorityQueue<Reject> samples = new PriorityQueue<>(order.reversed());
+    private final Map<String, Long> byReason = new TreeMap<>();
+    private long rejected;
+    private long accepted;
+
+    public RejectReport(int limit) {
+        this.limit = limit;
+    }
+
+    // The input files in the order they are read. Files not listed sort after these,
+    // by name.
+    public synchronized void order(List<Path> files) {
+        for (Path file : files) {
+            fileOrder.putIfAbsent(file.toString(), fileOrder.size());
+        }
+    }
+
+    synchronized void reject(String file, int lineNumber, String reason, String line) {
+        rejected++;
+        byReason.merge(kind(reason), 1L, Long::sum);
+        if (limit <= 0) {
+            return;
+        }
+        Reject reject = new Reject(file, lineNumber, reason, line);
+        if (samples.size() == limit) {
+            if (order.compare(reject, samples.peek()) >= 0) {
+                return;
+            }
+            samples.poll();
+        }
+        String text = line.length() > MAX_LINE_LENGTH ? line.substring(0, MAX_LINE_LENGTH) + "..." : line;
+        samples.add(new Reject(file, lineNumber, reason, text));
+    }
+
+    synchronized void accepted(long rows) {
+        accepted += rows;
+    }
+
+    public synchronized long rejected() {
+        return rejected;
+    }
+
+    public synchronized long accepted() {
+        return accepted;
+    }
+
+    public synchronized List<Reject> samples() {
+        List<Reject> sorted = new ArrayList<>(samples);
+        sorted.sort(order);
+        return sorted;
+    }
+
+    // "invalid quantity 'x'", "Unknown event type: X" and "expected 6 fields, got 3"
+    // count under the text before the offending value.
+    private static String kind(String reason) {
+        int end = reason.length();
+        for (String separator : new String[]{" '", ": ", ", got"}) {
+            int at = reason.indexOf(separator);
+            if (at >= 0 && at < end) {
+                end = at;
+            }
+        }
+        return reason.substring(0, end);
+    }
+
+    public synchronized String summary() {
+        long total = accepted + rejected;
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "Rejected %d of %d lines (%.2f%%)%n",
+                rejected, total, total == 0 ? 0.0 : 100.0 * rejected / total));
+        for (Map.Entry<String, Long> entry : byReason.entrySet()) {
+            text.append(String.format(Locale.ROOT, "  %d %s%n", entry.getValue(), entry.getKey()));
+        }
+        for (Reject reject : samples()) {
+            text.append(reject.file()).append(':').append(reject.lineNumber()).append(": ")
+                    .append(reject.reason()).append(": ").append(reject.line()).append(System.lineSeparator());
+        }
+        if (rejected > samples.size()) {
+            text.append("... ").append(rejected - samples.size()).append(" more not listed")
+                    .append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    // "-" is standard error.
+    public void report(String target) {
+        if (target.equals("-")) {
+            System.err.print(summary());
+            System.err.flush();
+            return;
+        }
+        try {
+            Files.writeString(Path.of(target), summary());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write reject report: " + target, e);
+        }
+    }
+}
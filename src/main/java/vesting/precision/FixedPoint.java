@@ -0,0 +1,36 @@
+package vesting.precision;
+
+import java.math.BigDecimal;
+
+// Helpers for quantities carried as a long scaled by 10^scale. Callers keep such
+// values in primitive fields and only fall back to BigDecimal when a value is not
+// representable or an add overflows.
+public final class FixedPoint {
+
+    public static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+
+    private FixedPoint() {
+    }
+
+    // Returns value * 10^scale when that is an exact long, otherwise NOT_REPRESENTABLE.
+    public static long toScaled(BigDecimal value, int scale) {
+        if (value.scale() > scale) {
+            return NOT_REPRESENTABLE;
+        }
+        try {
+            return value.movePointRight(scale).longValueExact();
+        } catch (ArithmeticException e) {
+            return NOT_REPRESENTABLE;
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long scaled, int scale) {
+        return BigDecimal.valueOf(scaled, scale);
+    }
+
+    // Returns a + b, or NOT_REPRESENTABLE when the sum overflows.
+    public static long add(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? NOT_REPRESENTABLE : sum;
+    }
+}
@@ -19,12 +19,11 @@ public final class PrecisionHandler {
         return value.setScale(precision, RoundingMode.FLOOR);
     }
 
+    // Values already at this precision are formatted as-is: setScale returns the same
+    // instance and a scale-0 plain string is the integer form, so no BigDecimal or
+    // BigInteger is allocated on the common path.
     public String format(BigDecimal value) {
-        BigDecimal truncated = truncate(value);
-        if (precision == 0) {
-            return truncated.toBigInteger().toString();
-        }
-        return truncated.toPlainString();
+        return truncate(value).toPlainString();
     }
 
     public int getPrecision() {
@@ -0,0 +1,63 @@
+package vesting.server;
+
+import vesting.calculator.VestingAccumulator;
+import vesting.index.AsOfIndex;
+import vesting.model.CancelEvent;
+import vesting.model.VestEvent;
+import vesting.model.VestingEvent;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One event file held in memory for the life of the server. The file is parsed
+// once at the highest precision; flooring those quantities again to a lower
+// precision gives exactly what parsing at that precision would. On first use of a
+// precision, the events are folded into per-key, date-ordered running totals (an
+// AsOfIndex), which then answer every request at that precision with one binary
+// search per key.
+final class EventStore {
+
+    private static final int MAX_PRECISION = 6;
+
+    private final String name;
+    private final List<VestingEvent> events;
+    private final ConcurrentHashMap<Integer, AsOfIndex> byPrecision = new ConcurrentHashMap<>();
+
+    private EventStore(String name, List<VestingEvent> events) {
+        this.name = name;
+        this.events = events;
+    }
+
+    static EventStore load(String name, EventParser parser, String filename) {
+        return new EventStore(name, List.copyOf(parser.parse(filename, new PrecisionHandler(MAX_PRECISION))));
+    }
+
+    String name() {
+        return name;
+    }
+
+    int size() {
+        return events.size();
+    }
+
+    AsOfIndex index(PrecisionHandler precisionHandler) {
+        return byPrecision.computeIfAbsent(precisionHandler.getPrecision(), p -> build(precisionHandler));
+    }
+
+    private AsOfIndex build(PrecisionHandler precisionHandler) {
+        VestingAccumulator accumulator = new VestingAccumulator(LocalDate.MAX, precisionHandler);
+        for (VestingEvent event : events) {
+            if (event instanceof CancelEvent) {
+                accumulator.accept(new CancelEvent(event.key(), event.employeeName(),
+                        event.epochDay(), precisionHandler.truncate(event.quantity())));
+            } else {
+                accumulator.accept(new VestEvent(event.key(), event.employeeName(),
+                        event.epochDay(), precisionHandler.truncate(event.quantity())));
+            }
+        }
+        return AsOfIndex.of(accumulator, precisionHandler);
+    }
+}
@@ -0,0 +1,225 @@
+package vesting.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import vesting.eventlog.BinaryEventParser;
+import vesting.eventlog.EventLog;
+import vesting.formatter.CsvOutputFormatter;
+import vesting.formatter.OutputFormatter;
+import vesting.model.VestingSummary;
+import vesting.parser.ByteCsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// Keeps event files in memory and answers as-of queries over HTTP on the loopback
+// interface, so repeated questions skip JVM startup, warm-up and parsing:
+//
+//   GET /asof?date=2021-02-01&precision=1[&file=q3.csv]
+//
+// The body is exactly what the CLI prints for that file, date and precision. Each
+// file keeps per-key running totals by date for each precision queried, so a
+// request costs a binary search per key rather than a pass over the events. The
+// time spent calculating and formatting is returned in a Server-Timing header and
+// logged to stderr for every request.
+public final class QueryServer {
+
+    private final EventParser parser;
+    private final Function<PrintStream, OutputFormatter> formatters;
+    private final Map<String, EventStore> stores = new LinkedHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public QueryServer(EventParser parser, Function<PrintStream, OutputFormatter> formatters) {
+        this.parser = parser;
+        this.formatters = formatters;
+    }
+
+    // Files are addressed by their file name in the file query parameter.
+    public void load(String filename) {
+        String name = Path.of(filename).getFileName().toString();
+        if (stores.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate file name: " + name);
+        }
+        EventParser fileParser = EventLog.isEventLog(Path.of(filename)) ? new BinaryEventParser() : parser;
+        EventStore store = EventStore.load(name, fileParser, filename);
+        stores.put(name, store);
+        System.err.println("Loaded " + name + " (" + store.size() + " events)");
+    }
+
+    public InetSocketAddress start(int port, int threads) {
+        if (stores.isEmpty()) {
+            throw new IllegalStateException("No event files loaded");
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to listen on port " + port, e);
+        }
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/asof", this::handleAsOf);
+        server.start();
+        return server.getAddress();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    private void handleAsOf(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        int status;
+        byte[] body;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                status = 405;
+                body = bytes("Only GET is supported\n");
+            } else {
+                body = answer(queryParameters(exchange.getRequestURI().getRawQuery()));
+                status = 200;
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = bytes("Error: " + e.getMessage() + "\n");
+        } catch (IllegalStateException e) {
+            status = 422;
+            body = bytes("Validation error: " + e.getMessage() + "\n");
+        } catch (RuntimeException e) {
+            status = 500;
+            body = bytes("Unexpected error: " + e.getMessage() + "\n");
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        exchange.getResponseHeaders().set("Content-Type",
+                status == 200 ? "text/csv; charset=utf-8" : "text/plain; charset=utf-8");
+        exchange.getResponseHeaders().set("Server-Timing", String.format(Locale.ROOT, "calc;dur=%.3f", millis));
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        System.err.println(String.format(Locale.ROOT, "%s %s -> %d in %.3f ms",
+                exchange.getRequestMethod(), exchange.getRequestURI(), status, millis));
+    }
+
+    private byte[] answer(Map<String, String> parameters) {
+        LocalDate date = parseDate(parameters.get("date"));
+        PrecisionHandler precisionHandler = new PrecisionHandler(parsePrecision(parameters.get("precision")));
+        EventStore store = store(parameters.get("file"));
+
+        List<VestingSummary> summaries = store.index(precisionHandler).summarize(date);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        formatters.apply(output).format(summaries, precisionHandler);
+        output.flush();
+        return buffer.toByteArray();
+    }
+
+    private EventStore store(String file) {
+        if (file == null) {
+            if (stores.size() == 1) {
+                return stores.values().iterator().next();
+            }
+            throw new IllegalArgumentException("Parameter 'file' is required, one of " + stores.keySet());
+        }
+        EventStore store = stores.get(file);
+        if (store == null) {
+            throw new IllegalArgumentException("Unknown file '" + file + "', expected one of " + stores.keySet());
+        }
+        return store;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Parameter 'date' is required (YYYY-MM-DD)");
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format: '" + value + "'. Expected YYYY-MM-DD.", e);
+        }
+    }
+
+    private static int parsePrecision(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid precision value: '" + value + "'. Must be an integer 0-6.", e);
+        }
+    }
+
+    private static Map<String, String> queryParameters(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            parameters.put(name, value);
+        }
+        return parameters;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) {
+        try {
+            ServerArgs serverArgs = ServerArgs.parse(args);
+
+            QueryServer server = new QueryServer(new ByteCsvEventParser(new CsvLineParser()),
+                    CsvOutputFormatter::new);
+            for (String filename : serverArgs.filenames()) {
+                server.load(filename);
+            }
+            InetSocketAddress address = server.start(serverArgs.port(), serverArgs.threads());
+            System.err.println("Listening on http://" + address.getHostString() + ":" + address.getPort() + "/asof");
+
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalStateException e) {
+            System.err.println("Validation error: " + e.getMessage());
+            System.exit(1);
+        } catch (UncheckedIOException e) {
+            System.err.println("File error: " + e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Unexpected error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
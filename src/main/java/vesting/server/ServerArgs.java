@@ -0,0 +1,58 @@
+package vesting.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public record ServerArgs(List<String> filenames, int port, int threads) {
+
+    private static final String USAGE =
+            "Usage: vesting_server [--port=8080] [--threads=N] <filename> [filename...]";
+
+    public ServerArgs {
+        Objects.requireNonNull(filenames, "Filenames must not be null");
+        if (filenames.isEmpty()) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        filenames = List.copyOf(filenames);
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535, got: " + port);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1, got: " + threads);
+        }
+    }
+
+    public static ServerArgs parse(String[] args) {
+        List<String> filenames = new ArrayList<>();
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                filenames.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? null : arg.substring(eq + 1);
+            switch (name) {
+                case "--port" -> port = parseInt(name, value);
+                case "--threads" -> threads = parseInt(name, value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name + "\n" + USAGE);
+            }
+        }
+        return new ServerArgs(filenames, port, threads);
+    }
+
+    private static int parseInt(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Option " + name + " requires a value, e.g. " + name + "=<value>");
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": '" + value + "'", e);
+        }
+    }
+}
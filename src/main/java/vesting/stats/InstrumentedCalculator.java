@@ -0,0 +1,56 @@
+package vesting.stats;
+
+import vesting.calculator.VestingCalculator;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Times the "calculate" stage: aggregation, and validation where the engine does
+// both in one pass, less any parse the engine runs inside it. The standard engine
+// validates first, timed as its own "validate" stage (see InstrumentedValidator).
+public final class InstrumentedCalculator implements VestingCalculator {
+
+    private final VestingCalculator calculator;
+    private final RunStats stats;
+
+    public InstrumentedCalculator(VestingCalculator calculator, RunStats stats) {
+        this.calculator = calculator;
+        this.stats = stats;
+    }
+
+    @Override
+    public List<VestingSummary> calculate(
+            List<VestingEvent> events,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+        RunStats.Stage stage = stats.stage("calculate");
+        try {
+            return summarized(calculator.calculate(events, targetDate, precisionHandler));
+        } finally {
+            stage.close();
+        }
+    }
+
+    @Override
+    public List<VestingSummary> calculate(
+            EventParser parser,
+            String filename,
+            LocalDate targetDate,
+            PrecisionHandler precisionHandler) {
+        RunStats.Stage stage = stats.stage("calculate");
+        try {
+            return summarized(calculator.calculate(parser, filename, targetDate, precisionHandler));
+        } finally {
+            stage.close();
+        }
+    }
+
+    private List<VestingSummary> summarized(List<VestingSummary> summaries) {
+        stats.summarized(summaries.size());
+        return summaries;
+    }
+}
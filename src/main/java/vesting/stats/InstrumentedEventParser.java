@@ -0,0 +1,110 @@
+package vesting.stats;
+
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.parser.EventParser;
+import vesting.parser.EventSink;
+import vesting.parser.PushdownSink;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// Times each parse as the "parse" stage and counts the rows passing through. For
+// streaming engines the stage includes folding rows into the running totals.
+public final class InstrumentedEventParser implements EventParser {
+
+    private final EventParser parser;
+    private final RunStats stats;
+    private final long lastTargetEpochDay;
+
+    // Rows after lastTargetDate are counted as filtered by date when the parser is
+    // not told the target date itself.
+    public InstrumentedEventParser(EventParser parser, RunStats stats, LocalDate lastTargetDate) {
+        this.parser = parser;
+        this.stats = stats;
+        this.lastTargetEpochDay = lastTargetDate != null ? lastTargetDate.toEpochDay() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, EventSink sink) {
+        CountingSink counting = new CountingSink(sink, lastTargetEpochDay);
+        RunStats.Stage stage = stats.stage("parse");
+        try {
+            parser.parse(filename, precisionHandler, counting);
+        } finally {
+            stage.close();
+        }
+        stats.parsed(filename, counting.rows, counting.rowsAfterTargetDate, size(filename));
+    }
+
+    @Override
+    public void parse(String filename, PrecisionHandler precisionHandler, LocalDate targetDate, PushdownSink sink) {
+        CountingSink counting = new CountingSink(sink, targetDate.toEpochDay());
+        RunStats.Stage stage = stats.stage("parse");
+        try {
+            parser.parse(filename, precisionHandler, targetDate, counting);
+        } finally {
+            stage.close();
+        }
+        stats.parsed(filename, counting.rows, counting.rowsAfterTargetDate, size(filename));
+    }
+
+    private static long size(String filename) {
+        try {
+            return Files.size(Path.of(filename));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Wraps the sink of either kind of parse.
+    private static final class CountingSink implements PushdownSink {
+
+        private final EventSink sink;
+        private final long targetEpochDay;
+        private long rows;
+        private long rowsAfterTargetDate;
+
+        private CountingSink(EventSink sink, long targetEpochDay) {
+            this.sink = sink;
+            this.targetEpochDay = targetEpochDay;
+        }
+
+        @Override
+        public void accept(VestingEvent event) {
+            count(event.epochDay());
+            sink.accept(event);
+        }
+
+        @Override
+        public void accept(EventType type, EmployeeAwardKey key, String employeeName, long epochDay,
+                           long unscaledQuantity, int scale) {
+            count(epochDay);
+            sink.accept(type, key, employeeName, epochDay, unscaledQuantity, scale);
+        }
+
+        @Override
+        public void register(EmployeeAwardKey key, String employeeName) {
+            // Only a parse with a target date registers rows, and its sink is a PushdownSink.
+            rows++;
+            rowsAfterTargetDate++;
+            ((PushdownSink) sink).register(key, employeeName);
+        }
+
+        @Override
+        public void reject(int lineNumber, String reason, String line) {
+            sink.reject(lineNumber, reason, line);
+        }
+
+        private void count(long epochDay) {
+            rows++;
+            if (epochDay > targetEpochDay) {
+                rowsAfterTargetDate++;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package vesting.stats;
+
+import vesting.formatter.OutputFormatter;
+import vesting.model.VestingSummary;
+import vesting.precision.PrecisionHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Times the "output" stage. Every key has an output row, so the largest block is
+// also the number of distinct keys.
+public final class InstrumentedOutputFormatter implements OutputFormatter {
+
+    private final OutputFormatter formatter;
+    private final RunStats stats;
+
+    public InstrumentedOutputFormatter(OutputFormatter formatter, RunStats stats) {
+        this.formatter = formatter;
+        this.stats = stats;
+    }
+
+    @Override
+    public void format(List<VestingSummary> summaries, PrecisionHandler precisionHandler) {
+        stats.summarized(summaries.size());
+        RunStats.Stage stage = stats.stage("output");
+        try {
+            formatter.format(summaries, precisionHandler);
+        } finally {
+            stage.close();
+        }
+    }
+
+    @Override
+    public void formatBlock(LocalDate asOf, List<VestingSummary> summaries, PrecisionHandler precisionHandler) {
+        stats.summarized(summaries.size());
+        RunStats.Stage stage = stats.stage("output");
+        try {
+            formatter.formatBlock(asOf, summaries, precisionHandler);
+        } finally {
+            stage.close();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package vesting.stats;
+
+import vesting.calculator.PipelinedVestingCalculator;
+
+// The pipelined engine reads CSV itself rather than through an EventParser, so
+// InstrumentedEventParser never sees those rows. This times the engine's read of
+// a file as the "parse" stage, which with the stages overlapping also includes
+// aggregation, and records the file's row and byte counts.
+public final class InstrumentedPipeline implements PipelinedVestingCalculator.ParseListener {
+
+    private final RunStats stats;
+    private RunStats.Stage stage;
+
+    public InstrumentedPipeline(RunStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public void started(String filename) {
+        stage = stats.stage("parse");
+    }
+
+    @Override
+    public void finished(String filename, long rows, long rowsAfterTargetDate, long bytes) {
+        stage.close();
+        stage = null;
+        stats.parsed(filename, rows, rowsAfterTargetDate, bytes);
+    }
+}
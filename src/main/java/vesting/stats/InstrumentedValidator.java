@@ -0,0 +1,29 @@
+package vesting.stats;
+
+import vesting.model.VestingEvent;
+import vesting.validation.EventValidator;
+
+import java.util.List;
+
+// Times the "validate" stage of the engines that validate the full event list
+// before summing it. It nests in "calculate", which then reports only the sums.
+public final class InstrumentedValidator implements EventValidator {
+
+    private final EventValidator validator;
+    private final RunStats stats;
+
+    public InstrumentedValidator(EventValidator validator, RunStats stats) {
+        this.validator = validator;
+        this.stats = stats;
+    }
+
+    @Override
+    public void validate(List<VestingEvent> events) {
+        RunStats.Stage stage = stats.stage("validate");
+        try {
+            validator.validate(events);
+        } finally {
+            stage.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package vesting.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Totals for a whole run, committed once at the end.
+@Name("vesting.Run")
+@Label("Vesting Run")
+@Category("Vesting")
+public final class RunEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    String file;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Input Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Rows After Target Date")
+    long rowsAfterTargetDate;
+
+    @Label("Distinct Keys")
+    long distinctKeys;
+
+    @Label("Peak Heap")
+    @DataAmount
+    long peakHeapBytes;
+}
@@ -0,0 +1,197 @@
+package vesting.stats;
+
+import jdk.jfr.FlightRecorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Collects the measurements of one run: wall time and allocation per stage, row and
+// byte counts from the parser, and the number of distinct keys. Stages are opened by
+// the Instrumented* decorators, which are only installed when stats are requested
+// or a flight recording has the vesting events enabled, so an ordinary run pays
+// nothing. Stages nest per thread, and each reports its own time and allocation
+// without that of the stages inside it. Stages run concurrently on several threads
+// (one parse per input file) add up, so their total can exceed the wall time.
+public final class RunStats {
+
+    private final String file;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+    // Rows, rows after the target date and bytes of the latest parse of each file.
+    private final Map<String, long[]> parsedFiles = new LinkedHashMap<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final ThreadLocal<Stage> current = new ThreadLocal<>();
+    private long rows;
+    private long bytes;
+    private long rowsAfterTargetDate;
+    private long distinctKeys;
+    private long wallNanos = -1;
+    private long peakHeapBytes;
+
+    public RunStats(String file) {
+        this.file = file;
+    }
+
+    // True while a flight recording has the run event enabled, e.g. one started with
+    // -XX:StartFlightRecording. The recorder sets jdk.jfr.repository when it starts,
+    // so a run without a recording never loads the jdk.jfr classes.
+    public static boolean recording() {
+        return System.getProperty("jdk.jfr.repository") != null
+                && FlightRecorder.isInitialized() && new RunEvent().isEnabled();
+    }
+
+    final class Stage {
+
+        private final String name;
+        private final Stage parent;
+        private final StageEvent event = new StageEvent();
+        private final long start;
+        private final long allocatedAtStart;
+        private long nestedNanos;
+        private long nestedAllocated;
+
+        private Stage(String name) {
+            this.name = name;
+            this.parent = current.get();
+            current.set(this);
+            event.begin();
+            this.start = System.nanoTime();
+            this.allocatedAtStart = allocatedBytes();
+        }
+
+        void close() {
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedAtStart;
+            synchronized (RunStats.this) {
+                long[] totals = stages.computeIfAbsent(name, n -> new long[2]);
+                totals[0] += elapsed - nestedNanos;
+                totals[1] += allocated - nestedAllocated;
+            }
+            current.set(parent);
+            if (parent != null) {
+                parent.nestedNanos += elapsed;
+                parent.nestedAllocated += allocated;
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = name;
+                event.allocatedBytes = allocated - nestedAllocated;
+                event.commit();
+            }
+        }
+    }
+
+    Stage stage(String name) {
+        return new Stage(name);
+    }
+
+    synchronized void parsed(String filename, long rows, long rowsAfterTargetDate, long bytes) {
+        parsedFiles.put(filename, new long[]{rows, rowsAfterTargetDate, bytes});
+    }
+
+    synchronized void summarized(int keys) {
+        distinctKeys = Math.max(distinctKeys, keys);
+    }
+
+    // Bytes allocated by the calling thread; work it hands to other threads (the
+    // mapped parser's chunks, the pipelined engine's stages) is not included.
+    private long allocatedBytes() {
+        return threads instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemoryEnabled()
+                ? sun.getThreadAllocatedBytes(Thread.currentThread().getId())
+                : 0;
+    }
+
+    // Ends the run and commits its flight recorder event.
+    public synchronized void finish() {
+        wallNanos = System.nanoTime() - startNanos;
+        for (long[] counts : parsedFiles.values()) {
+            rows += counts[0];
+            rowsAfterTargetDate += counts[1];
+            bytes += counts[2];
+        }
+        // The sum of each heap pool's peak: an upper bound, as pools peak at different times.
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        RunEvent event = new RunEvent();
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.rows = rows;
+            event.bytes = bytes;
+            event.rowsAfterTargetDate = rowsAfterTargetDate;
+            event.distinctKeys = distinctKeys;
+            event.peakHeapBytes = peakHeapBytes;
+            event.commit();
+        }
+    }
+
+    public synchronized String toJson() {
+        double seconds = wallNanos / 1e9;
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"file\": ").append(quote(file)).append(",\n");
+        json.append("  \"wallMillis\": ").append(millis(wallNanos)).append(",\n");
+        json.append("  \"rows\": ").append(rows).append(",\n");
+        json.append("  \"bytes\": ").append(bytes).append(",\n");
+        json.append("  \"rowsPerSecond\": ").append(Math.round(rows / seconds)).append(",\n");
+        json.append("  \"bytesPerSecond\": ").append(Math.round(bytes / seconds)).append(",\n");
+        json.append("  \"rowsAfterTargetDate\": ").append(rowsAfterTargetDate).append(",\n");
+        json.append("  \"distinctKeys\": ").append(distinctKeys).append(",\n");
+        json.append("  \"peakHeapBytes\": ").append(peakHeapBytes).append(",\n");
+        json.append("  \"stages\": {");
+        String separator = "\n";
+        for (Map.Entry<String, long[]> stage : stages.entrySet()) {
+            json.append(separator).append("    ").append(quote(stage.getKey()))
+                    .append(": {\"wallMillis\": ").append(millis(stage.getValue()[0]))
+                    .append(", \"allocatedBytes\": ").append(stage.getValue()[1]).append('}');
+            separator = ",\n";
+        }
+        json.append(stages.isEmpty() ? "}\n" : "\n  }\n").append("}\n");
+        return json.toString();
+    }
+
+    // Writes the JSON report to standard error ("-") or to a file.
+    public void report(String target) {
+        if (target.equals("-")) {
+            System.err.print(toJson());
+            System.err.flush();
+            return;
+        }
+        try {
+            Files.writeString(Path.of(target), toJson());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write stats: " + target, e);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,21 @@
+package vesting.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One stage of a run, committed when the stage ends. Its duration includes the
+// stages nested inside it (parsing runs inside calculation); the allocation does not.
+@Name("vesting.Stage")
+@Label("Vesting Stage")
+@Category("Vesting")
+public final class StageEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -2,54 +2,67 @@ package vesting.validation;
 
 import vesting.model.CancelEvent;
 import vesting.model.EmployeeAwardKey;
-import vesting.model.VestEvent;
+import vesting.model.KeyIndex;
 import vesting.model.VestingEvent;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
+// Keys are checked in key order, so with several invalid keys the error is always
+// that of the lowest one, as in the ledger-based engines.
 public final class CancellationValidator implements EventValidator {
 
     @Override
     public void validate(List<VestingEvent> events) {
-        Map<EmployeeAwardKey, List<VestingEvent>> grouped = events.stream()
-                .collect(Collectors.groupingBy(VestingEvent::key));
+        // Group event positions by dense key id instead of hashing a key per event.
+        KeyIndex index = KeyIndex.of(events);
+        KeyIndex.Groups groups = index.groups();
 
-        for (Map.Entry<EmployeeAwardKey, List<VestingEvent>> entry : grouped.entrySet()) {
-            validateAward(entry.getKey(), entry.getValue());
+        VestingEvent[] awardEvents = new VestingEvent[0];
+        for (int id : index.idsInKeyOrder()) {
+            awardEvents = validateAward(events, index, groups, id, awardEvents);
         }
     }
 
-    private void validateAward(EmployeeAwardKey key, List<VestingEvent> events) {
-        List<VestingEvent> sorted = events.stream()
-                .sorted(Comparator.comparing(VestingEvent::date))
-                .toList();
+    // Validates the events of one key id, collected into the given buffer or a larger
+    // one, which is returned for reuse.
+    static VestingEvent[] validateAward(List<VestingEvent> events, KeyIndex index, KeyIndex.Groups groups,
+                                        int id, VestingEvent[] awardEvents) {
+        int[] offsets = groups.offsets();
+        int[] positions = groups.positions();
+        int count = offsets[id + 1] - offsets[id];
+        if (awardEvents.length < count) {
+            awardEvents = new VestingEvent[Math.max(count, awardEvents.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            awardEvents[i] = events.get(positions[offsets[id] + i]);
+        }
+        validateAward(index.key(id), awardEvents, count);
+        return awardEvents;
+    }
 
-        Map<LocalDate, List<VestingEvent>> byDate = sorted.stream()
-                .collect(Collectors.groupingBy(
-                        VestingEvent::date,
-                        LinkedHashMap::new,
-                        Collectors.toList()
-                ));
+    private static void validateAward(EmployeeAwardKey key, VestingEvent[] events, int count) {
+        if (!isDateOrdered(events, count)) {
+            Arrays.sort(events, 0, count, Comparator.comparingLong(VestingEvent::epochDay));
+        }
 
         BigDecimal cumulativeVested = BigDecimal.ZERO;
         BigDecimal cumulativeCancelled = BigDecimal.ZERO;
 
-        for (Map.Entry<LocalDate, List<VestingEvent>> dateEntry : byDate.entrySet()) {
-            LocalDate date = dateEntry.getKey();
+        int i = 0;
+        while (i < count) {
+            long day = events[i].epochDay();
             BigDecimal dayVests = BigDecimal.ZERO;
             BigDecimal dayCancels = BigDecimal.ZERO;
 
-            for (VestingEvent event : dateEntry.getValue()) {
-                if (event instanceof VestEvent) {
-                    dayVests = dayVests.add(event.quantity());
-                } else if (event instanceof CancelEvent) {
-                    dayCancels = dayCancels.add(event.quantity());
+            for (; i < count && events[i].epochDay() == day; i++) {
+                if (events[i] instanceof CancelEvent) {
+                    dayCancels = dayCancels.add(events[i].quantity());
+                } else {
+                    dayVests = dayVests.add(events[i].quantity());
                 }
             }
 
@@ -60,11 +73,20 @@ public final class CancellationValidator implements EventValidator {
                 throw new IllegalStateException(String.format(
                         "Invalid cancellation for %s/%s on %s: "
                                 + "cumulative cancelled (%s) exceeds cumulative vested (%s)",
-                        key.employeeId(), key.awardId(), date,
+                        key.employeeId(), key.awardId(), LocalDate.ofEpochDay(day),
                         cumulativeCancelled.toPlainString(),
                         cumulativeVested.toPlainString()
                 ));
             }
         }
     }
+
+    private static boolean isDateOrdered(VestingEvent[] events, int count) {
+        for (int i = 1; i < count; i++) {
+            if (events[i].epochDay() < events[i - 1].epochDay()) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
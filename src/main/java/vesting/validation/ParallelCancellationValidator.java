@@ -0,0 +1,114 @@
+package vesting.validation;
+
+import vesting.model.KeyIndex;
+import vesting.model.VestingEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// CancellationValidator with the keys spread over the workers of a ForkJoin pool.
+// Keys are handed out in key order, a chunk at a time, from a shared counter. A
+// worker that finds an invalid cancellation records the key's rank in key order;
+// from then on no worker starts a chunk beyond the lowest recorded rank, and a
+// worker inside a chunk stops at it. Keys below that rank are still checked, since
+// one of them may fail too, so the error reported is that of the lowest invalid key,
+// as with the sequential validator.
+public final class ParallelCancellationValidator implements EventValidator {
+
+    // Below this many events a single worker is faster than splitting the work.
+    private static final int MIN_PARALLEL_EVENTS = 1 << 16;
+    private static final int CHUNK_KEYS = 256;
+
+    // Null for the common pool, which is only looked up once the work is split, so
+    // a short run never initializes it.
+    private final ForkJoinPool pool;
+    private final int minParallelEvents;
+
+    public ParallelCancellationValidator() {
+        this(null, MIN_PARALLEL_EVENTS);
+    }
+
+    public ParallelCancellationValidator(ForkJoinPool pool) {
+        this(pool, MIN_PARALLEL_EVENTS);
+    }
+
+    ParallelCancellationValidator(ForkJoinPool pool, int minParallelEvents) {
+        this.pool = pool;
+        this.minParallelEvents = minParallelEvents;
+    }
+
+    @Override
+    public void validate(List<VestingEvent> events) {
+        int workers = events.size() / Math.max(1, minParallelEvents);
+        if (workers >= 2) {
+            workers = Math.min(pool().getParallelism(), workers);
+        }
+        if (workers < 2) {
+            new CancellationValidator().validate(events);
+            return;
+        }
+
+        KeyIndex index = KeyIndex.of(events);
+        KeyIndex.Groups groups = index.groups();
+        int[] order = index.idsInKeyOrder();
+        Failure failure = new Failure(order.length);
+        AtomicInteger nextChunk = new AtomicInteger();
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(pool().submit(() -> {
+                VestingEvent[] awardEvents = new VestingEvent[0];
+                int from;
+                while ((from = nextChunk.getAndAdd(CHUNK_KEYS)) < failure.rank()) {
+                    int to = Math.min(from + CHUNK_KEYS, order.length);
+                    for (int rank = from; rank < to && rank < failure.rank(); rank++) {
+                        try {
+                            awardEvents = CancellationValidator.validateAward(events, index, groups,
+                                    order[rank], awardEvents);
+                        } catch (IllegalStateException e) {
+                            failure.record(rank, e);
+                            break;
+                        }
+                    }
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+        failure.rethrow();
+    }
+
+    private ForkJoinPool pool() {
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    // The invalid key of lowest rank found so far.
+    private static final class Failure {
+
+        private final AtomicInteger rank;
+        private IllegalStateException error;
+
+        private Failure(int keyCount) {
+            this.rank = new AtomicInteger(keyCount);
+        }
+
+        private int rank() {
+            return rank.get();
+        }
+
+        private synchronized void record(int failedRank, IllegalStateException failedError) {
+            if (failedRank < rank.get()) {
+                error = failedError;
+                rank.set(failedRank);
+            }
+        }
+
+        private synchronized void rethrow() {
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package vesting;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import vesting.calculator.CumulativeVestingCalculator;
 import vesting.calculator.VestingCalculator;
+import vesting.formatter.ChannelOutputFormatter;
 import vesting.formatter.CsvOutputFormatter;
 import vesting.formatter.OutputFormatter;
 import vesting.parser.CsvEventParser;
@@ -12,15 +14,24 @@ import vesting.validation.CancellationValidator;
 import vesting.validation.EventValidator;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class VestingAppIntegrationTest {
 
+    @TempDir
+    Path tempDir;
+
     private String runApp(String resourceFile, LocalDate targetDate, int precision) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintStream ps = new PrintStream(baos);
@@ -155,4 +166,49 @@ class VestingAppIntegrationTest {
 
         assertEquals(expected, output);
     }
+
+    @Test
+    void lenient_validationFailureAfterSkippedLine_stillReportsRejects() throws IOException {
+        // Skipping the second vest leaves the cancel larger than what vested.
+        Path input = tempDir.resolve("events.csv");
+        Files.write(input, List.of(
+                "VEST,E001,Alice Smith,ISO-001,2020-01-01,10",
+                "VEST,E001,Alice Smith,ISO-001,2020-13-01,40",
+                "CANCEL,E001,Alice Smith,ISO-001,2020-06-01,50"));
+        Path report = tempDir.resolve("rejects.txt");
+
+        int status = VestingApp.launch(new String[]{"--lenient=" + report,
+                "--output=" + tempDir.resolve("out.csv"), input.toString(), "2021-01-01"});
+
+        assertEquals(1, status);
+        String summary = Files.readString(report);
+        assertTrue(summary.startsWith("Rejected 1 of 3 lines"), summary);
+        assertTrue(summary.contains(input + ":2: invalid date format '2020-13-01'"), summary);
+    }
+
+    @Test
+    void output_nonAsciiName_encodedAsStandardOutputIs() throws IOException {
+        Path input = tempDir.resolve("events.csv");
+        Files.write(input, List.of("VEST,E001,Zoë Ørsted,ISO-001,2020-01-01,10"));
+        Path output = tempDir.resolve("out.csv");
+        // A standard output charset other than the default, so a file written in the
+        // default charset would differ.
+        Charset charset = Charset.defaultCharset().equals(StandardCharsets.UTF_8)
+                ? StandardCharsets.ISO_8859_1
+                : StandardCharsets.UTF_8;
+        String previous = System.setProperty("stdout.encoding", charset.name());
+        try {
+            assertEquals(charset, ChannelOutputFormatter.standardOutputCharset());
+            assertEquals(0, VestingApp.launch(new String[]{"--output=" + output, input.toString(), "2021-01-01"}));
+        } finally {
+            if (previous != null) {
+                System.setProperty("stdout.encoding", previous);
+            } else {
+                System.clearProperty("stdout.encoding");
+            }
+        }
+
+        assertArrayEquals(("E001,Zoë Ørsted,ISO-001,10" + System.lineSeparator()).getBytes(charset),
+                Files.readAllBytes(output));
+    }
 }
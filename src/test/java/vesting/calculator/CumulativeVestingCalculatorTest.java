@@ -1,16 +1,29 @@
 package vesting.calculator;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import vesting.model.CancelEvent;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.KeyIndex;
 import vesting.model.VestEvent;
 import vesting.model.VestingEvent;
 import vesting.model.VestingSummary;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
 import vesting.precision.PrecisionHandler;
 import vesting.validation.CancellationValidator;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -19,6 +32,9 @@ class CumulativeVestingCalculatorTest {
     private final CumulativeVestingCalculator calculator =
             new CumulativeVestingCalculator(new CancellationValidator());
 
+    @TempDir
+    Path tempDir;
+
     private VestEvent vest(String empId, String name, String awardId, String date, String qty) {
         return new VestEvent(empId, name, awardId, LocalDate.parse(date), new BigDecimal(qty));
     }
@@ -106,6 +122,25 @@ class CumulativeVestingCalculatorTest {
         assertSummary(result.get(0), "E001", "Alice Smith", "ISO-001", "0");
     }
 
+    @Test
+    void parserPushdown_matchesFullEventList() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.writeString(file, String.join("\n",
+                "VEST,E002,Bob,B1,2021-01-01,5",
+                "VEST,E001,Alice,A1,2020-01-01,10.75",
+                "VEST,E001,Alice Smith,A1,2022-01-01,10",
+                "CANCEL,E001,Alice,A1,2020-03-01,0.5",
+                "VEST,E003,Carol,C1,2023-01-01,1e2",
+                "VEST,E001,Alice Jones,A1,2030-01-01,3"));
+        CsvEventParser parser = new CsvEventParser(new CsvLineParser());
+
+        for (LocalDate date : List.of(LocalDate.of(2019, 1, 1), LocalDate.of(2020, 6, 1), LocalDate.of(2040, 1, 1))) {
+            PrecisionHandler precision = new PrecisionHandler(1);
+            assertEquals(calculator.calculate(parser.parse(file.toString(), precision), date, precision),
+                    calculator.calculate(parser, file.toString(), date, precision), date.toString());
+        }
+    }
+
     @Test
     void targetDateInclusive() {
         List<VestingEvent> events = List.of(
@@ -141,6 +176,101 @@ class CumulativeVestingCalculatorTest {
         assertEquals("B2", result.get(2).awardId());
     }
 
+    @Test
+    void parallelWorkers_matchExactSequentialSums() {
+        Random random = new Random(5);
+        List<VestingEvent> events = new ArrayList<>();
+        Map<EmployeeAwardKey, BigDecimal> expected = new TreeMap<>();
+        LocalDate targetDate = LocalDate.of(2021, 1, 1);
+        for (int i = 0; i < 50_000; i++) {
+            // Heavily skewed: half of all events hit one key.
+            String emp = random.nextBoolean() ? "E0" : "E" + random.nextInt(500);
+            LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(600));
+            BigDecimal qty = switch (random.nextInt(50)) {
+                case 0 -> new BigDecimal("9223372036854775807.5");
+                case 1 -> new BigDecimal("0.0000001");
+                default -> BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            };
+            boolean cancel = random.nextInt(5) == 0;
+            VestingEvent event = cancel ? cancel(emp, "N" + emp, "A", date.toString(), qty.toPlainString())
+                    : vest(emp, "N" + emp, "A", date.toString(), qty.toPlainString());
+            events.add(event);
+            BigDecimal signed = !date.isAfter(targetDate) ? (cancel ? qty.negate() : qty) : BigDecimal.ZERO;
+            expected.merge(event.key(), signed, BigDecimal::add);
+        }
+        // Sums only; cancellations are not meant to be valid here.
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int precision = 0; precision <= 6; precision += 3) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                List<VestingSummary> result = new CumulativeVestingCalculator(e -> { }, pool, 1000)
+                        .calculate(events, targetDate, handler);
+
+                assertEquals(new CumulativeVestingCalculator(e -> { }, pool, Integer.MAX_VALUE)
+                        .calculate(events, targetDate, handler), result);
+                assertEquals(expected.size(), result.size());
+                int i = 0;
+                for (Map.Entry<EmployeeAwardKey, BigDecimal> entry : expected.entrySet()) {
+                    assertEquals(entry.getKey().employeeId(), result.get(i).employeeId());
+                    assertEquals(handler.truncate(entry.getValue()), result.get(i++).totalSharesVested());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelWorkers_moreWorkersThanKeys() {
+        List<VestingEvent> events = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            events.add(vest(i % 3 == 0 ? "E2" : "E1", "Name", "A", "2020-01-01", "1.5"));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<VestingSummary> result = new CumulativeVestingCalculator(e -> { }, pool, 100)
+                    .calculate(events, LocalDate.of(2021, 1, 1), new PrecisionHandler(1));
+
+            assertEquals(2, result.size());
+            assertEquals(new BigDecimal("9999.0"), result.get(0).totalSharesVested());
+            assertEquals(new BigDecimal("5001.0"), result.get(1).totalSharesVested());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelWorkers_splitHotKeyByEvents() {
+        // Half of all events hit E0; the other half spread over 1000 keys.
+        List<VestingEvent> events = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            String emp = i % 2 == 0 ? "E0" : "E" + (1 + i % 1000);
+            events.add(vest(emp, "N", "A", "2020-01-01", "1"));
+        }
+        KeyIndex index = KeyIndex.of(events);
+        int hot = index.id(0);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PartialTotals[] partials = new CumulativeVestingCalculator(e -> { }, pool, 100)
+                    .sumSlices(events, index, LocalDate.of(2021, 1, 1).toEpochDay(), 0);
+
+            assertEquals(4, partials.length);
+            BigDecimal[] totals = new BigDecimal[index.size()];
+            for (PartialTotals partial : partials) {
+                assertEquals(10_000, partial.events());
+                // The hot key plus the 500 other keys of the odd positions.
+                assertEquals(501, partial.size());
+                BigDecimal[] own = new BigDecimal[index.size()];
+                PartialTotals.merge(new PartialTotals[]{partial}, 0, own.length, own);
+                assertEquals(new BigDecimal(5_000), own[hot]);
+            }
+            PartialTotals.merge(partials, 0, totals.length, totals);
+            assertEquals(new BigDecimal(20_000), totals[hot]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     private void assertSummary(VestingSummary summary, String empId, String name,
                                String awardId, String totalShares) {
         assertEquals(empId, summary.employeeId());
@@ -0,0 +1,79 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import vesting.model.CancelEvent;
+import vesting.model.VestEvent;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FusedVestingCalculatorTest {
+
+    private final FusedVestingCalculator calculator = new FusedVestingCalculator();
+    private final CumulativeVestingCalculator standard =
+            new CumulativeVestingCalculator(new CancellationValidator());
+
+    @Test
+    void randomValidEvents_matchStandardEngine() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<VestingEvent> events = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String emp = "E" + random.nextInt(5);
+                String award = "A" + random.nextInt(4);
+                LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(400));
+                BigDecimal qty = BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(4));
+                events.add(new VestEvent(emp, "Name " + emp, award, date, qty.add(BigDecimal.valueOf(1000))));
+                if (random.nextInt(4) == 0) {
+                    // Cancel a small amount on a later date, which can never exceed what vested.
+                    events.add(new CancelEvent(emp, "Name " + emp, award, date.plusDays(random.nextInt(30)), qty));
+                }
+            }
+            Collections.shuffle(events, random);
+
+            int precision = random.nextInt(7);
+            LocalDate target = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(450));
+            PrecisionHandler handler = new PrecisionHandler(precision);
+
+            assertEquals(standard.calculate(events, target, handler),
+                    calculator.calculate(events, target, handler));
+        }
+    }
+
+    @Test
+    void outOfOrderDays_validatedInDateOrder() {
+        List<VestingEvent> events = List.of(
+                new VestEvent("E001", "Alice", "A1", LocalDate.of(2020, 3, 1), new BigDecimal("100")),
+                new CancelEvent("E001", "Alice", "A1", LocalDate.of(2020, 2, 1), new BigDecimal("50")),
+                new VestEvent("E001", "Alice", "A1", LocalDate.of(2020, 1, 1), new BigDecimal("40"))
+        );
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> calculator.calculate(events, LocalDate.of(2020, 12, 31), new PrecisionHandler(0)));
+        assertEquals("Invalid cancellation for E001/A1 on 2020-02-01: "
+                + "cumulative cancelled (50) exceeds cumulative vested (40)", ex.getMessage());
+    }
+
+    @Test
+    void violationAfterTargetDate_ignored() {
+        List<VestingEvent> events = List.of(
+                new VestEvent("E001", "Alice", "A1", LocalDate.of(2020, 1, 1), new BigDecimal("40")),
+                new CancelEvent("E001", "Alice", "A1", LocalDate.of(2021, 2, 1), new BigDecimal("50"))
+        );
+
+        List<VestingSummary> result = calculator.calculate(events,
+                LocalDate.of(2020, 12, 31), new PrecisionHandler(0));
+        assertEquals(new VestingSummary("E001", "Alice", "A1", new BigDecimal("40")), result.get(0));
+    }
+}
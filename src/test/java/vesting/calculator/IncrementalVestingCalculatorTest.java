@@ -0,0 +1,144 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.VestingSummary;
+import vesting.parser.ByteCsvEventParser;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalVestingCalculatorTest {
+
+    private static final LocalDate TARGET = LocalDate.of(2021, 2, 1);
+
+    private final IncrementalVestingCalculator calculator =
+            new IncrementalVestingCalculator(new ByteCsvEventParser(new CsvLineParser()));
+    private final CumulativeVestingCalculator standard =
+            new CumulativeVestingCalculator(new CancellationValidator());
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+
+    @TempDir
+    Path dir;
+
+    private List<VestingSummary> run(Path file, Path checkpoint, PrecisionHandler handler) {
+        List<VestingSummary> result = new ArrayList<>();
+        calculator.calculate(file.toString(), List.of(TARGET), handler, checkpoint,
+                (asOf, summaries) -> result.addAll(summaries));
+        return result;
+    }
+
+    private void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void appendedLines_matchFullRecalculation() throws IOException {
+        Path file = dir.resolve("events.csv");
+        Path checkpoint = dir.resolve("events.ckpt");
+        PrecisionHandler handler = new PrecisionHandler(1);
+        List<String> appends = List.of(
+                "VEST,E001,Alice Smith,ISO-001,2020-01-01,1000.5\n",
+                // The partial last line is counted but not checkpointed, so it is re-read in full later.
+                "VEST,E002,Bobby Jones,ISO-002,2020-01-01,23",
+                "4\nCANCEL,E001,Alice Smith,ISO-001,2021-02-01,700.75\r",
+                "\nVEST,E001,Alice B. Smith,ISO-001,2020-06-01,10.25\n\n",
+                "VEST,E003,Cara Diaz,ISO-003,2022-01-01,5\n");
+
+        for (String text : appends) {
+            append(file, text);
+            assertEquals(standard.calculate(parser, file.toString(), TARGET, handler),
+                    run(file, checkpoint, handler), "after appending " + text);
+        }
+        assertTrue(Files.exists(checkpoint));
+    }
+
+    @Test
+    void longFields_roundTripThroughCheckpoint() throws IOException {
+        Path file = dir.resolve("events.csv");
+        Path checkpoint = dir.resolve("events.ckpt");
+        PrecisionHandler handler = new PrecisionHandler(0);
+        String name = "Alice " + "é".repeat(40_000);
+        append(file, "VEST,E001," + name + ",ISO-001,2020-01-01,10\n");
+        run(file, checkpoint, handler);
+
+        append(file, "CANCEL,E001," + name + ",ISO-001,2020-06-01,4\n");
+        assertEquals(List.of(new VestingSummary("E001", name, "ISO-001", new BigDecimal("6"))),
+                run(file, checkpoint, handler));
+    }
+
+    @Test
+    void rewrittenOrTruncatedFile_rebuildsFromScratch() throws IOException {
+        Path file = dir.resolve("events.csv");
+        Path checkpoint = dir.resolve("events.ckpt");
+        PrecisionHandler handler = new PrecisionHandler(0);
+
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,100\nVEST,E002,Bob,B1,2020-01-01,200\n");
+        run(file, checkpoint, handler);
+
+        // Same length, different content.
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,300\nVEST,E002,Bob,B1,2020-01-01,400\n");
+        assertEquals(standard.calculate(parser, file.toString(), TARGET, handler), run(file, checkpoint, handler));
+
+        Files.writeString(file, "VEST,E009,Zed,Z1,2020-01-01,1\n");
+        assertEquals(standard.calculate(parser, file.toString(), TARGET, handler), run(file, checkpoint, handler));
+    }
+
+    @Test
+    void checkpointAtOtherPrecision_isIgnored() throws IOException {
+        Path file = dir.resolve("events.csv");
+        Path checkpoint = dir.resolve("events.ckpt");
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,100.55\n");
+
+        run(file, checkpoint, new PrecisionHandler(2));
+        append(file, "CANCEL,E001,Alice,A1,2020-02-01,0.55\n");
+
+        PrecisionHandler handler = new PrecisionHandler(0);
+        assertEquals(standard.calculate(parser, file.toString(), TARGET, handler), run(file, checkpoint, handler));
+    }
+
+    @Test
+    void invalidAppendedLine_reportsGlobalLineNumber() throws IOException {
+        Path file = dir.resolve("events.csv");
+        Path checkpoint = dir.resolve("events.ckpt");
+        PrecisionHandler handler = new PrecisionHandler(0);
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,100\n\nVEST,E001,Alice,A1,2020-01-02,100\n");
+        run(file, checkpoint, handler);
+
+        append(file, "VEST,E001,Alice,A1,2020-01-03,abc\n");
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> run(file, checkpoint, handler));
+        assertEquals("Line 4: invalid quantity 'abc'", ex.getMessage());
+    }
+
+    @Test
+    void appendedInvalidCancellation_detected() throws IOException {
+        Path file = dir.resolve("events.csv");
+        Path checkpoint = dir.resolve("events.ckpt");
+        PrecisionHandler handler = new PrecisionHandler(0);
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,100\n");
+        run(file, checkpoint, handler);
+
+        append(file, "CANCEL,E001,Alice,A1,2020-01-01,150\n");
+        IllegalStateException expected = assertThrows(IllegalStateException.class,
+                () -> standard.calculate(parser, file.toString(), TARGET, handler));
+        IllegalStateException actual = assertThrows(IllegalStateException.class,
+                () -> run(file, checkpoint, handler));
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+}
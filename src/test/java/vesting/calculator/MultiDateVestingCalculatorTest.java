@@ -0,0 +1,89 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.VestingSummary;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiDateVestingCalculatorTest {
+
+    private final MultiDateVestingCalculator calculator = new MultiDateVestingCalculator();
+    private final CumulativeVestingCalculator standard =
+            new CumulativeVestingCalculator(new CancellationValidator());
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+
+    private String testResourcePath(String filename) {
+        return Path.of("src", "test", "resources", filename).toString();
+    }
+
+    @Test
+    void eachBlock_matchesSingleDateRun() {
+        List<String> files = List.of("example1.csv", "example2.csv", "example3.csv",
+                "edge_many_awards.csv", "edge_same_day_cancel.csv", "edge_single_event.csv");
+        List<LocalDate> dates = List.of(LocalDate.of(2019, 12, 31), LocalDate.of(2020, 1, 1),
+                LocalDate.of(2020, 4, 1), LocalDate.of(2021, 1, 31), LocalDate.of(2021, 2, 1),
+                LocalDate.of(2030, 1, 1));
+
+        for (String file : files) {
+            for (int precision = 0; precision <= 2; precision++) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                String path = testResourcePath(file);
+                Map<LocalDate, List<VestingSummary>> blocks = new LinkedHashMap<>();
+
+                calculator.calculate(parser, path, dates, handler, blocks::put);
+
+                assertEquals(dates, new ArrayList<>(blocks.keySet()));
+                for (LocalDate date : dates) {
+                    assertEquals(standard.calculate(parser, path, date, handler), blocks.get(date),
+                            file + " as of " + date + " at precision " + precision);
+                }
+            }
+        }
+    }
+
+    @Test
+    void datesOutOfOrder_areEmittedAscending() {
+        List<LocalDate> emitted = new ArrayList<>();
+        calculator.calculate(parser, testResourcePath("example1.csv"),
+                List.of(LocalDate.of(2021, 1, 1), LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1)),
+                new PrecisionHandler(0), (date, summaries) -> emitted.add(date));
+
+        assertEquals(List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1)), emitted);
+    }
+
+    @Test
+    void invalidCancellation_reportedOnlyFromItsDate(@TempDir Path dir)
+            throws IOException {
+        Path file = dir.resolve("late_cancel.csv");
+        Files.writeString(file, String.join("\n",
+                "VEST,E001,Alice Smith,ISO-001,2020-01-01,100",
+                "CANCEL,E001,Alice Smith,ISO-001,2020-06-01,150",
+                "VEST,E001,Alice Smith,ISO-001,2020-12-01,100"));
+        List<LocalDate> emitted = new ArrayList<>();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> calculator.calculate(parser, file.toString(),
+                        List.of(LocalDate.of(2020, 3, 1), LocalDate.of(2020, 6, 1), LocalDate.of(2020, 12, 1)),
+                        new PrecisionHandler(0), (date, summaries) -> emitted.add(date)));
+
+        assertEquals(List.of(LocalDate.of(2020, 3, 1)), emitted);
+        assertTrue(ex.getMessage().contains("E001/ISO-001 on 2020-06-01"));
+    }
+}
@@ -0,0 +1,178 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingSummary;
+import vesting.parser.ByteCsvEventParser;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiFileVestingCalculatorTest {
+
+    private final MultiFileVestingCalculator calculator = new MultiFileVestingCalculator(4);
+    private final CumulativeVestingCalculator standard =
+            new CumulativeVestingCalculator(new CancellationValidator());
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+
+    @TempDir
+    Path tempDir;
+
+    private Map<LocalDate, List<VestingSummary>> calculate(EventParser eventParser, List<Path> files,
+                                                           List<LocalDate> dates, int precision) {
+        Map<LocalDate, List<VestingSummary>> blocks = new LinkedHashMap<>();
+        calculator.calculate(eventParser, files, dates, new PrecisionHandler(precision), blocks::put);
+        return blocks;
+    }
+
+    // Writes the lines round-robin in runs of `run` lines over `shards` files, so
+    // each key's events are spread over several files.
+    private List<Path> shard(List<String> lines, int shards, int run) throws IOException {
+        List<List<String>> parts = new ArrayList<>();
+        for (int s = 0; s < shards; s++) {
+            parts.add(new ArrayList<>());
+        }
+        List<Path> files = new ArrayList<>();
+        List<String> ordered = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            parts.get(i / run % shards).add(lines.get(i));
+        }
+        for (int s = 0; s < shards; s++) {
+            Path file = tempDir.resolve("shard-" + s + ".csv");
+            Files.write(file, parts.get(s));
+            files.add(file);
+            ordered.addAll(parts.get(s));
+        }
+        Files.write(tempDir.resolve("all.txt"), ordered);
+        return files;
+    }
+
+    @Test
+    void shardedInput_matchesConcatenatedFile() throws IOException {
+        Random random = new Random(21);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int emp = random.nextInt(300);
+            LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(700));
+            lines.add("VEST,E" + emp + ",Name " + emp + " v" + random.nextInt(3) + ",A" + (emp % 4) + "," + date
+                    + "," + BigDecimal.valueOf(random.nextInt(100_000) + 10_000, 2).toPlainString());
+            if (random.nextInt(5) == 0) {
+                lines.add("CANCEL,E" + emp + ",Name " + emp + ",A" + (emp % 4) + "," + date
+                        + "," + BigDecimal.valueOf(random.nextInt(10_000), 2).toPlainString());
+            }
+        }
+        List<Path> files = shard(lines, 7, 50);
+        String concatenated = tempDir.resolve("all.txt").toString();
+        List<LocalDate> dates = List.of(LocalDate.of(2020, 6, 1), LocalDate.of(2021, 1, 1), LocalDate.of(2022, 6, 1));
+
+        for (EventParser eventParser : List.of(parser, new ByteCsvEventParser(new CsvLineParser()))) {
+            for (int precision : new int[]{0, 2}) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                Map<LocalDate, List<VestingSummary>> blocks = calculate(eventParser, files, dates, precision);
+                assertEquals(dates, List.copyOf(blocks.keySet()));
+                for (LocalDate date : dates) {
+                    assertEquals(standard.calculate(parser, concatenated, date, handler), blocks.get(date),
+                            date + " at precision " + precision);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cancellationInLaterFile_validatedAgainstEarlierVests() throws IOException {
+        Path first = tempDir.resolve("a.csv");
+        Path second = tempDir.resolve("b.csv");
+        Files.writeString(first, "VEST,E001,Alice,A1,2020-01-01,10\nVEST,E002,Bob,B1,2020-01-01,5\n");
+        Files.writeString(second, "CANCEL,E001,Alice,A1,2020-02-01,4\nCANCEL,E002,Bob,B1,2019-12-31,1\n");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> calculate(parser, List.of(first, second), List.of(LocalDate.of(2021, 1, 1)), 0));
+        assertEquals("Invalid cancellation for E002/B1 on 2019-12-31: "
+                + "cumulative cancelled (1) exceeds cumulative vested (0)", ex.getMessage());
+
+        Files.writeString(second, "CANCEL,E001,Alice Smith,A1,2020-02-01,4\n");
+        List<VestingSummary> result = calculate(parser, List.of(first, second),
+                List.of(LocalDate.of(2021, 1, 1)), 0).get(LocalDate.of(2021, 1, 1));
+        assertEquals(List.of(
+                new VestingSummary("E001", "Alice Smith", "A1", new BigDecimal("6")),
+                new VestingSummary("E002", "Bob", "B1", new BigDecimal("5"))), result);
+    }
+
+    @Test
+    void invalidLine_reportsEarliestFailingFile() throws IOException {
+        Path first = tempDir.resolve("a.csv");
+        Path second = tempDir.resolve("b.csv");
+        Path third = tempDir.resolve("c.csv");
+        Files.writeString(first, "VEST,E001,Alice,A1,2020-01-01,10\n");
+        Files.writeString(second, "VEST,E001,Alice,A1,2020-01-01,10\nVEST,E001,Alice,A1,2020-01-01,x\n");
+        Files.writeString(third, "bad line\n");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> calculate(parser, List.of(first, second, third), List.of(LocalDate.of(2021, 1, 1)), 0));
+        assertEquals(second + ": Line 2: invalid quantity 'x'", ex.getMessage());
+    }
+
+    @Test
+    void invalidLine_stopsReadersOfLaterFiles() throws IOException {
+        Path first = tempDir.resolve("a.csv");
+        Path second = tempDir.resolve("b.csv");
+        Files.writeString(first, "bad line\n");
+        Files.writeString(second, "endless\n");
+        CountDownLatch endlessStarted = new CountDownLatch(1);
+        AtomicBoolean endlessStopped = new AtomicBoolean();
+        // Fails the first file once the second is being read, and streams events
+        // from the second until its reader is told to stop.
+        EventParser endless = (filename, precisionHandler, sink) -> {
+            if (filename.equals(first.toString())) {
+                awaitUninterruptibly(endlessStarted);
+                sink.reject(1, "bad", "bad line");
+            }
+            endlessStarted.countDown();
+            EmployeeAwardKey key = new EmployeeAwardKey("E001", "A1");
+            try {
+                while (true) {
+                    sink.accept(EventType.VEST, key, "Alice", 0, 1, 0);
+                }
+            } finally {
+                endlessStopped.set(true);
+            }
+        };
+
+        IllegalArgumentException ex = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(
+                IllegalArgumentException.class,
+                () -> calculate(endless, List.of(first, second), List.of(LocalDate.of(2021, 1, 1)), 0)));
+        assertEquals(first + ": Line 1: bad", ex.getMessage());
+        assertTrue(endlessStopped.get());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.VestingSummary;
+import vesting.parser.ByteCsvEventParser;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapAccumulatorTest {
+
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+    private final EventParser byteParser = new ByteCsvEventParser(new CsvLineParser());
+    private final StreamingVestingCalculator onHeap = new StreamingVestingCalculator(Long.MAX_VALUE);
+    private final StreamingVestingCalculator offHeap = new StreamingVestingCalculator(0);
+
+    @TempDir
+    Path dir;
+
+    private String testResourcePath(String filename) {
+        return Path.of("src", "test", "resources", filename).toString();
+    }
+
+    @Test
+    void resourceFiles_matchHeapAccumulator() {
+        List<String> files = List.of("example1.csv", "example2.csv", "example3.csv",
+                "edge_empty.csv", "edge_many_awards.csv", "edge_same_day_cancel.csv", "edge_single_event.csv");
+        for (String file : files) {
+            for (int precision = 0; precision <= 2; precision++) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                String path = testResourcePath(file);
+                for (LocalDate date : List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 2, 1))) {
+                    assertEquals(onHeap.calculate(parser, path, date, handler),
+                            offHeap.calculate(byteParser, path, date, handler), file + " as of " + date);
+                }
+            }
+        }
+    }
+
+    @Test
+    void manyKeys_outOfOrderDates_matchHeapAccumulator() throws IOException {
+        Random random = new Random(17);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 400_000; i++) {
+            int emp = random.nextInt(150_000);
+            LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(800));
+            lines.add("VEST,E" + emp + ",Name " + emp + " " + (i / 100_000) + ",A" + (emp % 3) + "," + date
+                    + "," + BigDecimal.valueOf(random.nextInt(100_000) + 10_000, 2).toPlainString());
+            if (random.nextInt(4) == 0) {
+                lines.add("CANCEL,E" + emp + ",Name " + emp + ",A" + (emp % 3) + "," + date.plusDays(random.nextInt(5))
+                        + "," + BigDecimal.valueOf(random.nextInt(10_000), 2).toPlainString());
+            }
+        }
+        Path file = dir.resolve("many.csv");
+        Files.write(file, lines);
+
+        for (int precision : new int[]{0, 2}) {
+            PrecisionHandler handler = new PrecisionHandler(precision);
+            LocalDate date = LocalDate.of(2021, 3, 1);
+            List<VestingSummary> expected = onHeap.calculate(byteParser, file.toString(), date, handler);
+            assertTrue(expected.size() > 100_000);
+            assertEquals(expected, offHeap.calculate(byteParser, file.toString(), date, handler));
+        }
+    }
+
+    @Test
+    void keyTable_growsPastOneChunk() {
+        // 1M keys need 2^21 slots, two chunks of the table.
+        OffHeapAccumulator accumulator = new OffHeapAccumulator(LocalDate.of(2020, 1, 1), new PrecisionHandler(0));
+        int keyCount = 1_000_000;
+        for (int i = 0; i < keyCount; i++) {
+            accumulator.register(new EmployeeAwardKey("E" + i, "A"), "N");
+        }
+        for (int i = 0; i < keyCount; i += 999) {
+            accumulator.register(new EmployeeAwardKey("E" + i, "A"), "N");
+        }
+
+        assertEquals(keyCount, accumulator.keyCount());
+    }
+
+    @Test
+    void invalidCancellation_sameMessageAsHeapAccumulator() throws IOException {
+        Path file = dir.resolve("invalid.csv");
+        Files.writeString(file, String.join("\n",
+                "VEST,E002,Bob,B1,2020-03-01,10.5",
+                "CANCEL,E002,Bob,B1,2020-02-01,1",
+                "VEST,E001,Alice,A1,2020-01-01,10",
+                "CANCEL,E001,Alice,A1,2020-01-01,5",
+                "CANCEL,E001,Alice,A1,2020-02-01,6"));
+
+        for (int precision = 0; precision <= 2; precision++) {
+            PrecisionHandler handler = new PrecisionHandler(precision);
+            LocalDate date = LocalDate.of(2021, 1, 1);
+            IllegalStateException expected = assertThrows(IllegalStateException.class,
+                    () -> onHeap.calculate(parser, file.toString(), date, handler));
+            IllegalStateException actual = assertThrows(IllegalStateException.class,
+                    () -> offHeap.calculate(byteParser, file.toString(), date, handler));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    void sumsBeyondLong_fallBackToExactLedger() throws IOException {
+        Path file = dir.resolve("huge.csv");
+        Files.writeString(file, String.join("\n",
+                "VEST,E001,Alice,A1,2020-01-01,9000000000000000000",
+                "VEST,E001,Alice,A1,2020-01-02,9000000000000000000",
+                "VEST,E002,Bob,B1,2020-01-01,1"));
+        PrecisionHandler handler = new PrecisionHandler(0);
+        LocalDate date = LocalDate.of(2021, 1, 1);
+
+        List<VestingSummary> result = offHeap.calculate(parser, file.toString(), date, handler);
+
+        assertEquals(onHeap.calculate(parser, file.toString(), date, handler), result);
+        assertEquals(new BigDecimal("18000000000000000000"), result.get(0).totalSharesVested());
+    }
+
+    @Test
+    void keyCountEstimate_exactForSmallFiles_andScaledForLargeOnes() throws IOException {
+        assertEquals(4, KeyCountEstimator.estimate(Path.of(testResourcePath("example1.csv"))));
+        assertEquals(KeyCountEstimator.UNKNOWN, KeyCountEstimator.estimate(dir.resolve("missing.csv")));
+
+        // A sample in which every row is a new key says nothing about repeats.
+        assertEquals(1_000_000, KeyCountEstimator.distinctKeys(1000, 1000, 1_000_000));
+        // 1000 uniform keys sampled 5000 times show nearly all of them.
+        long estimate = KeyCountEstimator.distinctKeys(993, 5000, 1_000_000);
+        assertTrue(estimate > 900 && estimate < 1100, "estimate " + estimate);
+    }
+}
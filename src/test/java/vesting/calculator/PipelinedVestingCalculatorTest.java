@@ -0,0 +1,141 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.VestingSummary;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PipelinedVestingCalculatorTest {
+
+    private static final ThreadFactory THREADS = runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+    private final StreamingVestingCalculator streaming = new StreamingVestingCalculator();
+
+    @TempDir
+    Path dir;
+
+    private String testResourcePath(String filename) {
+        return Path.of("src", "test", "resources", filename).toString();
+    }
+
+    // Tiny blocks so that even the example files are split across many blocks.
+    private PipelinedVestingCalculator pipeline(int parsers, int partitions, int blockSize) {
+        return new PipelinedVestingCalculator(new CsvLineParser(), THREADS, parsers, partitions, blockSize);
+    }
+
+    @Test
+    void resourceFiles_matchStreamingEngine() {
+        List<String> files = List.of("example1.csv", "example2.csv", "example3.csv",
+                "edge_empty.csv", "edge_many_awards.csv", "edge_same_day_cancel.csv", "edge_single_event.csv");
+        LocalDate targetDate = LocalDate.of(2021, 2, 1);
+
+        for (String file : files) {
+            for (int precision = 0; precision <= 2; precision++) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                String path = testResourcePath(file);
+                List<VestingSummary> expected = streaming.calculate(parser, path, targetDate, handler);
+
+                assertEquals(expected, pipeline(3, 2, 16).calculate(parser, path, targetDate, handler), file);
+                assertEquals(expected, pipeline(1, 1, 1 << 20).calculate(parser, path, targetDate, handler), file);
+            }
+        }
+    }
+
+    @Test
+    void randomFile_matchesStreamingEngine_withLaterNamesWinning() throws IOException {
+        Random random = new Random(3);
+        StringBuilder csv = new StringBuilder();
+        String[] terminators = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 20_000; i++) {
+            String emp = "E" + random.nextInt(300);
+            LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(700));
+            String qty = BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(3)).toPlainString();
+            // Names change along the file, so only file-order folding gets them right.
+            csv.append("VEST,").append(emp).append(",Name ").append(emp).append(' ').append(i / 1000)
+                    .append(",A").append(random.nextInt(3)).append(',').append(date).append(',')
+                    .append(random.nextInt(50) == 0 ? "1E+2" : qty)
+                    .append(terminators[random.nextInt(terminators.length)]);
+            if (random.nextInt(20) == 0) {
+                csv.append(terminators[random.nextInt(terminators.length)]);
+            }
+        }
+        Path file = dir.resolve("random.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        for (int precision = 0; precision <= 2; precision++) {
+            PrecisionHandler handler = new PrecisionHandler(precision);
+            LocalDate targetDate = LocalDate.of(2021, 1, 1);
+            List<VestingSummary> expected = streaming.calculate(parser, file.toString(), targetDate, handler);
+
+            assertEquals(expected, pipeline(4, 3, 4096).calculate(parser, file.toString(), targetDate, handler));
+            assertEquals(expected, pipeline(2, 1, 100).calculate(parser, file.toString(), targetDate, handler));
+        }
+    }
+
+    @Test
+    void invalidLines_firstInFileReportedWithGlobalLineNumber() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) {
+            csv.append(i == 1234 || i == 4000 ? "VEST,E001,Alice,A1,2020-13-01,10" : "VEST,E001,Alice,A1,2020-01-01,10")
+                    .append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        Path file = dir.resolve("bad.csv");
+        Files.writeString(file, csv);
+        PrecisionHandler handler = new PrecisionHandler(0);
+        LocalDate targetDate = LocalDate.of(2021, 1, 1);
+
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+                () -> streaming.calculate(parser, file.toString(), targetDate, handler));
+        for (int round = 0; round < 20; round++) {
+            IllegalArgumentException actual = assertThrows(IllegalArgumentException.class,
+                    () -> pipeline(4, 2, 512).calculate(parser, file.toString(), targetDate, handler));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    void invalidCancellation_reportedAsByStreamingEngine() throws IOException {
+        Path file = dir.resolve("cancel.csv");
+        Files.writeString(file, String.join("\n",
+                "VEST,E002,Bob,B1,2020-01-01,10",
+                "CANCEL,E002,Bob,B1,2020-02-01,20",
+                "VEST,E001,Alice,A1,2020-01-01,10",
+                "CANCEL,E001,Alice,A1,2020-02-01,20"));
+        PrecisionHandler handler = new PrecisionHandler(0);
+        LocalDate targetDate = LocalDate.of(2021, 1, 1);
+
+        IllegalStateException expected = assertThrows(IllegalStateException.class,
+                () -> streaming.calculate(parser, file.toString(), targetDate, handler));
+        IllegalStateException actual = assertThrows(IllegalStateException.class,
+                () -> pipeline(2, 2, 8).calculate(parser, file.toString(), targetDate, handler));
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    void missingFile_throwsFileError() {
+        assertThrows(UncheckedIOException.class, () -> pipeline(2, 2, 1024).calculate(parser,
+                dir.resolve("missing.csv").toString(), LocalDate.of(2021, 1, 1), new PrecisionHandler(0)));
+    }
+}
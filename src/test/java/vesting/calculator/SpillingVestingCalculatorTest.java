@@ -0,0 +1,157 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.VestingSummary;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillingVestingCalculatorTest {
+
+    private final CumulativeVestingCalculator standard =
+            new CumulativeVestingCalculator(new CancellationValidator());
+    private final EventParser parser = new CsvEventParser(new CsvLineParser(), false);
+
+    @TempDir
+    Path tempDir;
+
+    // A one-byte budget spills at every check and merges two runs at a time.
+    private Map<LocalDate, List<VestingSummary>> calculate(long budget, List<Path> files, List<LocalDate> dates,
+                                                           int precision) throws IOException {
+        Path spills = Files.createDirectories(tempDir.resolve("spills"));
+        Map<LocalDate, List<VestingSummary>> blocks = new LinkedHashMap<>();
+        try {
+            new SpillingVestingCalculator(budget, spills).calculate(parser, files, dates,
+                    new PrecisionHandler(precision),
+                    (asOf, chunk) -> blocks.computeIfAbsent(asOf, date -> new ArrayList<>()).addAll(chunk));
+        } finally {
+            try (Stream<Path> left = Files.list(spills)) {
+                assertEquals(List.of(), left.toList(), "temp files left behind");
+            }
+        }
+        return blocks;
+    }
+
+    private static List<String> randomLines(int count, int employees, long seed) {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int emp = random.nextInt(employees);
+            LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(900));
+            lines.add("VEST,E" + emp + ",Name " + emp + " v" + random.nextInt(3) + ",A" + (emp % 3) + "," + date
+                    + "," + BigDecimal.valueOf(random.nextInt(100_000) + 10_000, 2).toPlainString());
+            if (random.nextInt(6) == 0) {
+                lines.add("CANCEL,E" + emp + ",Name " + emp + ",A" + (emp % 3) + "," + date
+                        + "," + BigDecimal.valueOf(random.nextInt(10_000), 2).toPlainString());
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    void spilledRuns_matchInMemoryResult() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.write(file, randomLines(30_000, 5_000, 22));
+        List<LocalDate> dates = List.of(LocalDate.of(2020, 6, 1), LocalDate.of(2021, 3, 1), LocalDate.of(2022, 6, 1));
+
+        for (long budget : new long[]{1, 1L << 40}) {
+            for (int precision : new int[]{0, 2}) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                Map<LocalDate, List<VestingSummary>> blocks = calculate(budget, List.of(file), dates, precision);
+                assertEquals(dates, List.copyOf(blocks.keySet()));
+                for (LocalDate date : dates) {
+                    assertEquals(standard.calculate(parser, file.toString(), date, handler), blocks.get(date),
+                            date + " with budget " + budget + " at precision " + precision);
+                }
+            }
+        }
+    }
+
+    @Test
+    void spilledRuns_keepInputOrderForNames() throws IOException {
+        List<String> lines = new ArrayList<>(randomLines(10_000, 50, 7));
+        lines.add("VEST,E1,Renamed,A1,2025-01-01,1");
+        Path first = tempDir.resolve("a.csv");
+        Path second = tempDir.resolve("b.csv");
+        Files.write(first, lines);
+        Files.write(second, List.of("CANCEL,E1,Last Name,A1,2020-12-31,0"));
+        LocalDate date = LocalDate.of(2021, 1, 1);
+
+        List<VestingSummary> result = calculate(1, List.of(first, second), List.of(date), 2).get(date);
+        VestingSummary renamed = result.stream()
+                .filter(s -> s.employeeId().equals("E1") && s.awardId().equals("A1"))
+                .findFirst().orElseThrow();
+        assertEquals("Last Name", renamed.employeeName());
+        assertEquals(50, result.size());
+    }
+
+    @Test
+    void fieldsOverSixtyFourKilobytes_surviveSpilling() throws IOException {
+        // Two bytes per character in UTF-8, so well past what writeUTF takes.
+        String id = "E" + "é".repeat(40_000);
+        String name = "Name " + "é".repeat(40_000);
+        List<String> lines = new ArrayList<>(randomLines(10_000, 50, 5));
+        lines.add(0, "VEST," + id + "," + name + ",A1,2020-01-01,7");
+        Path file = tempDir.resolve("events.csv");
+        Files.write(file, lines);
+        LocalDate date = LocalDate.of(2021, 1, 1);
+
+        List<VestingSummary> result = calculate(1, List.of(file), List.of(date), 0).get(date);
+        assertEquals(standard.calculate(parser, file.toString(), date, new PrecisionHandler(0)), result);
+        assertTrue(result.contains(new VestingSummary(id, name, "A1", new BigDecimal("7"))));
+    }
+
+    @Test
+    void invalidCancellation_deliversEarlierDatesAndReportsFirstKey() throws IOException {
+        List<String> lines = new ArrayList<>(randomLines(10_000, 100, 3));
+        lines.add("CANCEL,E99,Late,A0,2021-06-01,1000000");
+        lines.add("CANCEL,E10,Early,A1,2021-06-01,1000000");
+        Path file = tempDir.resolve("events.csv");
+        Files.write(file, lines);
+        LocalDate before = LocalDate.of(2021, 1, 1);
+        LocalDate after = LocalDate.of(2022, 1, 1);
+
+        Map<LocalDate, List<VestingSummary>> blocks = new LinkedHashMap<>();
+        Path spills = Files.createDirectories(tempDir.resolve("spills"));
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new SpillingVestingCalculator(1, spills).calculate(parser, List.of(file),
+                        List.of(before, after), new PrecisionHandler(0),
+                        (asOf, chunk) -> blocks.computeIfAbsent(asOf, date -> new ArrayList<>()).addAll(chunk)));
+        assertTrue(ex.getMessage().startsWith("Invalid cancellation for E10/A1 on 2021-06-01"), ex.getMessage());
+        assertEquals(List.of(before), List.copyOf(blocks.keySet()));
+        assertEquals(standard.calculate(parser, file.toString(), before, new PrecisionHandler(0)),
+                blocks.get(before));
+        try (Stream<Path> left = Files.list(spills)) {
+            assertEquals(0, left.count());
+        }
+    }
+
+    @Test
+    void emptyInput_stillDeliversEachDate() throws IOException {
+        Path file = tempDir.resolve("empty.csv");
+        Files.writeString(file, "");
+        List<LocalDate> dates = List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1));
+
+        Map<LocalDate, List<VestingSummary>> blocks = calculate(1, List.of(file), dates, 0);
+        assertEquals(Map.of(dates.get(0), List.of(), dates.get(1), List.of()), blocks);
+    }
+}
@@ -0,0 +1,177 @@
+package vesting.calculator;
+
+import org.junit.jupiter.api.Test;
+import vesting.model.CancelEvent;
+import vesting.model.VestEvent;
+import vesting.model.VestingEvent;
+import vesting.model.VestingSummary;
+import vesting.parser.ByteCsvEventParser;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingVestingCalculatorTest {
+
+    private final StreamingVestingCalculator calculator = new StreamingVestingCalculator();
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+    private final EventParser byteParser = new ByteCsvEventParser(new CsvLineParser());
+
+    private VestEvent vest(String empId, String name, String awardId, String date, String qty) {
+        return new VestEvent(empId, name, awardId, LocalDate.parse(date), new BigDecimal(qty));
+    }
+
+    private CancelEvent cancel(String empId, String name, String awardId, String date, String qty) {
+        return new CancelEvent(empId, name, awardId, LocalDate.parse(date), new BigDecimal(qty));
+    }
+
+    private String testResourcePath(String filename) {
+        return Path.of("src", "test", "resources", filename).toString();
+    }
+
+    @Test
+    void streamedFile_matchesStandardEngine() {
+        List<String> files = List.of("example1.csv", "example2.csv", "example3.csv",
+                "edge_empty.csv", "edge_many_awards.csv", "edge_same_day_cancel.csv", "edge_single_event.csv");
+        CumulativeVestingCalculator standard = new CumulativeVestingCalculator(new CancellationValidator());
+
+        for (String file : files) {
+            for (int precision = 0; precision <= 2; precision++) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                String path = testResourcePath(file);
+                LocalDate targetDate = LocalDate.of(2021, 2, 1);
+
+                List<VestingSummary> expected = standard.calculate(parser, path, targetDate, handler);
+                List<VestingSummary> actual = calculator.calculate(parser, path, targetDate, handler);
+                List<VestingSummary> viaBytes = calculator.calculate(byteParser, path, targetDate, handler);
+
+                assertEquals(expected, actual, file + " at precision " + precision);
+                assertEquals(expected, viaBytes, file + " at precision " + precision);
+            }
+        }
+    }
+
+    @Test
+    void futureOnlyKeys_reportedWithZero() {
+        List<VestingEvent> events = List.of(
+                vest("E002", "Bob", "B1", "2020-01-01", "100"),
+                vest("E001", "Alice", "A1", "2025-01-01", "500")
+        );
+
+        List<VestingSummary> result = calculator.calculate(events,
+                LocalDate.of(2020, 12, 31), new PrecisionHandler(0));
+
+        assertEquals(2, result.size());
+        assertEquals(new VestingSummary("E001", "Alice", "A1", new BigDecimal("0")), result.get(0));
+        assertEquals(new VestingSummary("E002", "Bob", "B1", new BigDecimal("100")), result.get(1));
+    }
+
+    @Test
+    void laterNameWins() {
+        List<VestingEvent> events = List.of(
+                vest("E001", "Alice", "A1", "2020-01-01", "100"),
+                vest("E001", "Alice Smith", "A1", "2025-01-01", "100")
+        );
+
+        List<VestingSummary> result = calculator.calculate(events,
+                LocalDate.of(2020, 12, 31), new PrecisionHandler(0));
+
+        assertEquals("Alice Smith", result.get(0).employeeName());
+    }
+
+    @Test
+    void outOfOrderDates_validatedChronologically() {
+        // The cancel appears first in the file but is dated after the vest.
+        List<VestingEvent> events = List.of(
+                cancel("E001", "Alice", "A1", "2020-06-01", "400"),
+                vest("E001", "Alice", "A1", "2020-01-01", "500")
+        );
+
+        List<VestingSummary> result = calculator.calculate(events,
+                LocalDate.of(2020, 12, 31), new PrecisionHandler(0));
+
+        assertEquals(0, new BigDecimal("100").compareTo(result.get(0).totalSharesVested()));
+    }
+
+    @Test
+    void cancelExceedingVested_throwsSameMessageAsValidator() {
+        List<VestingEvent> events = List.of(
+                vest("E001", "Alice", "A1", "2020-01-01", "1000"),
+                cancel("E001", "Alice", "A1", "2020-02-01", "1500")
+        );
+
+        IllegalStateException expected = assertThrows(IllegalStateException.class,
+                () -> new CancellationValidator().validate(events));
+        IllegalStateException actual = assertThrows(IllegalStateException.class,
+                () -> calculator.calculate(events, LocalDate.of(2020, 12, 31), new PrecisionHandler(0)));
+
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    void cancelAfterTargetDate_notValidated() {
+        List<VestingEvent> events = List.of(
+                vest("E001", "Alice", "A1", "2020-01-01", "1000"),
+                cancel("E001", "Alice", "A1", "2022-02-01", "1500")
+        );
+
+        List<VestingSummary> result = calculator.calculate(events,
+                LocalDate.of(2020, 12, 31), new PrecisionHandler(0));
+
+        assertTrue(result.get(0).totalSharesVested().compareTo(new BigDecimal("1000")) == 0);
+    }
+
+    @Test
+    void overflowingKey_fallsBackToExactArithmetic() {
+        List<VestingEvent> events = List.of(
+                vest("E001", "Alice", "A1", "2020-01-01", "9000000000000000000"),
+                vest("E001", "Alice", "A1", "2020-01-01", "9000000000000000000"),
+                vest("E001", "Alice", "A1", "2020-02-01", "9000000000000000000"),
+                cancel("E001", "Alice", "A1", "2020-03-01", "1"),
+                vest("E002", "Bob", "B1", "2020-01-01", "5")
+        );
+        assertMatchesStandardEngine(events, 2);
+    }
+
+    @Test
+    void quantitiesFinerThanPrecision_summedBeforeTruncation() {
+        // 0.5 + 0.5 is 1 when summed exactly, but 0 if each were truncated first.
+        List<VestingEvent> events = List.of(
+                vest("E001", "Alice", "A1", "2020-01-01", "0.5"),
+                vest("E001", "Alice", "A1", "2020-01-02", "0.5"),
+                vest("E002", "Bob", "B1", "2020-01-01", "2.25")
+        );
+        assertMatchesStandardEngine(events, 0);
+    }
+
+    @Test
+    void invalidCancellation_messageKeepsInputScale() {
+        List<VestingEvent> events = List.of(
+                vest("E001", "Alice", "A1", "2020-01-01", "10"),
+                cancel("E001", "Alice", "A1", "2020-02-01", "10.5")
+        );
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> calculator.calculate(events, LocalDate.of(2020, 12, 31), new PrecisionHandler(3)));
+        assertEquals("Invalid cancellation for E001/A1 on 2020-02-01: "
+                + "cumulative cancelled (10.5) exceeds cumulative vested (10)", ex.getMessage());
+    }
+
+    private void assertMatchesStandardEngine(List<VestingEvent> events, int precision) {
+        PrecisionHandler handler = new PrecisionHandler(precision);
+        LocalDate targetDate = LocalDate.of(2020, 12, 31);
+        List<VestingSummary> expected = new CumulativeVestingCalculator(new CancellationValidator())
+                .calculate(events, targetDate, handler);
+        assertEquals(expected, calculator.calculate(events, targetDate, handler));
+    }
+}
@@ -3,8 +3,11 @@ package vesting.cli;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -81,4 +84,179 @@ class CommandLineArgsTest {
         CommandLineArgs args = CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01", "6"});
         assertEquals(6, args.precision());
     }
+
+    @Test
+    void parse_defaultEngine_isStandard() {
+        CommandLineArgs args = CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01"});
+        assertEquals(CalculationEngine.STANDARD, args.engine());
+    }
+
+    @Test
+    void parse_outputOption() {
+        CommandLineArgs args = CommandLineArgs.parse(
+                new String[]{"file.csv", "--output=out.csv", "2020-01-01"});
+        assertEquals("out.csv", args.output());
+        assertEquals("file.csv", args.filename());
+        assertNull(CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01"}).output());
+    }
+
+    @Test
+    void parse_statsOption() {
+        assertEquals("-", CommandLineArgs.parse(new String[]{"--stats", "file.csv", "2020-01-01"}).stats());
+        assertEquals("stats.json",
+                CommandLineArgs.parse(new String[]{"--stats=stats.json", "file.csv", "2020-01-01"}).stats());
+        assertFalse(CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01"}).reportsStats());
+    }
+
+    @Test
+    void parse_lenientOption() {
+        assertEquals("-", CommandLineArgs.parse(new String[]{"--lenient", "file.csv", "2020-01-01"}).lenient());
+        assertEquals("rejects.txt",
+                CommandLineArgs.parse(new String[]{"--lenient=rejects.txt", "file.csv", "2020-01-01"}).lenient());
+        assertFalse(CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01"}).isLenient());
+    }
+
+    @Test
+    void parse_memoryBudgetOption() {
+        assertEquals(512L << 20, CommandLineArgs.parse(
+                new String[]{"--memory-budget=512MB", "file.csv", "2020-01-01"}).memoryBudget());
+        assertEquals(1536L << 20, CommandLineArgs.parse(
+                new String[]{"--memory-budget=1.5gb", "file.csv", "2020-01-01"}).memoryBudget());
+        assertFalse(CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01"}).boundsMemory());
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--memory-budget=0", "file.csv", "2020-01-01"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--memory-budget=lots", "file.csv", "2020-01-01"}));
+    }
+
+    @Test
+    void parse_pipelineThreadsOption() {
+        CommandLineArgs args = CommandLineArgs.parse(
+                new String[]{"--engine=pipelined", "--pipeline-threads=virtual", "file.csv", "2020-01-01"});
+        assertEquals(CalculationEngine.PIPELINED, args.engine());
+        assertEquals(ThreadKind.VIRTUAL, args.pipelineThreads());
+        assertEquals(ThreadKind.PLATFORM,
+                CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01"}).pipelineThreads());
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--pipeline-threads=green", "file.csv", "2020-01-01"}));
+    }
+
+    @Test
+    void parse_engineOption() {
+        CommandLineArgs args = CommandLineArgs.parse(
+                new String[]{"--engine=streaming", "file.csv", "2020-01-01", "2"});
+        assertEquals(CalculationEngine.STREAMING, args.engine());
+        assertEquals("file.csv", args.filename());
+        assertEquals(2, args.precision());
+    }
+
+    @Test
+    void parse_unknownEngine_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--engine=turbo", "file.csv", "2020-01-01"}));
+    }
+
+    @Test
+    void parse_unknownOption_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--bogus", "file.csv", "2020-01-01"}));
+    }
+
+    @Test
+    void parse_parserOption() {
+        CommandLineArgs args = CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01", "--parser=mapped"});
+        assertEquals(ParserMode.MAPPED, args.parser());
+        assertEquals(ParserMode.CSV, CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01"}).parser());
+    }
+
+    @Test
+    void parse_checkpointWithOtherParser_throws() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CommandLineArgs.parse(
+                new String[]{"--checkpoint=run.ckpt", "--parser=mapped", "file.csv", "2020-01-01"}));
+        assertEquals("--parser=mapped cannot be combined with --checkpoint, which always uses the bytes parser",
+                ex.getMessage());
+        assertEquals("run.ckpt", CommandLineArgs.parse(
+                new String[]{"--checkpoint=run.ckpt", "--parser=bytes", "file.csv", "2020-01-01"}).checkpoint());
+        assertEquals("run.ckpt", CommandLineArgs.parse(
+                new String[]{"--checkpoint=run.ckpt", "file.csv", "2020-01-01"}).checkpoint());
+    }
+
+    @Test
+    void parse_optionWithoutValue_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--parser", "file.csv", "2020-01-01"}));
+    }
+
+    @Test
+    void parse_dateList_sortedAndDeduplicated() {
+        CommandLineArgs args = CommandLineArgs.parse(
+                new String[]{"file.csv", "2020-04-01,2020-01-01,2020-04-01"});
+        assertEquals(List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 4, 1)), args.targetDates());
+        assertEquals(LocalDate.of(2020, 1, 1), args.targetDate());
+    }
+
+    @Test
+    void parse_dailyRange() {
+        CommandLineArgs args = CommandLineArgs.parse(new String[]{"file.csv", "2020-02-27..2020-03-01"});
+        assertEquals(List.of(LocalDate.of(2020, 2, 27), LocalDate.of(2020, 2, 28),
+                LocalDate.of(2020, 2, 29), LocalDate.of(2020, 3, 1)), args.targetDates());
+    }
+
+    @Test
+    void parse_monthlyRangeFromMonthEnd_staysOnMonthEnds() {
+        CommandLineArgs args = CommandLineArgs.parse(new String[]{"file.csv", "2020-01-31..2020-04-30/P1M"});
+        assertEquals(List.of(LocalDate.of(2020, 1, 31), LocalDate.of(2020, 2, 29),
+                LocalDate.of(2020, 3, 31), LocalDate.of(2020, 4, 30)), args.targetDates());
+    }
+
+    @Test
+    void parse_rangeEndBeforeStart_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"file.csv", "2020-04-01..2020-01-01"}));
+    }
+
+    @Test
+    void parse_rangeWithNonPositiveStep_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01..2020-04-01/P0D"}));
+    }
+
+    @Test
+    void parse_invalidDateInList_throws() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"file.csv", "2020-01-01,2020-13-01"}));
+        assertTrue(ex.getMessage().contains("Invalid date"));
+    }
+
+    @Test
+    void parse_datesOutsidePlainForm_sameAsLocalDateParse() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"file.csv", "2021-02-29"}));
+        assertEquals(List.of(LocalDate.of(2020, 2, 29), LocalDate.of(10000, 1, 1)),
+                CommandLineArgs.parse(new String[]{"file.csv", "2020-02-29,+10000-01-01"}).targetDates());
+    }
+
+    @Test
+    void parse_buildIndex_noTargetDate() {
+        CommandLineArgs args = CommandLineArgs.parse(new String[]{"--build-index=out.idx", "file.csv", "2"});
+        assertTrue(args.buildsIndex());
+        assertEquals("out.idx", args.indexOutput());
+        assertEquals("file.csv", args.filename());
+        assertEquals(2, args.precision());
+        assertTrue(args.targetDates().isEmpty());
+    }
+
+    @Test
+    void parse_convert_takesOnlyFilename() {
+        CommandLineArgs args = CommandLineArgs.parse(new String[]{"--convert=out.vel", "file.csv"});
+        assertTrue(args.converts());
+        assertEquals("out.vel", args.convertOutput());
+        assertEquals("file.csv", args.filename());
+        assertTrue(args.targetDates().isEmpty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--convert=out.vel", "file.csv", "2020-01-01"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandLineArgs.parse(new String[]{"--convert=out.vel", "--build-index=out.idx", "file.csv"}));
+    }
 }
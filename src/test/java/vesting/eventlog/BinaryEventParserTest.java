@@ -0,0 +1,148 @@
+package vesting.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.VestingEvent;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryEventParserTest {
+
+    private final EventParser csv = new CsvEventParser(new CsvLineParser());
+    private final BinaryEventParser binary = new BinaryEventParser();
+
+    @TempDir
+    Path dir;
+
+    private String testResourcePath(String filename) {
+        return Path.of("src", "test", "resources", filename).toString();
+    }
+
+    private String convert(String source) {
+        Path log = dir.resolve("events.vel");
+        new EventLogConverter(csv).convert(source, log);
+        return log.toString();
+    }
+
+    private void assertSameEvents(String source, String log) {
+        for (int precision = 0; precision <= 6; precision++) {
+            PrecisionHandler handler = new PrecisionHandler(precision);
+            List<VestingEvent> expected = csv.parse(source, handler);
+            List<VestingEvent> actual = binary.parse(log, handler);
+            assertEquals(expected, actual, source + " at precision " + precision);
+        }
+    }
+
+    @Test
+    void resourceFiles_readBackAsParsedCsv() {
+        for (String file : List.of("example1.csv", "example2.csv", "example3.csv", "edge_empty.csv",
+                "edge_many_awards.csv", "edge_same_day_cancel.csv", "edge_single_event.csv")) {
+            String source = testResourcePath(file);
+            assertSameEvents(source, convert(source));
+        }
+    }
+
+    @Test
+    void largeRandomFile_readBackAsParsedCsv() throws IOException {
+        Random random = new Random(11);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 300_000; i++) {
+            String emp = "E" + random.nextInt(5_000);
+            String award = "A" + random.nextInt(3);
+            // Names change now and then, some are long and some are not ASCII.
+            String name = random.nextInt(50) == 0 ? "Nåme " + emp + " " + "x".repeat(random.nextInt(3000))
+                    : "Name " + emp;
+            LocalDate date = LocalDate.of(1960, 1, 1).plusDays(random.nextInt(40_000));
+            BigDecimal qty = BigDecimal.valueOf(random.nextLong() & Long.MAX_VALUE, random.nextInt(9));
+            lines.add(String.join(",", random.nextInt(5) == 0 ? "CANCEL" : "VEST", emp, name, award,
+                    date.toString(), qty.toPlainString()));
+        }
+        Path source = dir.resolve("random.csv");
+        Files.write(source, lines);
+
+        assertSameEvents(source.toString(), convert(source.toString()));
+    }
+
+    @Test
+    void hugeQuantities_readBackExactly() throws IOException {
+        Path source = dir.resolve("huge.csv");
+        Files.writeString(source, String.join("\n",
+                "VEST,E001,Alice Smith,ISO-001,2020-01-01,123456789012345678901234567890.123456789",
+                "CANCEL,E001,Alice Smith,ISO-001,2020-01-02,9223372036854.775807",
+                "CANCEL,E001,Alice Smith,ISO-001,2020-01-03,9223372036854.775808",
+                "VEST,E001,Alice Smith,ISO-001,2020-01-04,0"));
+
+        assertSameEvents(source.toString(), convert(source.toString()));
+    }
+
+    @Test
+    void convert_returnsEventCount() {
+        Path log = dir.resolve("example1.vel");
+        String source = testResourcePath("example1.csv");
+
+        long events = new EventLogConverter(csv).convert(source, log);
+
+        assertEquals(csv.parse(source, new PrecisionHandler(0)).size(), events);
+    }
+
+    @Test
+    void convert_invalidLine_failsWithoutWritingLog() throws IOException {
+        Path source = dir.resolve("bad.csv");
+        Files.writeString(source, "VEST,E001,Alice Smith,ISO-001,2020-01-01,100\nVEST,E001,Alice\n");
+        Path log = dir.resolve("bad.vel");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new EventLogConverter(csv).convert(source.toString(), log));
+
+        assertTrue(e.getMessage().startsWith("Line 2:"));
+        assertFalse(Files.exists(log));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(source), files.toList());
+        }
+    }
+
+    @Test
+    void isEventLog_distinguishesLogFromCsv() {
+        String log = convert(testResourcePath("example1.csv"));
+
+        assertTrue(EventLog.isEventLog(Path.of(log)));
+        assertFalse(EventLog.isEventLog(Path.of(testResourcePath("example1.csv"))));
+        assertFalse(EventLog.isEventLog(dir.resolve("missing.vel")));
+    }
+
+    @Test
+    void parse_truncatedLog_throws() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(convert(testResourcePath("example2.csv"))));
+        for (int cut = 1; cut <= bytes.length; cut++) {
+            Path truncated = dir.resolve("truncated.vel");
+            Files.write(truncated, Arrays.copyOf(bytes, bytes.length - cut));
+
+            assertThrows(UncheckedIOException.class,
+                    () -> binary.parse(truncated.toString(), new PrecisionHandler(0)));
+        }
+    }
+
+    @Test
+    void parse_csvFile_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> binary.parse(testResourcePath("example1.csv"), new PrecisionHandler(0)));
+    }
+}
@@ -0,0 +1,92 @@
+package vesting.formatter;
+
+import org.junit.jupiter.api.Test;
+import vesting.model.VestingSummary;
+import vesting.precision.PrecisionHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class ChannelOutputFormatterTest {
+
+    private static final List<VestingSummary> SUMMARIES = List.of(
+            new VestingSummary("E001", "Alice Smith", "ISO-001", new BigDecimal("1000.5")),
+            new VestingSummary("E002", "Zoë Ångström", "NSO-001", new BigDecimal("0")),
+            new VestingSummary("E003", "山田 太郎", "RSU-7", new BigDecimal("123.456789"))
+    );
+
+    private static byte[] expected(Charset charset, LocalDate asOf, List<VestingSummary> summaries, int precision) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(baos, true, charset);
+        CsvOutputFormatter formatter = new CsvOutputFormatter(ps);
+        if (asOf == null) {
+            formatter.format(summaries, new PrecisionHandler(precision));
+        } else {
+            formatter.formatBlock(asOf, summaries, new PrecisionHandler(precision));
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] actual(Charset charset, int bufferSize, LocalDate asOf,
+                                 List<VestingSummary> summaries, int precision) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ChannelOutputFormatter formatter = new ChannelOutputFormatter(Channels.newChannel(baos), charset, bufferSize);
+        if (asOf == null) {
+            formatter.format(summaries, new PrecisionHandler(precision));
+        } else {
+            formatter.formatBlock(asOf, summaries, new PrecisionHandler(precision));
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    void format_matchesCsvOutputFormatter_forEachPrecision() {
+        for (int precision = 0; precision <= 6; precision++) {
+            assertArrayEquals(expected(StandardCharsets.UTF_8, null, SUMMARIES, precision),
+                    actual(StandardCharsets.UTF_8, 8192, null, SUMMARIES, precision));
+        }
+    }
+
+    @Test
+    void formatBlock_matchesCsvOutputFormatter() {
+        LocalDate asOf = LocalDate.of(2021, 2, 1);
+        assertArrayEquals(expected(StandardCharsets.UTF_8, asOf, SUMMARIES, 2),
+                actual(StandardCharsets.UTF_8, 8192, asOf, SUMMARIES, 2));
+    }
+
+    @Test
+    void format_smallBuffer_drainsRepeatedly() {
+        List<VestingSummary> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add(new VestingSummary("E" + i, "Name ü " + i, "A" + i, new BigDecimal(i)));
+        }
+        assertArrayEquals(expected(StandardCharsets.UTF_8, null, many, 1),
+                actual(StandardCharsets.UTF_8, 64, null, many, 1));
+    }
+
+    @Test
+    void format_nonAsciiCompatibleCharset() {
+        assertArrayEquals(expected(StandardCharsets.UTF_16, null, SUMMARIES, 3),
+                actual(StandardCharsets.UTF_16, 64, null, SUMMARIES, 3));
+    }
+
+    @Test
+    void format_unmappableCharacters_replacedLikePrintStream() {
+        assertArrayEquals(expected(StandardCharsets.US_ASCII, null, SUMMARIES, 0),
+                actual(StandardCharsets.US_ASCII, 8192, null, SUMMARIES, 0));
+    }
+
+    @Test
+    void format_emptyList_writesNothing() {
+        assertArrayEquals(new byte[0], actual(StandardCharsets.UTF_8, 8192, null, List.of(), 0));
+    }
+}
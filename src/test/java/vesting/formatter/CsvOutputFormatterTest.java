@@ -7,6 +7,7 @@ import vesting.precision.PrecisionHandler;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -73,4 +74,31 @@ class CsvOutputFormatterTest {
         String output = captureOutput(List.of(), new PrecisionHandler(0));
         assertEquals("", output);
     }
+
+    @Test
+    void formatBlock_headerThenRows() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        CsvOutputFormatter formatter = new CsvOutputFormatter(new PrintStream(baos));
+        formatter.formatBlock(LocalDate.of(2020, 1, 31), List.of(
+                new VestingSummary("E001", "Alice Smith", "ISO-001", new BigDecimal("1000"))
+        ), new PrecisionHandler(0));
+        assertEquals("# As of 2020-01-31\nE001,Alice Smith,ISO-001,1000\n", baos.toString().replace("\r\n", "\n"));
+    }
+
+    @Test
+    void formatBlock_default_writesHeaderThenRows() {
+        OutputFormatter rowsOnly = (summaries, precision) -> summaries.forEach(
+                summary -> System.out.println(summary.employeeId() + "," + precision.format(summary.totalSharesVested())));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream previous = System.out;
+        System.setOut(new PrintStream(baos));
+        try {
+            rowsOnly.formatBlock(LocalDate.of(2020, 4, 1),
+                    List.of(new VestingSummary("E001", "Alice Smith", "ISO-001", new BigDecimal("1000"))),
+                    new PrecisionHandler(0));
+        } finally {
+            System.setOut(previous);
+        }
+        assertEquals("# As of 2020-04-01\nE001,1000\n", baos.toString().replace("\r\n", "\n"));
+    }
 }
@@ -0,0 +1,134 @@
+package vesting.generator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.calculator.CumulativeVestingCalculator;
+import vesting.model.CancelEvent;
+import vesting.model.VestingEvent;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventFileGeneratorTest {
+
+    private final CsvEventParser parser = new CsvEventParser(new CsvLineParser());
+    private final CumulativeVestingCalculator calculator =
+            new CumulativeVestingCalculator(new CancellationValidator());
+
+    @TempDir
+    Path dir;
+
+    private GeneratorConfig config(long rows, double cancelRatio, int decimals, double invalidRatio,
+                                   boolean allowInvalidCancellations, long seed) {
+        return new GeneratorConfig(rows, 0, 200, 3, 1.1, LocalDate.of(2020, 1, 1), LocalDate.of(2022, 12, 31),
+                cancelRatio, decimals, invalidRatio, allowInvalidCancellations, seed);
+    }
+
+    private Path generate(GeneratorConfig config, int threads, String name) {
+        Path file = dir.resolve(name);
+        new EventFileGenerator(config, threads).generate(file);
+        return file;
+    }
+
+    @Test
+    void generatedFile_isValidAtEveryPrecision() {
+        Path file = generate(config(150_000, 0.4, 4, 0, false, 1), 4, "valid.csv");
+        for (int precision = 0; precision <= 6; precision += 3) {
+            PrecisionHandler handler = new PrecisionHandler(precision);
+            List<VestingEvent> events = parser.parse(file.toString(), handler);
+
+            assertEquals(150_000, events.size());
+            long cancels = events.stream().filter(e -> e instanceof CancelEvent).count();
+            assertEquals(0.4, cancels / 150_000.0, 0.02);
+            assertDoesNotThrow(() -> calculator.calculate(events, LocalDate.of(2022, 12, 31), handler));
+        }
+    }
+
+    @Test
+    void sameSeed_sameBytesWhateverTheThreadCount() throws IOException {
+        byte[] single = Files.readAllBytes(generate(config(200_000, 0.2, 2, 0.01, false, 7), 1, "a.csv"));
+        byte[] parallel = Files.readAllBytes(generate(config(200_000, 0.2, 2, 0.01, false, 7), 8, "b.csv"));
+        byte[] otherSeed = Files.readAllBytes(generate(config(200_000, 0.2, 2, 0.01, false, 8), 8, "c.csv"));
+
+        assertArrayEquals(single, parallel);
+        assertFalse(Arrays.equals(single, otherSeed));
+    }
+
+    @Test
+    void sizeTarget_stopsAtFirstRowReachingIt() throws IOException {
+        long target = 3_000_000;
+        GeneratorConfig config = new GeneratorConfig(0, target, 1000, 2, 0, LocalDate.of(2020, 1, 1),
+                LocalDate.of(2020, 12, 31), 0.1, 2, 0, false, 3);
+        Path file = dir.resolve("sized.csv");
+
+        EventFileGenerator.Result result = new EventFileGenerator(config, 3).generate(file);
+
+        assertEquals(Files.size(file), result.bytes());
+        assertTrue(result.bytes() >= target && result.bytes() < target + 100, "size " + result.bytes());
+        assertEquals(result.rows(), Files.readAllLines(file).size());
+    }
+
+    @Test
+    void invalidRows_rejectedByLineParser() throws IOException {
+        Path file = generate(config(20_000, 0.1, 0, 0.05, false, 5), 2, "invalid.csv");
+        CsvLineParser lineParser = new CsvLineParser();
+        PrecisionHandler handler = new PrecisionHandler(0);
+
+        int invalid = 0;
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                lineParser.parseLine(lines.get(i), i + 1, handler);
+            } catch (IllegalArgumentException e) {
+                invalid++;
+            }
+        }
+        assertEquals(0.05, invalid / (double) lines.size(), 0.01);
+    }
+
+    @Test
+    void allowedInvalidCancellations_failValidation() {
+        Path file = generate(config(5_000, 0.9, 0, 0, true, 11), 2, "overcancel.csv");
+        PrecisionHandler handler = new PrecisionHandler(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> calculator.calculate(parser, file.toString(), LocalDate.of(2022, 12, 31), handler));
+    }
+
+    @Test
+    void cancelRatioAboveHalf_rejectedUnlessInvalidAllowed() {
+        assertThrows(IllegalArgumentException.class, () -> config(10, 0.6, 0, 0, false, 1));
+        assertDoesNotThrow(() -> config(10, 0.6, 0, 0, true, 1));
+    }
+
+    @Test
+    void zipfSampler_skewsTowardLowRanks() {
+        ZipfSampler sampler = new ZipfSampler(1000, 1.2);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[1001];
+        for (int i = 0; i < 200_000; i++) {
+            int rank = sampler.sample(random);
+            assertTrue(rank >= 1 && rank <= 1000);
+            counts[rank]++;
+        }
+        // P(1) / P(2) = 2^1.2 for a Zipf distribution.
+        assertEquals(Math.pow(2, 1.2), counts[1] / (double) counts[2], 0.1);
+        assertTrue(counts[1] > counts[10] && counts[10] > counts[100]);
+    }
+}
@@ -0,0 +1,143 @@
+package vesting.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.calculator.CumulativeVestingCalculator;
+import vesting.calculator.VestingAccumulator;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsOfIndexTest {
+
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+    private final CumulativeVestingCalculator standard =
+            new CumulativeVestingCalculator(new CancellationValidator());
+
+    @TempDir
+    Path dir;
+
+    private String testResourcePath(String filename) {
+        return Path.of("src", "test", "resources", filename).toString();
+    }
+
+    private AsOfIndex build(String source, int precision) {
+        Path indexFile = dir.resolve("events.idx");
+        new AsOfIndexBuilder(parser).build(source, new PrecisionHandler(precision), indexFile);
+        return AsOfIndex.load(indexFile);
+    }
+
+    @Test
+    void queries_matchRecalculation() {
+        List<String> files = List.of("example1.csv", "example2.csv", "example3.csv", "edge_empty.csv",
+                "edge_many_awards.csv", "edge_same_day_cancel.csv", "edge_single_event.csv");
+        List<LocalDate> dates = List.of(LocalDate.of(2019, 12, 31), LocalDate.of(2020, 1, 1),
+                LocalDate.of(2020, 4, 1), LocalDate.of(2021, 1, 31), LocalDate.of(2021, 2, 1),
+                LocalDate.of(2030, 1, 1));
+
+        for (String file : files) {
+            for (int precision = 0; precision <= 2; precision++) {
+                PrecisionHandler handler = new PrecisionHandler(precision);
+                AsOfIndex index = build(testResourcePath(file), precision);
+
+                assertEquals(precision, index.precision());
+                VestingAccumulator accumulator = new VestingAccumulator(LocalDate.MAX, handler);
+                parser.parse(testResourcePath(file), handler, accumulator);
+                AsOfIndex inMemory = AsOfIndex.of(accumulator, handler);
+                for (LocalDate date : dates) {
+                    assertEquals(standard.calculate(parser, testResourcePath(file), date, handler),
+                            index.summarize(date), file + " as of " + date + " at precision " + precision);
+                    assertEquals(index.summarize(date), inMemory.summarize(date));
+                }
+            }
+        }
+    }
+
+    @Test
+    void randomFiles_matchRecalculation() throws IOException {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String emp = "E" + random.nextInt(6);
+                String award = "A" + random.nextInt(3);
+                LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(400));
+                BigDecimal qty = BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(4));
+                lines.add(String.join(",", "VEST", emp, "Name " + emp + " " + i, award, date.toString(),
+                        qty.add(BigDecimal.valueOf(1000)).toPlainString()));
+                if (random.nextInt(4) == 0) {
+                    lines.add(String.join(",", "CANCEL", emp, "Name " + emp, award,
+                            date.plusDays(random.nextInt(30)).toString(), qty.toPlainString()));
+                }
+            }
+            Path source = dir.resolve("random" + round + ".csv");
+            Files.write(source, lines);
+
+            int precision = random.nextInt(7);
+            PrecisionHandler handler = new PrecisionHandler(precision);
+            AsOfIndex index = build(source.toString(), precision);
+            for (int q = 0; q < 10; q++) {
+                LocalDate date = LocalDate.of(2019, 12, 1).plusDays(random.nextInt(500));
+                assertEquals(standard.calculate(parser, source.toString(), date, handler), index.summarize(date));
+            }
+        }
+    }
+
+    @Test
+    void invalidCancellation_failsFromItsDateOnwards() throws IOException {
+        Path source = dir.resolve("late_cancel.csv");
+        Files.writeString(source, String.join("\n",
+                "VEST,E001,Alice Smith,ISO-001,2020-01-01,100.5",
+                "CANCEL,E001,Alice Smith,ISO-001,2020-06-01,150",
+                "VEST,E001,Alice Smith,ISO-001,2020-12-01,100"));
+        AsOfIndex index = build(source.toString(), 1);
+        PrecisionHandler handler = new PrecisionHandler(1);
+
+        assertEquals(standard.calculate(parser, source.toString(), LocalDate.of(2020, 5, 31), handler),
+                index.summarize(LocalDate.of(2020, 5, 31)));
+        for (LocalDate date : List.of(LocalDate.of(2020, 6, 1), LocalDate.of(2021, 1, 1))) {
+            IllegalStateException expected = assertThrows(IllegalStateException.class,
+                    () -> standard.calculate(parser, source.toString(), date, handler));
+            IllegalStateException actual = assertThrows(IllegalStateException.class,
+                    () -> index.summarize(date));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    void isIndex_distinguishesIndexFromCsv() {
+        build(testResourcePath("example1.csv"), 0);
+
+        assertTrue(AsOfIndex.isIndex(dir.resolve("events.idx")));
+        assertFalse(AsOfIndex.isIndex(Path.of(testResourcePath("example1.csv"))));
+        assertFalse(AsOfIndex.isIndex(dir.resolve("missing.idx")));
+    }
+
+    @Test
+    void load_truncatedIndex_throws() throws IOException {
+        build(testResourcePath("example1.csv"), 0);
+        byte[] bytes = Files.readAllBytes(dir.resolve("events.idx"));
+        Path truncated = dir.resolve("truncated.idx");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(UncheckedIOException.class, () -> AsOfIndex.load(truncated));
+    }
+}
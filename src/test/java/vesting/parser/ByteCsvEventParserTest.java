@@ -0,0 +1,161 @@
+package vesting.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.VestingEvent;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteCsvEventParserTest {
+
+    private final CsvEventParser sequential = new CsvEventParser(new CsvLineParser());
+    private final ByteCsvEventParser parser = new ByteCsvEventParser(new CsvLineParser());
+    private final PrecisionHandler precision1 = new PrecisionHandler(1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parse_resourceFiles_matchCsvEventParser() {
+        for (String name : List.of("example1.csv", "example2.csv", "example3.csv",
+                "edge_empty.csv", "edge_many_awards.csv", "edge_same_day_cancel.csv")) {
+            String path = Path.of("src", "test", "resources", name).toString();
+            assertEquals(sequential.parse(path, precision1), parser.parse(path, precision1), name);
+        }
+    }
+
+    @Test
+    void parse_mixedLineEndingsAndNoTrailingNewline() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,10\r\n\r"
+                + "CANCEL,E001,Alice,A1,2020-01-02,5\r  \n"
+                + "VEST,E002,Bob,B1,2020-01-03,7.25");
+
+        assertEquals(sequential.parse(file.toString(), precision1), parser.parse(file.toString(), precision1));
+        assertEquals(3, parser.parse(file.toString(), precision1).size());
+    }
+
+    @Test
+    void parse_invalidLine_reportsLineNumber() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,10\n\nVEST,E001,Alice,A1,2020-01-01,x\n");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse(file.toString(), precision1));
+        assertEquals("Line 3: invalid quantity 'x'", ex.getMessage());
+    }
+
+    @Test
+    void parse_targetDate_registersLaterRowsOnly() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.writeString(file, String.join("\n",
+                "VEST,E001,Alice,A1,2020-01-01,10",
+                "VEST,E001,Alice B,A1,2020-06-01,99999999999999999999999",
+                "CANCEL,E002,Bob,B1,2020-06-01,+.5",
+                "VEST,E002,Bob,B1,2020-06-01,1e3",
+                "VEST,E003,Carol,C1,2020-02-01,7.25"));
+        List<String> expected = List.of(
+                "accept E001 Alice 2020-01-01 10.0",
+                "register E001 Alice B",
+                "register E002 Bob",
+                "register E002 Bob",
+                "accept E003 Carol 2020-02-01 7.2");
+
+        for (EventParser eventParser : List.of(sequential, parser, new MappedCsvEventParser(new CsvLineParser()))) {
+            List<String> calls = new ArrayList<>();
+            eventParser.parse(file.toString(), precision1, LocalDate.of(2020, 5, 31), new PushdownSink() {
+                @Override
+                public void accept(VestingEvent event) {
+                    calls.add("accept " + event.employeeId() + " " + event.employeeName() + " " + event.date()
+                            + " " + event.quantity());
+                }
+
+                @Override
+                public void register(EmployeeAwardKey key, String employeeName) {
+                    calls.add("register " + key.employeeId() + " " + employeeName);
+                }
+            });
+            assertEquals(expected, calls, eventParser.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void parse_targetDate_stillRejectsMalformedLaterRows() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        LocalDate targetDate = LocalDate.of(2019, 1, 1);
+        PushdownSink ignore = new PushdownSink() {
+            @Override
+            public void accept(VestingEvent event) {
+            }
+
+            @Override
+            public void register(EmployeeAwardKey key, String employeeName) {
+            }
+        };
+        for (String quantity : List.of("x", "-1", "1.2.3", "", "+")) {
+            Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,10\nVEST,E001,Alice,A1,2020-01-02," + quantity);
+            for (EventParser eventParser : List.of(sequential, parser)) {
+                Exception full = assertThrows(IllegalArgumentException.class,
+                        () -> eventParser.parse(file.toString(), precision1));
+                Exception pushedDown = assertThrows(IllegalArgumentException.class,
+                        () -> eventParser.parse(file.toString(), precision1, targetDate, ignore));
+                assertEquals(full.getMessage(), pushedDown.getMessage(), quantity);
+            }
+        }
+    }
+
+    @Test
+    void parse_fileNotFound_throws() {
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class,
+                () -> parser.parse("nonexistent.csv", precision1));
+        assertTrue(ex.getMessage().contains("nonexistent.csv"));
+    }
+
+    @Test
+    void parse_fromPosition_leavesUnterminatedLineForLater() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        String complete = "VEST,E001,Alice,A1,2020-01-01,10\r\nCANCEL,E001,Alice,A1,2020-01-02,5\r";
+        Files.writeString(file, complete + "VEST,E002,Bob,B1,2020-01-03,7");
+        List<VestingEvent> events = new ArrayList<>();
+
+        ByteCsvEventParser.Position position = parser.parse(file.toString(),
+                ByteCsvEventParser.Position.START, false, precision1, events::add);
+
+        assertEquals(new ByteCsvEventParser.Position(complete.length(), 2), position);
+        assertEquals(2, events.size());
+
+        Files.writeString(file, complete + "VEST,E002,Bob,B1,2020-01-03,7\nVEST,E001,Alice,A1,2020-01-04,x\n");
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse(file.toString(), position, false, precision1, events::add));
+        assertEquals("Line 4: invalid quantity 'x'", ex.getMessage());
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    void parse_trailingCarriageReturn_notTerminatedUntilNextByte() throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.writeString(file, "VEST,E001,Alice,A1,2020-01-01,10\r");
+        List<VestingEvent> events = new ArrayList<>();
+
+        ByteCsvEventParser.Position position = parser.parse(file.toString(),
+                ByteCsvEventParser.Position.START, false, precision1, events::add);
+        assertEquals(ByteCsvEventParser.Position.START, position);
+        assertTrue(events.isEmpty());
+
+        position = parser.parse(file.toString(), position, true, precision1, events::add);
+        assertEquals(new ByteCsvEventParser.Position(Files.size(file), 1), position);
+        assertEquals(1, events.size());
+    }
+}
@@ -0,0 +1,99 @@
+package vesting.parser;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.EventType;
+import vesting.model.VestingEvent;
+import vesting.precision.PrecisionHandler;
+
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ByteLineParserTest {
+
+    private final CsvLineParser csvParser = new CsvLineParser();
+    private final ByteLineParser parser = new ByteLineParser(csvParser);
+
+    private List<VestingEvent> parse(String line, int precision) throws CharacterCodingException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        List<VestingEvent> events = new ArrayList<>();
+        parser.parseLine(bytes, 0, bytes.length, 1, new PrecisionHandler(precision), events::add);
+        return events;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "VEST,E001,Alice Smith,ISO-001,2020-01-01,1000",
+            "CANCEL,E001,Alice Smith,ISO-001,2021-02-01,700.75",
+            "vest , E001 , Alice Smith , ISO-001 , 2020-02-29 , +12.3456789",
+            "Cancel,E001,Zoë Ångström,ISO-001,1999-12-31,.5",
+            "VEST,E001,Alice,ISO-001,2020-01-01,7.",
+            "VEST,E001,Alice,ISO-001,2020-01-01,1E+3",
+            "VEST,E001,Alice,ISO-001,+12020-01-01,10",
+            "VEST,E001,Alice,ISO-001,2020-01-01,123456789012345678901234567890.5",
+            "VEST,E001,Alice,ISO-001,0000-01-01,-0"
+    })
+    void validLines_matchCsvLineParser(String line) throws CharacterCodingException {
+        for (int precision = 0; precision <= 6; precision++) {
+            VestingEvent expected = csvParser.parseLine(line.trim(), 1, new PrecisionHandler(precision));
+            assertEquals(List.of(expected), parse(line.trim(), precision), line + " at precision " + precision);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "VEST,E001,Alice Smith,ISO-001,2020-01-01",
+            "VEST,E001,Alice Smith,ISO-001,2020-01-01,1000,extra",
+            "TRANSFER,E001,Alice Smith,ISO-001,2020-01-01,1000",
+            ",E001,Alice Smith,ISO-001,2020-01-01,1000",
+            "VEST,E001,Alice Smith,ISO-001,2021-02-29,1000",
+            "VEST,E001,Alice Smith,ISO-001,2020-1-01,1000",
+            "VEST,E001,Alice Smith,ISO-001,2020-01-01,abc",
+            "VEST,E001,Alice Smith,ISO-001,2020-01-01,.",
+            "VEST,E001,Alice Smith,ISO-001,2020-01-01,-5"
+    })
+    void invalidLines_throwSameErrorAsCsvLineParser(String line) {
+        PrecisionHandler precision = new PrecisionHandler(1);
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+                () -> csvParser.parseLine(line, 1, precision));
+        IllegalArgumentException actual = assertThrows(IllegalArgumentException.class,
+                () -> parse(line, 1));
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    void fastPath_reusesCanonicalKeyAndName() throws CharacterCodingException {
+        List<EmployeeAwardKey> keys = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        EventSink sink = new EventSink() {
+            @Override
+            public void accept(VestingEvent event) {
+                throw new AssertionError("fast path expected");
+            }
+
+            @Override
+            public void accept(EventType type, EmployeeAwardKey key, String employeeName,
+                               long epochDay, long unscaledQuantity, int scale) {
+                keys.add(key);
+                names.add(employeeName);
+            }
+        };
+
+        PrecisionHandler precision = new PrecisionHandler(2);
+        for (String line : List.of("VEST,E001,Alice,A1,2020-01-01,1", "CANCEL,E001,Alice,A1,2020-02-01,1")) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            parser.parseLine(bytes, 0, bytes.length, 1, precision, sink);
+        }
+
+        assertSame(keys.get(0), keys.get(1));
+        assertSame(names.get(0), names.get(1));
+    }
+}
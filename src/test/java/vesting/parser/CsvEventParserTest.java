@@ -9,6 +9,7 @@ import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -46,4 +47,15 @@ class CsvEventParserTest {
                 parser.parse("nonexistent.csv", precision0));
         assertTrue(ex.getMessage().contains("nonexistent.csv"));
     }
+
+    @Test
+    void parse_eventsShareInternedKeysAndNames() {
+        List<VestingEvent> events = parser.parse(testResourcePath("example3.csv"), precision0);
+
+        VestingEvent first = events.get(0);
+        VestingEvent second = events.get(1);
+        assertEquals(first.key(), second.key());
+        assertSame(first.key(), second.key());
+        assertSame(first.employeeName(), second.employeeName());
+    }
 }
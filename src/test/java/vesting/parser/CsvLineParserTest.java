@@ -79,6 +79,26 @@ class CsvLineParserTest {
                 parser.parseLine("VEST,E001,Alice Smith,ISO-001,01-01-2020,1000", 1, precision0));
     }
 
+    @Test
+    void parseLine_datesMatchLocalDateParse() {
+        for (String date : new String[]{"2020-02-29", "2000-02-29", "1970-01-01", "1969-12-31", "0000-01-01",
+                "9999-12-31", "+10000-01-01", "-0001-06-15"}) {
+            VestingEvent event = parser.parseLine("VEST,E001,Alice Smith,ISO-001," + date + ",1", 1, precision0);
+            assertEquals(LocalDate.parse(date), event.date(), date);
+            assertEquals(LocalDate.parse(date).toEpochDay(), event.epochDay(), date);
+        }
+    }
+
+    @Test
+    void parseLine_impossibleDates_throw() {
+        for (String date : new String[]{"2021-02-29", "1900-02-29", "2020-04-31", "2020-13-01", "2020-00-10",
+                "2020-01-00", "2020-1-01", "2020/01/01", "20a0-01-01"}) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+                    parser.parseLine("VEST,E001,Alice Smith,ISO-001," + date + ",1", 7, precision0), date);
+            assertEquals("Line 7: invalid date format '" + date + "'", ex.getMessage());
+        }
+    }
+
     @Test
     void parseLine_invalidQuantity_throws() {
         assertThrows(IllegalArgumentException.class, () ->
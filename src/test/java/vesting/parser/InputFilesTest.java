@@ -0,0 +1,69 @@
+package vesting.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InputFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path touch(String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "");
+        return file;
+    }
+
+    @Test
+    void resolve_fileAndMissingFile_returnedAsGiven() throws IOException {
+        Path file = touch("a,b.csv");
+        assertEquals(List.of(file), InputFiles.resolve(file.toString()));
+        Path missing = tempDir.resolve("missing.csv");
+        assertEquals(List.of(missing), InputFiles.resolve(missing.toString()));
+    }
+
+    @Test
+    void resolve_directory_listsVisibleFilesByName() throws IOException {
+        Path day2 = touch("feed/2021-01-02.csv");
+        Path day1 = touch("feed/2021-01-01.csv");
+        Path day10 = touch("feed/2021-01-10.csv");
+        touch("feed/.hidden.csv");
+        touch("feed/nested/2021-01-03.csv");
+
+        assertEquals(List.of(day1, day2, day10), InputFiles.resolve(tempDir.resolve("feed").toString()));
+    }
+
+    @Test
+    void resolve_globAndList() throws IOException {
+        Path day1 = touch("feed/2021-01-01.csv");
+        Path day2 = touch("feed/2021-01-02.csv");
+        Path february = touch("feed/2021-02-01.csv");
+        Path nested = touch("feed/archive/2020-12-31.csv");
+        touch("feed/notes.txt");
+        String feed = tempDir.resolve("feed").toString();
+
+        assertEquals(List.of(day1, day2), InputFiles.resolve(feed + "/2021-01-*.csv"));
+        assertEquals(List.of(day1, february), InputFiles.resolve(feed + "/2021-0{1-01,2-01}.csv"));
+        assertEquals(List.of(day1, day2, february, nested),
+                InputFiles.resolve(feed + "/*.csv," + feed + "/archive"));
+        assertEquals(List.of(day1, day2, february, nested).stream().sorted().toList(),
+                InputFiles.resolve(feed + "/**.csv"));
+    }
+
+    @Test
+    void resolve_nothingMatches_throws() throws IOException {
+        Files.createDirectories(tempDir.resolve("empty"));
+        assertThrows(IllegalArgumentException.class, () -> InputFiles.resolve(tempDir + "/empty"));
+        assertThrows(IllegalArgumentException.class, () -> InputFiles.resolve(tempDir + "/*.csv"));
+        assertThrows(IllegalArgumentException.class, () -> InputFiles.resolve(tempDir + "/none/*.csv"));
+    }
+}
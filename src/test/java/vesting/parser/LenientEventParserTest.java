@@ -0,0 +1,137 @@
+package vesting.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.EmployeeAwardKey;
+import vesting.model.VestingEvent;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LenientEventParserTest {
+
+    private static final List<String> BAD_LINES = List.of(
+            "VEST,E001,Alice,A1,2020-01-01",
+            "TRANSFER,E001,Alice,A1,2020-01-01,10",
+            " ,E001,Alice,A1,2020-01-01,10",
+            "VEST,E001,Alice,A1,2020-02-30,10",
+            "VEST,E001,Alice,A1,01/02/2020,10",
+            "VEST,E001,Alice,A1,2020-01-01,1.2.3",
+            "VEST,E001,Alice,A1,2030-01-01,ten",
+            "VEST,E001,Alice,A1,2020-01-01,1e",
+            "CANCEL,E001,Alice,A1,2030-01-01,-5");
+
+    private final PrecisionHandler precision2 = new PrecisionHandler(2);
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(List<String> lines) throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.write(file, lines);
+        return file;
+    }
+
+    @Test
+    void parse_skipsBadLinesWithStrictMessages() throws IOException {
+        List<String> good = List.of("VEST,E001,Alice,A1,2020-01-01,10", "CANCEL,E001,Alice,A1,2020-01-05,2.5",
+                "VEST,E002,Bob,B1,+10000-01-01,1e2");
+        List<String> lines = new ArrayList<>(good);
+        lines.addAll(1, BAD_LINES);
+        Path file = write(lines);
+        Path clean = tempDir.resolve("clean.csv");
+        Files.write(clean, good);
+
+        for (EventParser base : List.of(new CsvEventParser(new CsvLineParser()),
+                new ByteCsvEventParser(new CsvLineParser()))) {
+            RejectReport report = new RejectReport(100);
+            List<VestingEvent> events = new LenientEventParser(base, report).parse(file.toString(), precision2);
+
+            assertEquals(base.parse(clean.toString(), precision2), events);
+            assertEquals(BAD_LINES.size(), report.rejected());
+            assertEquals(good.size(), report.accepted());
+            for (int i = 0; i < BAD_LINES.size(); i++) {
+                RejectReport.Reject reject = report.samples().get(i);
+                int lineNumber = i + 2;
+                IllegalArgumentException strict = assertThrows(IllegalArgumentException.class,
+                        () -> new CsvLineParser().parseLine(BAD_LINES.get(lineNumber - 2), lineNumber, precision2));
+                assertEquals(new RejectReport.Reject(file.toString(), lineNumber,
+                        strict.getMessage().substring(("Line " + lineNumber + ": ").length()),
+                        BAD_LINES.get(lineNumber - 2).trim()), reject);
+            }
+        }
+    }
+
+    @Test
+    void parse_targetDate_registersLaterRowsAndRejectsBadOnes() throws IOException {
+        Path file = write(List.of("VEST,E001,Alice,A1,2020-01-01,10", "VEST,E002,Bob,B1,2030-01-01,7",
+                "VEST,E003,Carol,C1,2030-01-01,x"));
+        RejectReport report = new RejectReport(100);
+        List<String> seen = new ArrayList<>();
+
+        new LenientEventParser(new ByteCsvEventParser(new CsvLineParser()), report).parse(file.toString(),
+                precision2, LocalDate.of(2021, 1, 1), new PushdownSink() {
+                    @Override
+                    public void accept(VestingEvent event) {
+                        seen.add("accept " + event.employeeId());
+                    }
+
+                    @Override
+                    public void register(EmployeeAwardKey key, String employeeName) {
+                        seen.add("register " + key.employeeId());
+                    }
+                });
+
+        assertEquals(List.of("accept E001", "register E002"), seen);
+        assertEquals(1, report.rejected());
+        assertEquals(3, report.samples().get(0).lineNumber());
+    }
+
+    @Test
+    void report_keepsOnlyFirstLinesButCountsAll() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            lines.add("VEST,E001,Alice,A1,2020-01-01," + (i % 2 == 0 ? "10" : "bad" + i));
+        }
+        Path file = write(lines);
+        RejectReport report = new RejectReport(10);
+
+        new LenientEventParser(new CsvEventParser(new CsvLineParser()), report).parse(file.toString(), precision2);
+
+        assertEquals(500, report.rejected());
+        assertEquals(10, report.samples().size());
+        String summary = report.summary();
+        assertTrue(summary.startsWith("Rejected 500 of 1000 lines (50.00%)"), summary);
+        assertTrue(summary.contains("  500 invalid quantity"), summary);
+        assertTrue(summary.contains(file + ":2: invalid quantity 'bad1': VEST,E001,Alice,A1,2020-01-01,bad1"),
+                summary);
+        assertTrue(summary.contains("... 490 more not listed"), summary);
+    }
+
+    @Test
+    void report_keepsLowestLinesInFileOrderWhateverTheArrival() {
+        RejectReport report = new RejectReport(3);
+        report.order(List.of(Path.of("b.csv"), Path.of("a.csv")));
+        // As a concurrent run might deliver them: the later file first, lines out of order.
+        report.reject("a.csv", 1, "bad", "a1");
+        report.reject("b.csv", 9, "bad", "b9");
+        report.reject("a.csv", 2, "bad", "a2");
+        report.reject("b.csv", 4, "bad", "b4");
+        report.reject("b.csv", 7, "bad", "b7");
+
+        assertEquals(List.of(
+                new RejectReport.Reject("b.csv", 4, "bad", "b4"),
+                new RejectReport.Reject("b.csv", 7, "bad", "b7"),
+                new RejectReport.Reject("b.csv", 9, "bad", "b9")), report.samples());
+        assertEquals(5, report.rejected());
+    }
+}
@@ -0,0 +1,92 @@
+package vesting.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.model.VestingEvent;
+import vesting.precision.PrecisionHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedCsvEventParserTest {
+
+    private final CsvEventParser sequential = new CsvEventParser(new CsvLineParser());
+    // Tiny chunks so even small test files are split across many ranges.
+    private final MappedCsvEventParser mapped =
+            new MappedCsvEventParser(new CsvLineParser(), ForkJoinPool.commonPool(), 16);
+    private final PrecisionHandler precision1 = new PrecisionHandler(1);
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("events.csv");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void parse_resourceFiles_matchSequentialParser() {
+        for (String name : List.of("example1.csv", "example2.csv", "example3.csv",
+                "edge_empty.csv", "edge_many_awards.csv", "edge_same_day_cancel.csv")) {
+            String path = Path.of("src", "test", "resources", name).toString();
+            assertEquals(sequential.parse(path, precision1), mapped.parse(path, precision1), name);
+        }
+    }
+
+    @Test
+    void parse_mixedLineEndingsAndBlankLines_matchSequentialParser() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("VEST,E").append(i % 7).append(",Émilie Ñoño,A").append(i % 3)
+                    .append(",2020-01-").append(String.format("%02d", i % 28 + 1)).append(",").append(i).append(".25");
+            content.append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\n" : "\r");
+            if (i % 17 == 0) {
+                content.append("   \n");
+            }
+        }
+        Path file = write(content.toString());
+
+        List<VestingEvent> expected = sequential.parse(file.toString(), precision1);
+        List<VestingEvent> actual = mapped.parse(file.toString(), precision1);
+
+        assertEquals(200, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void parse_invalidLineInLaterChunk_reportsGlobalLineNumber() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 100; i++) {
+            content.append(i == 73 ? "VEST,E001,Alice,A1,2020-13-01,100" : "VEST,E001,Alice,A1,2020-01-01,100");
+            content.append('\n');
+            if (i == 40) {
+                content.append('\n');
+            }
+        }
+        Path file = write(content.toString());
+
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+                () -> sequential.parse(file.toString(), precision1));
+        IllegalArgumentException actual = assertThrows(IllegalArgumentException.class,
+                () -> mapped.parse(file.toString(), precision1));
+
+        assertEquals("Line 74: invalid date format '2020-13-01'", actual.getMessage());
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    void parse_fileNotFound_throws() {
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class,
+                () -> mapped.parse("nonexistent.csv", precision1));
+        assertTrue(ex.getMessage().contains("nonexistent.csv"));
+    }
+}
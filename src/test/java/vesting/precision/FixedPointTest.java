@@ -0,0 +1,38 @@
+package vesting.precision;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FixedPointTest {
+
+    @Test
+    void toScaled_representableValues() {
+        assertEquals(123450, FixedPoint.toScaled(new BigDecimal("123.45"), 3));
+        assertEquals(1000, FixedPoint.toScaled(new BigDecimal("1E+3"), 0));
+        assertEquals(0, FixedPoint.toScaled(BigDecimal.ZERO, 6));
+    }
+
+    @Test
+    void toScaled_finerThanScale_notRepresentable() {
+        assertEquals(FixedPoint.NOT_REPRESENTABLE, FixedPoint.toScaled(new BigDecimal("0.125"), 2));
+    }
+
+    @Test
+    void toScaled_beyondLongRange_notRepresentable() {
+        assertEquals(FixedPoint.NOT_REPRESENTABLE, FixedPoint.toScaled(new BigDecimal("9223372036854775.808"), 3));
+    }
+
+    @Test
+    void add_detectsOverflow() {
+        assertEquals(7, FixedPoint.add(3, 4));
+        assertEquals(FixedPoint.NOT_REPRESENTABLE, FixedPoint.add(Long.MAX_VALUE, 1));
+    }
+
+    @Test
+    void toBigDecimal_keepsScale() {
+        assertEquals(new BigDecimal("12.30"), FixedPoint.toBigDecimal(1230, 2));
+    }
+}
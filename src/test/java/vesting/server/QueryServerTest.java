@@ -0,0 +1,143 @@
+package vesting.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import vesting.calculator.CumulativeVestingCalculator;
+import vesting.formatter.CsvOutputFormatter;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.precision.PrecisionHandler;
+import vesting.validation.CancellationValidator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryServerTest {
+
+    private final EventParser parser = new CsvEventParser(new CsvLineParser());
+    private final HttpClient client = HttpClient.newHttpClient();
+    private QueryServer server;
+    private String baseUri;
+
+    @TempDir
+    Path dir;
+
+    private String testResourcePath(String filename) {
+        return Path.of("src", "test", "resources", filename).toString();
+    }
+
+    @BeforeEach
+    void start() throws IOException {
+        Path invalid = dir.resolve("invalid.csv");
+        Files.writeString(invalid, String.join("\n",
+                "VEST,E001,Alice Smith,ISO-001,2020-01-01,100",
+                "CANCEL,E001,Alice Smith,ISO-001,2020-06-01,150"));
+
+        server = new QueryServer(parser, CsvOutputFormatter::new);
+        server.load(testResourcePath("example1.csv"));
+        server.load(testResourcePath("example3.csv"));
+        server.load(invalid.toString());
+        InetSocketAddress address = server.start(0, 4);
+        baseUri = "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUri + pathAndQuery)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String cliOutput(String file, LocalDate date, int precision) {
+        PrecisionHandler handler = new PrecisionHandler(precision);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        new CsvOutputFormatter(output).format(
+                new CumulativeVestingCalculator(new CancellationValidator())
+                        .calculate(parser, testResourcePath(file), date, handler), handler);
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void asOf_matchesCliOutput() throws Exception {
+        for (String file : List.of("example1.csv", "example3.csv")) {
+            for (int precision = 0; precision <= 2; precision++) {
+                for (String date : List.of("2020-01-01", "2020-04-01", "2021-02-01")) {
+                    HttpResponse<String> response =
+                            get("/asof?file=" + file + "&date=" + date + "&precision=" + precision);
+
+                    assertEquals(200, response.statusCode());
+                    assertEquals(cliOutput(file, LocalDate.parse(date), precision), response.body());
+                    assertTrue(response.headers().firstValue("Server-Timing").orElse("").startsWith("calc;dur="));
+                }
+            }
+        }
+    }
+
+    @Test
+    void concurrentRequests_allAnswered() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            String precision = Integer.toString(i % 3);
+            responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(
+                            baseUri + "/asof?file=example3.csv&date=2021-02-01&precision=" + precision)).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            HttpResponse<String> response = responses.get(i).get();
+            assertEquals(200, response.statusCode());
+            assertEquals(cliOutput("example3.csv", LocalDate.of(2021, 2, 1), i % 3), response.body());
+        }
+    }
+
+    @Test
+    void badRequests_return400() throws Exception {
+        assertEquals(400, get("/asof?file=example1.csv&date=not-a-date").statusCode());
+        assertEquals(400, get("/asof?file=example1.csv&date=2020-01-01&precision=7").statusCode());
+        assertEquals(400, get("/asof?date=2020-01-01").statusCode());
+        assertEquals(400, get("/asof?file=missing.csv&date=2020-01-01").statusCode());
+    }
+
+    @Test
+    void invalidCancellation_returns422() throws Exception {
+        HttpResponse<String> response = get("/asof?file=invalid.csv&date=2020-12-31");
+
+        assertEquals(422, response.statusCode());
+        assertTrue(response.body().contains("Invalid cancellation for E001/ISO-001 on 2020-06-01"));
+        assertEquals(200, get("/asof?file=invalid.csv&date=2020-05-31").statusCode());
+    }
+
+    @Test
+    void store_buildsOneIndexPerPrecision() {
+        EventStore store = EventStore.load("example3.csv", parser, testResourcePath("example3.csv"));
+        PrecisionHandler precision1 = new PrecisionHandler(1);
+
+        assertSame(store.index(precision1), store.index(new PrecisionHandler(1)));
+        assertNotSame(store.index(precision1), store.index(new PrecisionHandler(2)));
+        assertEquals(1, store.index(precision1).precision());
+    }
+}
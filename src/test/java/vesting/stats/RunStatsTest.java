@@ -0,0 +1,114 @@
+package vesting.stats;
+
+import org.junit.jupiter.api.Test;
+import vesting.VestingApp;
+import vesting.calculator.CumulativeVestingCalculator;
+import vesting.calculator.PipelinedVestingCalculator;
+import vesting.calculator.StreamingVestingCalculator;
+import vesting.calculator.VestingCalculator;
+import vesting.formatter.CsvOutputFormatter;
+import vesting.parser.ByteCsvEventParser;
+import vesting.parser.CsvEventParser;
+import vesting.parser.CsvLineParser;
+import vesting.parser.EventParser;
+import vesting.validation.CancellationValidator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunStatsTest {
+
+    private static final String EXAMPLE1 = Path.of("src", "test", "resources", "example1.csv").toString();
+
+    private String run(EventParser parser, VestingCalculator calculator, List<LocalDate> dates) {
+        RunStats stats = new RunStats(EXAMPLE1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new VestingApp(new InstrumentedEventParser(parser, stats, dates.get(dates.size() - 1)),
+                new InstrumentedCalculator(calculator, stats),
+                new InstrumentedOutputFormatter(new CsvOutputFormatter(new PrintStream(out)), stats))
+                .run(EXAMPLE1, dates, 0);
+        stats.finish();
+        return stats.toJson();
+    }
+
+    @Test
+    void report_countsRowsKeysAndStages() throws Exception {
+        String json = run(new CsvEventParser(new CsvLineParser()),
+                new CumulativeVestingCalculator(new CancellationValidator()), List.of(LocalDate.of(2020, 4, 1)));
+
+        assertTrue(json.contains("\"file\": \"" + EXAMPLE1.replace("\\", "\\\\") + "\""), json);
+        assertTrue(json.contains("\"rows\": 8,"), json);
+        assertTrue(json.contains("\"bytes\": " + Files.size(Path.of(EXAMPLE1)) + ","), json);
+        assertTrue(json.contains("\"rowsAfterTargetDate\": 2,"), json);
+        assertTrue(json.contains("\"distinctKeys\": 4,"), json);
+        for (String stage : List.of("parse", "calculate", "output")) {
+            assertTrue(json.contains("\"" + stage + "\": {\"wallMillis\": "), json);
+        }
+    }
+
+    @Test
+    void report_standardEngine_timesValidationApart() {
+        RunStats stats = new RunStats(EXAMPLE1);
+        new VestingApp(new CsvEventParser(new CsvLineParser()), new InstrumentedCalculator(
+                new CumulativeVestingCalculator(new InstrumentedValidator(new CancellationValidator(), stats)), stats),
+                new CsvOutputFormatter(new PrintStream(new ByteArrayOutputStream())))
+                .run(EXAMPLE1, List.of(LocalDate.of(2020, 4, 1)), 0);
+        stats.finish();
+
+        String json = stats.toJson();
+        assertTrue(json.contains("\"validate\": {\"wallMillis\": "), json);
+        assertTrue(json.contains("\"calculate\": {\"wallMillis\": "), json);
+    }
+
+    @Test
+    void report_multiDateRun_countsRowsAfterLastDate() {
+        String json = run(new ByteCsvEventParser(new CsvLineParser()), new StreamingVestingCalculator(),
+                List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2022, 1, 1)));
+
+        assertTrue(json.contains("\"rows\": 8,"), json);
+        assertTrue(json.contains("\"rowsAfterTargetDate\": 1,"), json);
+        assertTrue(json.contains("\"distinctKeys\": 4,"), json);
+    }
+
+    @Test
+    void report_pipelinedEngine_countsRowsItReadsItself() throws Exception {
+        RunStats stats = new RunStats(EXAMPLE1);
+        VestingCalculator pipelined = new PipelinedVestingCalculator(new CsvLineParser(), Thread::new,
+                new InstrumentedPipeline(stats));
+        new VestingApp(new InstrumentedEventParser(new CsvEventParser(new CsvLineParser()), stats,
+                LocalDate.of(2020, 4, 1)), new InstrumentedCalculator(pipelined, stats),
+                new CsvOutputFormatter(new PrintStream(new ByteArrayOutputStream())))
+                .run(EXAMPLE1, List.of(LocalDate.of(2020, 4, 1)), 0);
+        stats.finish();
+
+        String json = stats.toJson();
+        assertTrue(json.contains("\"rows\": 8,"), json);
+        assertTrue(json.contains("\"bytes\": " + Files.size(Path.of(EXAMPLE1)) + ","), json);
+        assertTrue(json.contains("\"rowsAfterTargetDate\": 2,"), json);
+        assertTrue(json.contains("\"parse\": {\"wallMillis\": "), json);
+    }
+
+    @Test
+    void stages_reportTimeWithoutNestedStages() throws InterruptedException {
+        RunStats stats = new RunStats("file.csv");
+        RunStats.Stage outer = stats.stage("calculate");
+        RunStats.Stage inner = stats.stage("parse");
+        Thread.sleep(50);
+        inner.close();
+        outer.close();
+        stats.finish();
+
+        String json = stats.toJson();
+        String calculate = json.substring(json.indexOf("\"calculate\": {\"wallMillis\": ") + 28);
+        double calculateMillis = Double.parseDouble(calculate.substring(0, calculate.indexOf(',')));
+        assertTrue(calculateMillis < 40, json);
+        assertEquals(1, json.split("\"parse\"").length - 1, json);
+    }
+}
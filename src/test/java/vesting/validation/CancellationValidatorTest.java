@@ -10,6 +10,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -117,4 +118,18 @@ class CancellationValidatorTest {
         );
         assertThrows(IllegalStateException.class, () -> validator.validate(events));
     }
+
+    @Test
+    void validate_severalInvalidKeys_reportsLowestKey() {
+        List<VestingEvent> events = List.of(
+                cancel("E002", "A1", "2020-01-01", "1"),
+                cancel("E001", "A2", "2020-03-01", "1"),
+                vest("E001", "A1", "2020-01-01", "5"),
+                cancel("E001", "A1", "2020-02-01", "6")
+        );
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> validator.validate(events));
+        assertEquals("Invalid cancellation for E001/A1 on 2020-02-01: "
+                + "cumulative cancelled (6) exceeds cumulative vested (5)", ex.getMessage());
+    }
 }
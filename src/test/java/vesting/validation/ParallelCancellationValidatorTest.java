@@ -0,0 +1,75 @@
+package vesting.validation;
+
+import org.junit.jupiter.api.Test;
+import vesting.model.CancelEvent;
+import vesting.model.VestEvent;
+import vesting.model.VestingEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelCancellationValidatorTest {
+
+    private final ParallelCancellationValidator validator = new ParallelCancellationValidator(new ForkJoinPool(4), 1);
+    private final CancellationValidator sequential = new CancellationValidator();
+
+    // Valid histories for `keys` keys, shuffled so keys are seen out of order.
+    private static List<VestingEvent> validEvents(int keys, Random random) {
+        List<VestingEvent> events = new ArrayList<>();
+        for (int k = 0; k < keys; k++) {
+            LocalDate date = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(300));
+            events.add(new VestEvent("E" + k, "Name", "A" + k % 3, date, new BigDecimal("100")));
+            events.add(new CancelEvent("E" + k, "Name", "A" + k % 3, date.plusDays(random.nextInt(30)),
+                    new BigDecimal(random.nextInt(101))));
+        }
+        Collections.shuffle(events, random);
+        return events;
+    }
+
+    private static CancelEvent invalid(int k) {
+        return new CancelEvent("E" + k, "Name", "A" + k % 3, LocalDate.of(2021, 1, 1), new BigDecimal("1000"));
+    }
+
+    @Test
+    void validate_validEvents_noError() {
+        List<VestingEvent> events = validEvents(5_000, new Random(1));
+        assertDoesNotThrow(() -> validator.validate(events));
+    }
+
+    @Test
+    void validate_severalInvalidKeys_reportsSameKeyAsSequential() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            List<VestingEvent> events = validEvents(3_000, random);
+            for (int i = 0; i < 1 + random.nextInt(5); i++) {
+                events.add(random.nextInt(events.size()), invalid(random.nextInt(3_000)));
+            }
+
+            IllegalStateException expected = assertThrows(IllegalStateException.class,
+                    () -> sequential.validate(events));
+            IllegalStateException actual = assertThrows(IllegalStateException.class,
+                    () -> validator.validate(events));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    void validate_smallInput_runsSequentially() {
+        ParallelCancellationValidator thresholded = new ParallelCancellationValidator(new ForkJoinPool(4));
+        List<VestingEvent> events = List.of(
+                new VestEvent("E001", "Name", "A1", LocalDate.of(2020, 1, 1), new BigDecimal("5")),
+                new CancelEvent("E001", "Name", "A1", LocalDate.of(2020, 2, 1), new BigDecimal("6")));
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> thresholded.validate(events));
+        assertEquals("Invalid cancellation for E001/A1 on 2020-02-01: "
+                + "cumulative cancelled (6) exceeds cumulative vested (5)", ex.getMessage());
+    }
+}
@@ -1,10 +1,16 @@
 @echo off
 set SCRIPT_DIR=%~dp0
 set JAR=%SCRIPT_DIR%target\vesting-program-1.0.0.jar
+set JSA=%SCRIPT_DIR%target\vesting-program-1.0.0.jsa
 
 if not exist "%JAR%" (
     echo Building project ^(first run^)... 1>&2
     call "%SCRIPT_DIR%mvnw.cmd" -q clean package -DskipTests || exit /b 1
 )
 
-java -jar "%JAR%" %*
+rem The class-data-sharing archive written by the build. The JVM ignores one that
+rem does not match the jar; its warning would otherwise go to standard output.
+set CDS=
+if exist "%JSA%" set CDS=-XX:SharedArchiveFile="%JSA%" -Xlog:cds=off,cds+dynamic=off
+
+java %CDS% -jar "%JAR%" %*